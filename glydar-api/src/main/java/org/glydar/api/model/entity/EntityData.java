@@ -255,4 +255,9 @@ public interface EntityData {
     byte getNu19();
 
     void setNu19(byte nu19);
+
+    /**
+     * Returns a copy of the changed fields, marked as changed in the copy.
+     */
+    EntityData copy();
 }
@@ -1,5 +1,10 @@
 package org.glydar.api.model.world;
 
+import java.util.List;
+
+import org.glydar.api.model.entity.Entity;
+import org.glydar.api.model.geom.LongVector3;
+
 public interface World {
 
     String getName();
@@ -9,4 +14,21 @@ public interface World {
     boolean isPvpAllowed();
 
     void setPvpAllowed(boolean pvpAllowed);
+
+    /**
+     * Returns the entities within {@code radius} world units of
+     * {@code center}.
+     * <p/>
+     * Positions received from the players are taken into account right away,
+     * positions set by plugins only after the next tick.
+     */
+    List<Entity> getEntitiesInRange(LongVector3 center, long radius);
+
+    /**
+     * Returns the {@code count} entities closest to {@code center}, closest
+     * first.
+     * <p/>
+     * Same staleness as {@link #getEntitiesInRange(LongVector3, long)}.
+     */
+    List<Entity> getNearestEntities(LongVector3 center, int count);
 }
@@ -0,0 +1,16 @@
+package org.glydar.api.plugin.event;
+
+/**
+ * Describes an Event which asynchronous handlers may observe. Such handlers
+ * are given the copy returned by {@link #snapshot()} instead of the event
+ * itself, since the caller keeps using (and may reuse) what the event refers
+ * to once the synchronous handlers are done.
+ */
+public interface AsyncObservable {
+
+    /**
+     * Returns an immutable copy of this event, sharing no mutable or pooled
+     * state with it. Subclasses must return an instance of their own class.
+     */
+    Event snapshot();
+}
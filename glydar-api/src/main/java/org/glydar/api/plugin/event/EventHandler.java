@@ -19,4 +19,13 @@ public @interface EventHandler {
     EventPriority priority() default EventPriority.NORMAL;
 
     boolean ignoreCancelled() default false;
+
+    /**
+     * Whether the handler only observes the events and can be run on another
+     * thread, after the synchronous handlers. Only events implementing
+     * {@link AsyncObservable} can be handled asynchronously, the handler is
+     * then given a snapshot of the event. Handlers of other events, and of
+     * {@link Cancellable} ones, are always run synchronously.
+     */
+    boolean async() default false;
 }
@@ -24,6 +24,13 @@ public interface EventManager {
 
     void unregisterAll(Plugin plugin);
 
+    /**
+     * Returns whether at least one handler would be called for an event of
+     * the given class, so that callers can skip building events nobody
+     * listens to.
+     */
+    boolean hasHandlers(Class<? extends Event> eventClass);
+
     <E extends Event> E callEvent(E event);
 
 }
@@ -19,4 +19,8 @@ public class EntityAccelerationUpdateEvent extends EntityUpdateEvent {
         this.acceleration = acceleration;
     }
 
+    @Override
+    public EntityAccelerationUpdateEvent snapshot() {
+        return new EntityAccelerationUpdateEvent(getEntity(), acceleration);
+    }
 }
@@ -0,0 +1,45 @@
+package org.glydar.api.plugin.event.events;
+
+import org.glydar.api.model.entity.Entity;
+import org.glydar.api.model.entity.EntityData;
+
+/**
+ * Batched alternative to the per field update events : called once per
+ * update received from a client, with every changed field at once.
+ */
+public class EntityDataUpdateEvent extends EntityUpdateEvent {
+    private final EntityData data;
+    private final long changeMask;
+
+    public EntityDataUpdateEvent(Entity entity, EntityData data, long changeMask) {
+        super(entity);
+        this.data = data;
+        this.changeMask = changeMask;
+    }
+
+    /**
+     * Returns the received data, which can be modified before it is applied
+     * to the entity. Only the fields marked in the change mask are meaningful.
+     */
+    public EntityData getData() {
+        return data;
+    }
+
+    /**
+     * Returns the mask of changed fields, as sent by the client : bit
+     * {@code i} is set when the {@code i}-th field of the entity data
+     * changed.
+     */
+    public long getChangeMask() {
+        return changeMask;
+    }
+
+    /**
+     * The received data belongs to the caller, the snapshot gets a copy of
+     * it.
+     */
+    @Override
+    public EntityDataUpdateEvent snapshot() {
+        return new EntityDataUpdateEvent(getEntity(), data.copy(), changeMask);
+    }
+}
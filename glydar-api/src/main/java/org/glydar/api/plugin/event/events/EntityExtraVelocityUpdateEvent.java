@@ -19,4 +19,8 @@ public class EntityExtraVelocityUpdateEvent extends EntityUpdateEvent {
         this.extraVelocity = extraVelocity;
     }
 
+    @Override
+    public EntityExtraVelocityUpdateEvent snapshot() {
+        return new EntityExtraVelocityUpdateEvent(getEntity(), extraVelocity);
+    }
 }
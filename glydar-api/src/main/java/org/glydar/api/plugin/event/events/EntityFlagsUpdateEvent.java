@@ -28,4 +28,8 @@ public class EntityFlagsUpdateEvent extends EntityUpdateEvent {
         this.flags2 = flags2;
     }
 
+    @Override
+    public EntityFlagsUpdateEvent snapshot() {
+        return new EntityFlagsUpdateEvent(getEntity(), flags1, flags2);
+    }
 }
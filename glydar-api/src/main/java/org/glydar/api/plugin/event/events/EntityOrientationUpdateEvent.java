@@ -18,4 +18,9 @@ public class EntityOrientationUpdateEvent extends EntityUpdateEvent {
     public void setOrientation(Orientation orientation) {
         this.orientation = orientation;
     }
+
+    @Override
+    public EntityOrientationUpdateEvent snapshot() {
+        return new EntityOrientationUpdateEvent(getEntity(), orientation);
+    }
 }
@@ -18,4 +18,9 @@ public class EntityPositionUpdateEvent extends EntityUpdateEvent {
     public void setPosition(LongVector3 position) {
         this.position = position;
     }
+
+    @Override
+    public EntityPositionUpdateEvent snapshot() {
+        return new EntityPositionUpdateEvent(getEntity(), position);
+    }
 }
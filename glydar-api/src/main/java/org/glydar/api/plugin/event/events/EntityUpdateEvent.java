@@ -1,9 +1,15 @@
 package org.glydar.api.plugin.event.events;
 
 import org.glydar.api.model.entity.Entity;
+import org.glydar.api.plugin.event.AsyncObservable;
 import org.glydar.api.plugin.event.Event;
 
-public abstract class EntityUpdateEvent extends Event {
+/**
+ * Update of an entity received from a client. Asynchronous handlers observe a
+ * snapshot of the update, the entity it refers to is still the live one and
+ * must only be read from the main thread.
+ */
+public abstract class EntityUpdateEvent extends Event implements AsyncObservable {
     private final Entity entity;
 
     public EntityUpdateEvent(Entity entity) {
@@ -13,4 +19,7 @@ public abstract class EntityUpdateEvent extends Event {
     public Entity getEntity() {
         return entity;
     }
+
+    @Override
+    public abstract EntityUpdateEvent snapshot();
 }
@@ -19,4 +19,8 @@ public class EntityVelocityUpdateEvent extends EntityUpdateEvent {
         this.velocity = velocity;
     }
 
+    @Override
+    public EntityVelocityUpdateEvent snapshot() {
+        return new EntityVelocityUpdateEvent(getEntity(), velocity);
+    }
 }
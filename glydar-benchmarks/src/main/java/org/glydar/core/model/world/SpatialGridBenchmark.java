@@ -0,0 +1,119 @@
+package org.glydar.core.model.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.core.model.entity.CoreEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Range and nearest neighbours queries of {@link SpatialGrid} against a
+ * linear scan of every entity, with entities spread over 64x64 chunks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialGridBenchmark {
+
+    private static final long SPREAD = 64 * SpatialGrid.CHUNK_SCALE;
+    private static final long RADIUS = CoreWorld.DEFAULT_INTEREST_RADIUS * CoreWorld.BLOCK_SCALE;
+    private static final int NEAREST = 10;
+    private static final int CENTERS = 1024;
+
+    @Param({ "100", "1000", "10000" })
+    private int entityCount;
+
+    private List<CoreEntity> entities;
+    private SpatialGrid grid;
+    private LongVector3[] centers;
+    private int next;
+    private final List<CoreEntity> result = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.entities = new ArrayList<>(entityCount);
+        this.grid = new SpatialGrid();
+        for (int i = 0; i < entityCount; i++) {
+            CoreEntity entity = new CoreEntity() {};
+            entity.getData().setPosition(randomPosition(random));
+            entities.add(entity);
+            grid.update(entity);
+        }
+
+        this.centers = new LongVector3[CENTERS];
+        for (int i = 0; i < CENTERS; i++) {
+            centers[i] = randomPosition(random);
+        }
+    }
+
+    private static LongVector3 randomPosition(Random random) {
+        return new LongVector3((long) (random.nextDouble() * SPREAD), (long) (random.nextDouble() * SPREAD),
+                (long) (random.nextDouble() * SPREAD / 64));
+    }
+
+    private LongVector3 nextCenter() {
+        next = (next + 1) & (CENTERS - 1);
+        return centers[next];
+    }
+
+    @Benchmark
+    public List<CoreEntity> rangeGrid() {
+        result.clear();
+        grid.queryRange(nextCenter(), RADIUS, result);
+        return result;
+    }
+
+    @Benchmark
+    public List<CoreEntity> rangeScan() {
+        LongVector3 center = nextCenter();
+        double radiusSq = (double) RADIUS * RADIUS;
+        result.clear();
+        for (int i = 0; i < entities.size(); i++) {
+            CoreEntity entity = entities.get(i);
+            if (SpatialGrid.distanceSq(center, entity.getData().getPosition()) <= radiusSq) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CoreEntity> nearestGrid() {
+        return grid.queryNearest(nextCenter(), NEAREST);
+    }
+
+    @Benchmark
+    public List<CoreEntity> nearestScan() {
+        final LongVector3 center = nextCenter();
+        List<CoreEntity> sorted = new ArrayList<>(entities);
+        Collections.sort(sorted, new Comparator<CoreEntity>() {
+
+            @Override
+            public int compare(CoreEntity a, CoreEntity b) {
+                return Double.compare(SpatialGrid.distanceSq(center, a.getData().getPosition()),
+                        SpatialGrid.distanceSq(center, b.getData().getPosition()));
+            }
+        });
+        return sorted.subList(0, Math.min(NEAREST, sorted.size()));
+    }
+}
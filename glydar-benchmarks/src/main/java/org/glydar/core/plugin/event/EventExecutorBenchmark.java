@@ -0,0 +1,96 @@
+package org.glydar.core.plugin.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.api.plugin.event.EventExecutor;
+import org.glydar.api.plugin.event.EventHandler;
+import org.glydar.api.plugin.event.Listener;
+import org.glydar.api.plugin.event.events.EntityPositionUpdateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dispatch of an event to an {@link EventHandler} method : reflective
+ * {@link Method#invoke} (the previous executor), a {@link MethodHandle}, the
+ * executor class generated by {@link MethodEventExecutor#of} and a
+ * hand-written direct call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventExecutorBenchmark {
+
+    public static class PositionListener implements Listener {
+
+        private long sum;
+
+        @EventHandler
+        public void onPosition(EntityPositionUpdateEvent event) {
+            sum += event.getPosition().getX();
+        }
+    }
+
+    private PositionListener listener;
+    private EntityPositionUpdateEvent event;
+    private Method method;
+    private EventExecutor<EntityPositionUpdateEvent> methodHandle;
+    private EventExecutor<EntityPositionUpdateEvent> generated;
+    private EventExecutor<EntityPositionUpdateEvent> direct;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        this.listener = new PositionListener();
+        this.event = new EntityPositionUpdateEvent(null, new LongVector3(1, 2, 3));
+        this.method = PositionListener.class.getMethod("onPosition", EntityPositionUpdateEvent.class);
+        this.methodHandle = new MethodEventExecutor.HandleEventExecutor<>(listener, method, false);
+        this.generated = MethodEventExecutor.of(EntityPositionUpdateEvent.class, listener, method,
+                method.getAnnotation(EventHandler.class));
+        this.direct = new EventExecutor<EntityPositionUpdateEvent>() {
+
+            @Override
+            public void execute(EntityPositionUpdateEvent event) {
+                listener.onPosition(event);
+            }
+        };
+    }
+
+    @Benchmark
+    public long reflective() throws IllegalAccessException, InvocationTargetException {
+        method.invoke(listener, event);
+        return listener.sum;
+    }
+
+    @Benchmark
+    public long methodHandle() {
+        methodHandle.execute(event);
+        return listener.sum;
+    }
+
+    @Benchmark
+    public long generated() {
+        generated.execute(event);
+        return listener.sum;
+    }
+
+    @Benchmark
+    public long direct() {
+        direct.execute(event);
+        return listener.sum;
+    }
+}
@@ -0,0 +1,252 @@
+package org.glydar.core.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.glydar.api.model.geom.FloatVector3;
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.api.model.geom.Orientation;
+import org.glydar.api.model.item.Equipment;
+import org.glydar.api.model.item.ItemUpgrade;
+import org.glydar.core.model.actions.DamageAction;
+import org.glydar.core.model.actions.KillAction;
+import org.glydar.core.model.actions.Particle;
+import org.glydar.core.model.actions.PickupAction;
+import org.glydar.core.model.actions.SoundAction;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.model.item.CoreItem;
+import org.glydar.core.model.item.CoreWeapon;
+import org.glydar.core.protocol.codec.ActionCodec;
+import org.glydar.core.protocol.codec.EntityCodec;
+import org.glydar.core.protocol.codec.WorldUpdates;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet04WorldUpdate;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet09Shoot;
+
+/**
+ * Payloads shaped after the traffic of a busy server : the frequent movement
+ * updates, the full state of equipped players and the world updates of a
+ * fight. Raw streams captured on a real connection can be loaded with
+ * {@link #capture(String)} instead.
+ */
+public final class Payloads {
+
+    private static final long ORIGIN = 0x8020000000L;
+    private static final long BLOCK = 0x10000;
+
+    private Payloads() {
+    }
+
+    public static ByteBuf buffer() {
+        return Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the update a moving player sends every frame.
+     */
+    public static CoreEntityData movement(int index) {
+        CoreEntityData data = new CoreEntityData(new EntityChanges(0));
+        data.setPosition(new LongVector3(ORIGIN + index * 0x2000, ORIGIN, 0x1000000));
+        data.setOrientation(new Orientation(0, 0, index % 8));
+        data.setVelocity(new FloatVector3(0, 0, 0));
+        data.setAcceleration(new FloatVector3(12, 0, 0));
+        data.setLookPitch(0.5f);
+        data.setPhysicsFlags(0x1);
+        data.setFlags1((byte) 0);
+        data.setFlags2((byte) 0);
+        return data;
+    }
+
+    /**
+     * Returns the full state of an equipped player, as sent when it enters
+     * the interest radius of another one.
+     */
+    public static CoreEntityData player(int index) {
+        CoreEntityData data = new CoreEntityData(new EntityChanges());
+        data.setPosition(new LongVector3(ORIGIN + index * 8 * BLOCK, ORIGIN - index * 3 * BLOCK, 0x1000000));
+        data.setOrientation(new Orientation(0, 0, index * 45));
+        data.setVelocity(new FloatVector3(3, 1, 0));
+        data.setAcceleration(new FloatVector3(12, 4, 0));
+        data.setPhysicsFlags(0x11);
+        data.setEntityTypeId(2);
+        data.setEntityClassId((byte) (1 + index % 4));
+        data.setHp(1200 + index);
+        data.setMp(0.75f);
+        data.setMaxHPMultiplier(100);
+        data.setShootSpeed(1);
+        data.setDamageMultiplier(1);
+        data.setArmorMultiplier(1);
+        data.setResistanceMultiplier(1);
+        data.setLevel(30 + index % 20);
+        data.setCurrentXP(4200);
+        data.setSpawnPosition(new LongVector3(ORIGIN, ORIGIN, 0x1000000));
+        data.setName("Player" + index);
+        data.setSkills(new long[] { 5, 3, 4, 0, 2, 1, 0, 0, 3, 2, 0 });
+
+        Equipment equipment = data.getEquipment();
+        equipment.setChest(item((byte) 4, (byte) 0, index));
+        equipment.setFeet(item((byte) 6, (byte) 0, index + 1));
+        equipment.setHands(item((byte) 5, (byte) 0, index + 2));
+        equipment.setShoulder(item((byte) 7, (byte) 0, index + 3));
+        equipment.setWeaponRight(weapon(index));
+        equipment.setRingLeft(item((byte) 9, (byte) 0, index + 4));
+        return data;
+    }
+
+    public static CoreItem item(byte typeId, byte subtypeId, int seed) {
+        CoreItem item = new CoreItem(typeId, subtypeId);
+        decorate(item, seed);
+        return item;
+    }
+
+    /**
+     * Returns a weapon with most of its upgrade slots in use.
+     */
+    public static CoreItem weapon(int seed) {
+        CoreItem weapon = new CoreWeapon((byte) (seed % 16));
+        decorate(weapon, seed);
+        return weapon;
+    }
+
+    private static void decorate(CoreItem item, int seed) {
+        item.setModifier(0x12345 + seed);
+        item.setRarity((byte) (seed % 5));
+        item.setMaterialId((byte) 1);
+        item.setLevel((short) (30 + seed % 20));
+
+        ItemUpgrade[] upgrades = item.getUpgrades();
+        int count = 24;
+        for (int i = 0; i < count; i++) {
+            upgrades[i].setxOffset((byte) (i % 4 - 2));
+            upgrades[i].setyOffset((byte) (i / 4 % 4 - 2));
+            upgrades[i].setzOffset((byte) (i / 16));
+            upgrades[i].setMaterial((byte) 11);
+            upgrades[i].setLevel(1 + i % 3);
+        }
+        item.setUpgradeCount(count);
+    }
+
+    /**
+     * Returns the world updates of a tick during a fight between the given
+     * number of players : each one hits, shoots and makes a few particles
+     * and sounds, and some of them get killed or pick an item up.
+     */
+    public static WorldUpdates fight(int players) {
+        ByteBuf buf = buffer();
+        // Unknown1
+        buf.writeInt(0);
+
+        buf.writeInt(players);
+        for (int i = 0; i < players; i++) {
+            hit(i, (i + 1) % players).writeTo(RemoteType.CLIENT, buf);
+        }
+
+        buf.writeInt(players * 2);
+        for (int i = 0; i < players * 2; i++) {
+            Particle particle = new Particle(new LongVector3(ORIGIN + i * BLOCK, ORIGIN, 0x1000000));
+            particle.setAcceleration(new FloatVector3(0, 0, 1));
+            particle.setColorRed(1);
+            particle.setColorAlpha(1);
+            particle.setScale(0.5f);
+            particle.setCount(8);
+            particle.setSpreading(0.25f);
+            EntityCodec.writeParticle(buf, particle);
+        }
+
+        buf.writeInt(players);
+        for (int i = 0; i < players; i++) {
+            SoundAction sound = new SoundAction(new FloatVector3(i * 64, 0, 32), i % 50);
+            sound.setPitch(1);
+            sound.setVolume(1);
+            ActionCodec.writeSoundAction(buf, sound);
+        }
+
+        buf.writeInt(players);
+        for (int i = 0; i < players; i++) {
+            shoot(i).writeTo(RemoteType.CLIENT, buf);
+        }
+
+        // Unknown6, chunk items and Unknown8
+        buf.writeInt(0);
+        buf.writeInt(0);
+        buf.writeInt(0);
+
+        int pickups = Math.max(1, players / 8);
+        buf.writeInt(pickups);
+        for (int i = 0; i < pickups; i++) {
+            ActionCodec.writePickupAction(buf, new PickupAction(i + 1, item((byte) 1, (byte) 0, i)));
+        }
+
+        int kills = Math.max(1, players / 4);
+        buf.writeInt(kills);
+        for (int i = 0; i < kills; i++) {
+            KillAction kill = new KillAction(i + 1, (i + 1) % players + 1, 120);
+            ActionCodec.writeKillAction(buf, kill);
+        }
+
+        buf.writeInt(players);
+        for (int i = 0; i < players; i++) {
+            DamageAction damage = new DamageAction(i + 1, (i + 1) % players + 1);
+            damage.setDamage(87.5f);
+            ActionCodec.writeDamageAction(buf, damage);
+        }
+
+        // Unknown12 and missions
+        buf.writeInt(0);
+        buf.writeInt(0);
+
+        return new WorldUpdates(buf);
+    }
+
+    private static Packet07Hit hit(int damager, int target) {
+        ByteBuf buf = buffer();
+        buf.writeLong(damager + 1);
+        buf.writeLong(target + 1);
+        buf.writeFloat(87.5f);
+        buf.writeZero(256);
+        return new Packet07Hit(buf);
+    }
+
+    private static Packet09Shoot shoot(int shooter) {
+        ByteBuf buf = buffer();
+        buf.writeLong(shooter + 1);
+        buf.writeZero(256);
+        return new Packet09Shoot(buf);
+    }
+
+    /**
+     * Returns the packets a player receives on each tick when surrounded by
+     * {@code players} moving players.
+     */
+    public static List<Packet> tick(int players) {
+        List<Packet> packets = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            packets.add(new Packet00EntityUpdate(i + 1, movement(i)));
+        }
+        packets.add(new Packet02UpdateFinished());
+        packets.add(new Packet04WorldUpdate(fight(players)));
+        return packets;
+    }
+
+    /**
+     * Reads a raw stream of packets, as received by a client or a server.
+     */
+    public static byte[] capture(String path) {
+        try {
+            return Files.readAllBytes(Paths.get(path));
+        }
+        catch (IOException exc) {
+            throw new IllegalArgumentException("Unable to read capture " + path, exc);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.glydar.core.protocol.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.model.geom.FloatVector3;
+import org.glydar.core.model.actions.DamageAction;
+import org.glydar.core.model.actions.KillAction;
+import org.glydar.core.model.actions.PickupAction;
+import org.glydar.core.model.actions.SoundAction;
+import org.glydar.core.protocol.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coding of the actions carried by the world updates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionCodecBenchmark {
+
+    private DamageAction damage;
+    private KillAction kill;
+    private PickupAction pickup;
+    private SoundAction sound;
+    private ByteBuf encodedDamage;
+    private ByteBuf encodedKill;
+    private ByteBuf encodedPickup;
+    private ByteBuf encodedSound;
+    private ByteBuf output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.damage = new DamageAction(1, 2);
+        damage.setDamage(87.5f);
+        this.kill = new KillAction(1, 2, 120);
+        this.pickup = new PickupAction(1, Payloads.item((byte) 1, (byte) 0, 1));
+        this.sound = new SoundAction(new FloatVector3(64, 0, 32), 12);
+        sound.setPitch(1);
+        sound.setVolume(1);
+
+        this.encodedDamage = Payloads.buffer();
+        ActionCodec.writeDamageAction(encodedDamage, damage);
+        this.encodedKill = Payloads.buffer();
+        ActionCodec.writeKillAction(encodedKill, kill);
+        this.encodedPickup = Payloads.buffer();
+        ActionCodec.writePickupAction(encodedPickup, pickup);
+        this.encodedSound = Payloads.buffer();
+        ActionCodec.writeSoundAction(encodedSound, sound);
+        this.output = Payloads.buffer();
+    }
+
+    @Benchmark
+    public DamageAction readDamage() {
+        encodedDamage.readerIndex(0);
+        return ActionCodec.readDamageAction(encodedDamage);
+    }
+
+    @Benchmark
+    public int writeDamage() {
+        output.clear();
+        ActionCodec.writeDamageAction(output, damage);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public KillAction readKill() {
+        encodedKill.readerIndex(0);
+        return ActionCodec.readKillAction(encodedKill);
+    }
+
+    @Benchmark
+    public int writeKill() {
+        output.clear();
+        ActionCodec.writeKillAction(output, kill);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public PickupAction readPickup() {
+        encodedPickup.readerIndex(0);
+        return ActionCodec.readPickupAction(encodedPickup);
+    }
+
+    @Benchmark
+    public int writePickup() {
+        output.clear();
+        ActionCodec.writePickupAction(output, pickup);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public SoundAction readSound() {
+        encodedSound.readerIndex(0);
+        return ActionCodec.readSoundAction(encodedSound);
+    }
+
+    @Benchmark
+    public int writeSound() {
+        output.clear();
+        ActionCodec.writeSoundAction(output, sound);
+        return output.writerIndex();
+    }
+}
@@ -0,0 +1,101 @@
+package org.glydar.core.protocol.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityDataPool;
+import org.glydar.core.protocol.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of the movement updates a client sends every frame, into a new
+ * entity data against a pooled one, and coding of the full state of an
+ * equipped player. Run with {@code -prof gc} to compare the bytes allocated
+ * per decoded update ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityCodecBenchmark {
+
+    private static final int UPDATES = 64;
+
+    private ByteBuf[] updates;
+    private int next;
+    private EntityDataPool pool;
+    private CoreEntityData movement;
+    private CoreEntityData fullState;
+    private ByteBuf encodedFullState;
+    private ByteBuf output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.updates = new ByteBuf[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            ByteBuf buf = Payloads.buffer();
+            EntityCodec.writeEntityData(buf, Payloads.movement(i));
+            updates[i] = buf;
+        }
+        this.pool = new EntityDataPool();
+
+        this.movement = Payloads.movement(1);
+        this.fullState = Payloads.player(1);
+        this.encodedFullState = Payloads.buffer();
+        EntityCodec.writeEntityData(encodedFullState, fullState);
+        this.output = Payloads.buffer();
+    }
+
+    private ByteBuf nextUpdate() {
+        ByteBuf buf = updates[next++ & (UPDATES - 1)];
+        buf.readerIndex(0);
+        return buf;
+    }
+
+    @Benchmark
+    public CoreEntityData decodeNew() {
+        return EntityCodec.readEntityData(nextUpdate());
+    }
+
+    @Benchmark
+    public long decodePooled() {
+        CoreEntityData data = EntityCodec.readEntityData(nextUpdate(), pool.acquire());
+        long x = data.getPosition().getX();
+        pool.release(data);
+        return x;
+    }
+
+    @Benchmark
+    public CoreEntityData decodeFullState() {
+        encodedFullState.readerIndex(0);
+        return EntityCodec.readEntityData(encodedFullState);
+    }
+
+    @Benchmark
+    public int encodeMovement() {
+        output.clear();
+        EntityCodec.writeEntityData(output, movement);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public int encodeFullState() {
+        output.clear();
+        EntityCodec.writeEntityData(output, fullState);
+        return output.writerIndex();
+    }
+}
@@ -0,0 +1,76 @@
+package org.glydar.core.protocol.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.model.item.Equipment;
+import org.glydar.core.model.item.CoreItem;
+import org.glydar.core.protocol.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coding of an upgraded weapon and of the equipment of a player, which makes
+ * up most of the full state of a player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemCodecBenchmark {
+
+    private CoreItem item;
+    private Equipment equipment;
+    private ByteBuf encodedItem;
+    private ByteBuf encodedEquipment;
+    private ByteBuf output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.item = Payloads.weapon(1);
+        this.equipment = Payloads.player(1).getEquipment();
+        this.encodedItem = Payloads.buffer();
+        ItemCodec.writeItem(encodedItem, item);
+        this.encodedEquipment = Payloads.buffer();
+        ItemCodec.writeEquipment(encodedEquipment, equipment);
+        this.output = Payloads.buffer();
+    }
+
+    @Benchmark
+    public CoreItem readItem() {
+        encodedItem.readerIndex(0);
+        return ItemCodec.readItem(encodedItem);
+    }
+
+    @Benchmark
+    public int writeItem() {
+        output.clear();
+        ItemCodec.writeItem(output, item);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public Equipment readEquipment() {
+        encodedEquipment.readerIndex(0);
+        return ItemCodec.readEquipment(encodedEquipment);
+    }
+
+    @Benchmark
+    public int writeEquipment() {
+        output.clear();
+        ItemCodec.writeEquipment(output, equipment);
+        return output.writerIndex();
+    }
+}
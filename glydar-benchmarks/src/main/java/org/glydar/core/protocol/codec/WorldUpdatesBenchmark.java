@@ -0,0 +1,61 @@
+package org.glydar.core.protocol.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.protocol.Payloads;
+import org.glydar.core.protocol.RemoteType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialisation of the world updates of a tick during a fight between the
+ * given number of players, before compression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldUpdatesBenchmark {
+
+    @Param({ "4", "32" })
+    private int players;
+
+    private WorldUpdates updates;
+    private ByteBuf encoded;
+    private ByteBuf output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.updates = Payloads.fight(players);
+        this.encoded = Payloads.buffer();
+        updates.writeTo(RemoteType.CLIENT, encoded);
+        this.output = Payloads.buffer();
+    }
+
+    @Benchmark
+    public WorldUpdates read() {
+        encoded.readerIndex(0);
+        return new WorldUpdates(encoded);
+    }
+
+    @Benchmark
+    public int write() {
+        output.clear();
+        updates.writeTo(RemoteType.CLIENT, output);
+        return output.writerIndex();
+    }
+}
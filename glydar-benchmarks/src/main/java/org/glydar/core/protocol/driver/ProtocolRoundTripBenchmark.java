@@ -0,0 +1,112 @@
+package org.glydar.core.protocol.driver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.Payloads;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding of the packets a player receives on each tick, from
+ * the {@link ProtocolEncoder} to the packets out of the
+ * {@link ProtocolDecoder}.
+ * <p/>
+ * The packets are generated for the given number of surrounding players,
+ * unless a raw stream sent by a server is given with
+ * {@code -p capture=<path>}, in which case its packets are used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolRoundTripBenchmark {
+
+    @Param({ "1", "16" })
+    private int players;
+
+    @Param({ "" })
+    private String capture;
+
+    private EmbeddedChannel channel;
+    private List<Packet> packets;
+    private byte[] stream;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.channel = new EmbeddedChannel(new ProtocolDecoder<>(new TestProtocolHandler(RemoteType.SERVER)));
+        if (capture.isEmpty()) {
+            this.packets = Payloads.tick(players);
+        }
+        else {
+            channel.writeInbound(Unpooled.wrappedBuffer(Payloads.capture(capture)));
+            this.packets = new ArrayList<>();
+            Object packet;
+            while ((packet = channel.readInbound()) != null) {
+                packets.add((Packet) packet);
+            }
+        }
+
+        ByteBuf encoded = ProtocolEncoder.encode(channel.alloc(), RemoteType.CLIENT, packets);
+        this.stream = new byte[encoded.readableBytes()];
+        encoded.readBytes(stream);
+        encoded.release();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finish();
+    }
+
+    private int decode(ByteBuf encoded) {
+        channel.writeInbound(encoded);
+        int count = 0;
+        Object packet;
+        while ((packet = channel.readInbound()) != null) {
+            if (packet instanceof Packet00EntityUpdate) {
+                ((Packet00EntityUpdate) packet).release();
+            }
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int encode() {
+        ByteBuf encoded = ProtocolEncoder.encode(channel.alloc(), RemoteType.CLIENT, packets);
+        int length = encoded.readableBytes();
+        encoded.release();
+        return length;
+    }
+
+    @Benchmark
+    public int decode() {
+        return decode(Unpooled.wrappedBuffer(stream));
+    }
+
+    @Benchmark
+    public int roundTrip() {
+        return decode(ProtocolEncoder.encode(channel.alloc(), RemoteType.CLIENT, packets));
+    }
+}
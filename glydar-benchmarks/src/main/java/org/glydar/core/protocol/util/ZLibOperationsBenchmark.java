@@ -0,0 +1,95 @@
+package org.glydar.core.protocol.util;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.protocol.Payloads;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.codec.EntityCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compression and decompression of the payloads of the compressed packets :
+ * a movement update, the full state of a player and the world updates of a
+ * fight between 16 players.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZLibOperationsBenchmark {
+
+    @Param({ "movement", "fullState", "fight" })
+    private String payload;
+
+    private BufWritable writable;
+    private ByteBuf compressed;
+    private ByteBuf output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (payload) {
+        case "movement":
+            this.writable = new EntityDataWritable(Payloads.movement(1));
+            break;
+        case "fullState":
+            this.writable = new EntityDataWritable(Payloads.player(1));
+            break;
+        case "fight":
+            this.writable = Payloads.fight(16);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown payload " + payload);
+        }
+
+        this.compressed = Payloads.buffer();
+        ZLibOperations.compress(RemoteType.CLIENT, compressed, writable);
+        this.output = Payloads.buffer();
+    }
+
+    private static final class EntityDataWritable implements BufWritable {
+
+        private final CoreEntityData data;
+
+        private EntityDataWritable(CoreEntityData data) {
+            this.data = data;
+        }
+
+        @Override
+        public void writeTo(RemoteType receiver, ByteBuf buf) {
+            buf.writeLong(1);
+            EntityCodec.writeEntityData(buf, data);
+        }
+    }
+
+    @Benchmark
+    public int compress() {
+        output.clear();
+        ZLibOperations.compress(RemoteType.CLIENT, output, writable);
+        return output.writerIndex();
+    }
+
+    @Benchmark
+    public int decompress() {
+        compressed.readerIndex(0);
+        ByteBuf decompressed = ZLibOperations.decompress(compressed);
+        int length = decompressed.readableBytes();
+        decompressed.release();
+        return length;
+    }
+}
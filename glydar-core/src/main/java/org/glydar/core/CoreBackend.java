@@ -5,7 +5,6 @@ import java.nio.file.Path;
 import org.glydar.api.Backend;
 import org.glydar.api.logging.GlydarLogger;
 import org.glydar.api.plugin.command.CommandManager;
-import org.glydar.api.plugin.event.EventManager;
 import org.glydar.core.logging.CoreGlydarLogger;
 import org.glydar.core.plugin.CorePluginManager;
 import org.glydar.core.plugin.command.ConsoleCommandReader;
@@ -24,7 +23,7 @@ public abstract class CoreBackend implements Backend {
     private final CorePluginManager pluginManager;
     private final CommandManager commandManager;
     private final ConsoleCommandReader consoleReader;
-    private final EventManager eventManager;
+    private final CoreEventManager eventManager;
 
     public CoreBackend(String name) {
         BackendBootstrap bootstrap = new BackendBootstrap(getClass(), name);
@@ -101,7 +100,7 @@ public abstract class CoreBackend implements Backend {
     }
 
     @Override
-    public EventManager getEventManager() {
+    public CoreEventManager getEventManager() {
         return eventManager;
     }
 }
@@ -11,7 +11,7 @@ public abstract class CoreEntity implements Entity {
 
     protected final long id;
     protected final CoreEntityData data;
-    protected CoreWorld world;
+    protected volatile CoreWorld world;
 
     public CoreEntity() {
         this.id = ID_POOL.pop();
@@ -34,8 +34,8 @@ public abstract class CoreEntity implements Entity {
     }
 
     public void joinWorld(CoreWorld world) {
-        if (world != null) {
-            world.unregisterEntity(id);
+        if (this.world != null) {
+            this.world.unregisterEntity(id);
         }
         this.world = world;
         world.registerEntity(this);
@@ -89,6 +89,7 @@ public class CoreEntityData implements EntityData {
     public CoreEntityData(EntityChanges changes) {
         this.changes = changes;
         this.position = new LongVector3();
+        this.orientation = new Orientation(0, 0, 0);
         this.velocity = new FloatVector3();
         this.acceleration = new FloatVector3();
         this.extraVelocity = new FloatVector3();
@@ -101,172 +102,193 @@ public class CoreEntityData implements EntityData {
     }
 
     public void updateFrom(CoreEntityData other) {
-        EntityChanges otherChanges = other.changes;
-
-        if (otherChanges.get(EntityChange.POSITION)) {
-            setPosition(other.position);
-        }
-        if (otherChanges.get(EntityChange.ORIENTATION)) {
-            setOrientation(other.orientation);
-        }
-        if (otherChanges.get(EntityChange.VELOCITY)) {
-            setVelocity(other.velocity);
-        }
-        if (otherChanges.get(EntityChange.ACCELERATION)) {
-            setAcceleration(other.acceleration);
-        }
-        if (otherChanges.get(EntityChange.EXTRA_VELOCITY)) {
-            setVelocity(other.velocity);
-        }
-        if (otherChanges.get(EntityChange.LOOK_PITCH)) {
-            setLookPitch(other.lookPitch);
-        }
-        if (otherChanges.get(EntityChange.PHYSICS_FLAGS)) {
-            setPhysicsFlags(other.physicsFlags);
-        }
-        if (otherChanges.get(EntityChange.HOSTILE_TYPE)) {
-            setHostileType(other.hostileType);
-        }
-        if (otherChanges.get(EntityChange.ENTITY_TYPE)) {
-            setEntityTypeId(other.entityTypeId);
-        }
-        if (otherChanges.get(EntityChange.CURRENT_MODE)) {
-            setCurrentMode(other.currentMode);
-        }
-        if (otherChanges.get(EntityChange.LAST_SHOOT_TIME)) {
-            setLastShootTime(other.lastShootTime);
-        }
-        if (otherChanges.get(EntityChange.HIT_COUNTER)) {
-            setHitCounter(other.hitCounter);
-        }
-        if (otherChanges.get(EntityChange.LAST_HIT_TIME)) {
-            setLastHitTime(other.lastHitTime);
-        }
-        if (otherChanges.get(EntityChange.APPEARANCE)) {
-            setAppearance(other.appearance);
-        }
-        if (otherChanges.get(EntityChange.FLAGS)) {
-            setFlags1(other.flags1);
-            setFlags2(other.flags2);
-        }
-        if (otherChanges.get(EntityChange.ROLL_TIME)) {
-            setRollTime(other.rollTime);
-        }
-        if (otherChanges.get(EntityChange.STUN_TIME)) {
-            setStunTime(other.stunTime);
-        }
-        if (otherChanges.get(EntityChange.SLOWED_TIME)) {
-            setSlowedTime(other.slowedTime);
-        }
-        if (otherChanges.get(EntityChange.MAKE_BLUE_TIME)) {
-            setMakeBlueTime(other.makeBlueTime);
-        }
-        if (otherChanges.get(EntityChange.SPEED_UP_TIME)) {
-            setSpeedUpTime(other.speedUpTime);
-        }
-        if (otherChanges.get(EntityChange.SLOW_PATCH_TIME)) {
-            setSlowPatchTime(other.slowPatchTime);
-        }
-        if (otherChanges.get(EntityChange.ENTITY_CLASS)) {
-            setEntityClassId(other.entityClassId);
-        }
-        if (otherChanges.get(EntityChange.SPECIALIZATION)) {
-            setSpecializationId(other.specializationId);
-        }
-        if (otherChanges.get(EntityChange.CHARGED_MP)) {
-            setChargedMP(other.chargedMP);
-        }
-        if (otherChanges.get(EntityChange.NU_1_2_3)) {
-            setNu1(other.nu1);
-            setNu2(other.nu2);
-            setNu3(other.nu3);
-        }
-        if (otherChanges.get(EntityChange.NU_4_5_6)) {
-            setNu4(other.nu4);
-            setNu5(other.nu5);
-            setNu6(other.nu6);
-        }
-        if (otherChanges.get(EntityChange.RAY_HIT)) {
-            setRayHit(other.rayHit);
-        }
-        if (otherChanges.get(EntityChange.HP)) {
-            setHp(other.hp);
-        }
-        if (otherChanges.get(EntityChange.MP)) {
-            setMp(other.mp);
-        }
-        if (otherChanges.get(EntityChange.BLOCK_POWER)) {
-            setBlockPower(other.blockPower);
-        }
-        if (otherChanges.get(EntityChange.MULTIPLIERS)) {
-            setMaxHPMultiplier(other.maxHPMultiplier);
-            setShootSpeed(other.shootSpeed);
-            setDamageMultiplier(other.damageMultiplier);
-            setArmorMultiplier(other.armorMultiplier);
-            setResistanceMultiplier(other.resistanceMultiplier);
-        }
-        if (otherChanges.get(EntityChange.NU_7)) {
-            setNu7(other.nu7);
-        }
-        if (otherChanges.get(EntityChange.NU_8)) {
-            setNu8(other.nu8);
-        }
-        if (otherChanges.get(EntityChange.LEVEL)) {
-            setLevel(other.level);
-        }
-        if (otherChanges.get(EntityChange.CURRENT_XP)) {
-            setCurrentXP(other.currentXP);
-        }
-        if (otherChanges.get(EntityChange.PARENT_OWNER)) {
-            setParentOwner(other.parentOwner);
-        }
-        if (otherChanges.get(EntityChange.NA_1_2)) {
-            setNa1(other.na1);
-            setNa2(other.na2);
-        }
-        if (otherChanges.get(EntityChange.NA_3)) {
-            setNa3(other.na3);
-        }
-        if (otherChanges.get(EntityChange.NA_4)) {
-            setNa4(other.na4);
-        }
-        if (otherChanges.get(EntityChange.NA_5_NU_11_12)) {
-            setNa5(other.na5);
-            setNu11(other.nu11);
-            setNu12(other.nu12);
-        }
-        if (otherChanges.get(EntityChange.SPAWN_POSITION)) {
-            setSpawnPosition(other.spawnPosition);
-        }
-        if (otherChanges.get(EntityChange.NU_20_21_22)) {
-            setNu20(other.nu20);
-            setNu21(other.nu21);
-            setNu22(other.nu22);
-        }
-        if (otherChanges.get(EntityChange.NU_19)) {
-            setNu19(other.nu19);
-        }
-        if (otherChanges.get(EntityChange.QUICK_ITEM)) {
-            setQuickItem(other.quickItem);
-        }
-        if (otherChanges.get(EntityChange.EQUIPMENT)) {
-            setEquipment(other.equipment);
-        }
-        if (otherChanges.get(EntityChange.NAME)) {
-            setName(other.name);
-        }
-        if (otherChanges.get(EntityChange.SKILLS)) {
-            setSkills(other.skills);
-        }
-        if (otherChanges.get(EntityChange.ICE_BLOCK_FOUR)) {
-            setIceBlockFour(other.iceBlockFour);
+        for (long mask = other.changes.getMask(); mask != 0; mask &= mask - 1) {
+            switch (EntityChanges.lowest(mask)) {
+            case POSITION:
+                setPosition(other.position);
+                break;
+            case ORIENTATION:
+                setOrientation(other.orientation);
+                break;
+            case VELOCITY:
+                setVelocity(other.velocity);
+                break;
+            case ACCELERATION:
+                setAcceleration(other.acceleration);
+                break;
+            case EXTRA_VELOCITY:
+                setExtraVelocity(other.extraVelocity);
+                break;
+            case LOOK_PITCH:
+                setLookPitch(other.lookPitch);
+                break;
+            case PHYSICS_FLAGS:
+                setPhysicsFlags(other.physicsFlags);
+                break;
+            case HOSTILE_TYPE:
+                setHostileType(other.hostileType);
+                break;
+            case ENTITY_TYPE:
+                setEntityTypeId(other.entityTypeId);
+                break;
+            case CURRENT_MODE:
+                setCurrentMode(other.currentMode);
+                break;
+            case LAST_SHOOT_TIME:
+                setLastShootTime(other.lastShootTime);
+                break;
+            case HIT_COUNTER:
+                setHitCounter(other.hitCounter);
+                break;
+            case LAST_HIT_TIME:
+                setLastHitTime(other.lastHitTime);
+                break;
+            case APPEARANCE:
+                setAppearance(other.appearance);
+                break;
+            case FLAGS:
+                setFlags1(other.flags1);
+                setFlags2(other.flags2);
+                break;
+            case ROLL_TIME:
+                setRollTime(other.rollTime);
+                break;
+            case STUN_TIME:
+                setStunTime(other.stunTime);
+                break;
+            case SLOWED_TIME:
+                setSlowedTime(other.slowedTime);
+                break;
+            case MAKE_BLUE_TIME:
+                setMakeBlueTime(other.makeBlueTime);
+                break;
+            case SPEED_UP_TIME:
+                setSpeedUpTime(other.speedUpTime);
+                break;
+            case SLOW_PATCH_TIME:
+                setSlowPatchTime(other.slowPatchTime);
+                break;
+            case ENTITY_CLASS:
+                setEntityClassId(other.entityClassId);
+                break;
+            case SPECIALIZATION:
+                setSpecializationId(other.specializationId);
+                break;
+            case CHARGED_MP:
+                setChargedMP(other.chargedMP);
+                break;
+            case NU_1_2_3:
+                setNu1(other.nu1);
+                setNu2(other.nu2);
+                setNu3(other.nu3);
+                break;
+            case NU_4_5_6:
+                setNu4(other.nu4);
+                setNu5(other.nu5);
+                setNu6(other.nu6);
+                break;
+            case RAY_HIT:
+                setRayHit(other.rayHit);
+                break;
+            case HP:
+                setHp(other.hp);
+                break;
+            case MP:
+                setMp(other.mp);
+                break;
+            case BLOCK_POWER:
+                setBlockPower(other.blockPower);
+                break;
+            case MULTIPLIERS:
+                setMaxHPMultiplier(other.maxHPMultiplier);
+                setShootSpeed(other.shootSpeed);
+                setDamageMultiplier(other.damageMultiplier);
+                setArmorMultiplier(other.armorMultiplier);
+                setResistanceMultiplier(other.resistanceMultiplier);
+                break;
+            case NU_7:
+                setNu7(other.nu7);
+                break;
+            case NU_8:
+                setNu8(other.nu8);
+                break;
+            case LEVEL:
+                setLevel(other.level);
+                break;
+            case CURRENT_XP:
+                setCurrentXP(other.currentXP);
+                break;
+            case PARENT_OWNER:
+                setParentOwner(other.parentOwner);
+                break;
+            case NA_1_2:
+                setNa1(other.na1);
+                setNa2(other.na2);
+                break;
+            case NA_3:
+                setNa3(other.na3);
+                break;
+            case NA_4:
+                setNa4(other.na4);
+                break;
+            case NA_5_NU_11_12:
+                setNa5(other.na5);
+                setNu11(other.nu11);
+                setNu12(other.nu12);
+                break;
+            case SPAWN_POSITION:
+                setSpawnPosition(other.spawnPosition);
+                break;
+            case NU_20_21_22:
+                setNu20(other.nu20);
+                setNu21(other.nu21);
+                setNu22(other.nu22);
+                break;
+            case NU_19:
+                setNu19(other.nu19);
+                break;
+            case QUICK_ITEM:
+                setQuickItem(other.quickItem);
+                break;
+            case EQUIPMENT:
+                setEquipment(other.equipment);
+                break;
+            case NAME:
+                setName(other.name);
+                break;
+            case SKILLS:
+                // The other data may be a reused decoding buffer
+                System.arraycopy(other.skills, 0, skills, 0, skills.length);
+                changes.set(EntityChange.SKILLS);
+                break;
+            case ICE_BLOCK_FOUR:
+                setIceBlockFour(other.iceBlockFour);
+                break;
+            }
         }
     }
 
+    @Override
+    public CoreEntityData copy() {
+        CoreEntityData copy = new CoreEntityData(new EntityChanges(0));
+        copy.updateFrom(this);
+        return copy;
+    }
+
     public EntityChanges getChanges() {
         return changes;
     }
 
+    /**
+     * Returns the fields changed since the last call to this method and
+     * starts tracking changes anew.
+     */
+    public EntityChanges takeChanges() {
+        EntityChanges taken = new EntityChanges(changes);
+        changes.reset();
+        return taken;
+    }
+
     @Override
     public LongVector3 getPosition() {
         return position;
@@ -361,6 +383,7 @@ public class CoreEntityData implements EntityData {
 
     public void setEntityTypeId(long entityTypeId) {
         this.entityTypeId = entityTypeId;
+        changes.set(EntityChange.ENTITY_TYPE);
     }
 
     @Override
@@ -534,6 +557,7 @@ public class CoreEntityData implements EntityData {
     @Override
     public void setEntityClass(EntityClass clazz) {
         this.entityClassId = getEntityClassId(clazz);
+        changes.set(EntityChange.ENTITY_CLASS);
     }
 
     public byte getSpecializationId() {
@@ -553,6 +577,7 @@ public class CoreEntityData implements EntityData {
     @Override
     public void setSpecialization(Specialization specialization) {
         this.specializationId = getSpecializationId(specialization);
+        changes.set(EntityChange.SPECIALIZATION);
     }
 
     @Override
@@ -706,7 +731,7 @@ public class CoreEntityData implements EntityData {
     @Override
     public void setEquipment(Equipment equipment) {
         this.equipment = equipment;
-
+        changes.set(EntityChange.EQUIPMENT);
     }
 
     @Override
@@ -1,10 +1,12 @@
 package org.glydar.core.model.entity;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.List;
+import java.util.Queue;
 
 import org.glydar.api.model.entity.Player;
 import org.glydar.api.plugin.permissions.Permission;
@@ -13,17 +15,37 @@ import org.glydar.api.plugin.permissions.PermissionAttachment;
 import org.glydar.core.model.world.CoreWorld;
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.Remote;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+import org.glydar.core.protocol.driver.OutboundPolicy;
 import org.glydar.core.protocol.packet.Packet15Seed;
 
 public class CorePlayer extends CoreEntity implements Player, Remote {
 
     private final Channel channel;
+    private final OutboundCoalescer outbound;
+    private OutboundPolicy outboundPolicy;
+    private OutboundPolicy.Level outboundLevel;
+    private int congestedTicks;
     private boolean admin;
     private boolean connected = false;
+    private boolean synced = false;
 
     public CorePlayer(Channel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * @param flushQueue
+     *            see {@link OutboundCoalescer}, packets sent to this player
+     *            are flushed right away if {@code null}.
+     */
+    public CorePlayer(Channel channel, Queue<OutboundCoalescer> flushQueue) {
         super();
         this.channel = channel;
+        this.outbound = new OutboundCoalescer(channel, RemoteType.CLIENT, flushQueue);
+        this.outboundPolicy = OutboundPolicy.DEFAULT;
+        this.outboundLevel = OutboundPolicy.Level.NORMAL;
     }
 
     @Override
@@ -93,12 +115,89 @@ public class CorePlayer extends CoreEntity implements Player, Remote {
         PermissionAttachment.addAttachment(attachment);
     }
 
+    /**
+     * Sends the packets, which are flushed along with everything else sent
+     * to this player during the current tick.
+     */
     public void sendPackets(Packet... packets) {
-        for (Packet packet : packets) {
-            channel.write(packet);
+        outbound.send(packets);
+    }
+
+    /**
+     * Sends packets previously encoded with
+     * {@link org.glydar.core.protocol.driver.ProtocolEncoder#encode}. The
+     * given buffer is not released, the write holds its own reference to it.
+     */
+    public void sendEncoded(ByteBuf encoded) {
+        outbound.send(encoded);
+    }
+
+    /**
+     * Same as {@link #sendEncoded(ByteBuf)} but left unflushed until
+     * {@link #flush()} is called.
+     */
+    public void writeEncoded(ByteBuf encoded) {
+        outbound.write(encoded);
+    }
+
+    /**
+     * Same as {@link #writeEncoded(ByteBuf)} for the full state of an
+     * entity, which supersedes the previous one for the same entity if it
+     * is still waiting to be sent.
+     */
+    public void writeEntityState(long entityId, ByteBuf encoded) {
+        outbound.write(entityId, encoded);
+    }
+
+    public void flush() {
+        outbound.flush();
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public OutboundCoalescer getOutbound() {
+        return outbound;
+    }
+
+    public OutboundPolicy getOutboundPolicy() {
+        return outboundPolicy;
+    }
+
+    public void setOutboundPolicy(OutboundPolicy outboundPolicy) {
+        this.outboundPolicy = outboundPolicy;
+    }
+
+    public OutboundPolicy.Level getOutboundLevel() {
+        return outboundLevel;
+    }
+
+    /**
+     * Returns the number of ticks this player spent congested.
+     */
+    public int getCongestedTicks() {
+        return congestedTicks;
+    }
+
+    /**
+     * Checks the backlog of this player against its outbound policy, once
+     * per tick. A player whose backlog exceeds the limit is disconnected.
+     */
+    public OutboundPolicy.Level updateOutboundLevel() {
+        outboundLevel = outboundPolicy.levelOf(outboundLevel, outbound.getPendingBytes());
+        switch (outboundLevel) {
+        case CONGESTED:
+            congestedTicks++;
+            break;
+        case OVERFLOWED:
+            channel.close();
+            break;
+        default:
+            break;
         }
 
-        channel.flush();
+        return outboundLevel;
     }
 
     public boolean isConnected() {
@@ -114,12 +213,26 @@ public class CorePlayer extends CoreEntity implements Player, Remote {
     public void remove() {
         super.remove();
         connected = false;
+        outbound.flush();
         channel.close();
     }
 
+    /**
+     * Whether this player received the full state of every entity of its
+     * world and can be kept up to date with delta updates only.
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public void setSynced(boolean synced) {
+        this.synced = synced;
+    }
+
     @Override
     public void joinWorld(CoreWorld world) {
         super.joinWorld(world);
+        synced = false;
         sendPackets(new Packet15Seed(world.getSeed()));
     }
 
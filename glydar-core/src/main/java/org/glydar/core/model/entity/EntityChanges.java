@@ -1,33 +1,133 @@
 package org.glydar.core.model.entity;
 
-import java.util.BitSet;
-
+/**
+ * Set of changed entity fields, stored as the 64 bits mask used on the wire
+ * : bit {@code i} is the change of ordinal {@code i}.
+ * <p/>
+ * Iterating over the changes only costs one step per change :
+ *
+ * <pre>
+ * for (long mask = changes.getMask(); mask != 0; mask &amp;= mask - 1) {
+ *     switch (EntityChanges.lowest(mask)) {
+ *     ...
+ *     }
+ * }
+ * </pre>
+ */
 public class EntityChanges {
 
-    private final BitSet bitSet;
+    private static final EntityChange[] VALUES = EntityChange.values();
+
+    /**
+     * Mask of every known change.
+     */
+    public static final long ALL = (1L << VALUES.length) - 1;
 
+    private long mask;
+
+    /**
+     * Creates a set containing every change.
+     */
     public EntityChanges() {
-        this.bitSet = new BitSet(64);
-        bitSet.set(0, EntityChange.values().length);
+        this(ALL);
+    }
+
+    public EntityChanges(long mask) {
+        this.mask = mask;
+    }
+
+    public EntityChanges(EntityChanges other) {
+        this(other.mask);
     }
 
-    public EntityChanges(BitSet bitSet) {
-        this.bitSet = bitSet;
+    public static long bit(EntityChange change) {
+        return 1L << change.ordinal();
     }
 
-    public BitSet getBitSet() {
-        return bitSet;
+    /**
+     * Returns the change of the lowest bit set in {@code mask}, which must not
+     * be zero.
+     */
+    public static EntityChange lowest(long mask) {
+        return VALUES[Long.numberOfTrailingZeros(mask)];
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Replaces the changes with the ones marked in {@code mask}.
+     */
+    public void setMask(long mask) {
+        this.mask = mask;
     }
 
     public boolean get(EntityChange change) {
-        return bitSet.get(change.ordinal());
+        return (mask & bit(change)) != 0;
     }
 
     public void set(EntityChange change) {
-        bitSet.set(change.ordinal());
+        mask |= bit(change);
+    }
+
+    public void clear(EntityChange change) {
+        mask &= ~bit(change);
+    }
+
+    /**
+     * Adds the changes of {@code other} to this set.
+     */
+    public void union(EntityChanges other) {
+        mask |= other.mask;
+    }
+
+    /**
+     * Keeps only the changes also contained in {@code other}.
+     */
+    public void intersect(EntityChanges other) {
+        mask &= other.mask;
+    }
+
+    /**
+     * Removes the changes contained in {@code other} from this set.
+     */
+    public void diff(EntityChanges other) {
+        mask &= ~other.mask;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
     }
 
     public void reset() {
-        bitSet.set(0, EntityChange.values().length, false);
+        mask = 0;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof EntityChanges && ((EntityChanges) object).mask == mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (mask ^ (mask >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("EntityChanges[");
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int ordinal = Long.numberOfTrailingZeros(remaining);
+            builder.append(ordinal < VALUES.length ? VALUES[ordinal].name() : String.valueOf(ordinal));
+            if ((remaining & (remaining - 1)) != 0) {
+                builder.append(", ");
+            }
+        }
+        return builder.append(']').toString();
     }
 }
@@ -0,0 +1,47 @@
+package org.glydar.core.model.entity;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Small pool of entity data used as decoding buffers for the entity updates
+ * received on a connection. Data is acquired by the network thread and
+ * released, once merged, by the tick thread ; data which is never released
+ * is simply left to the garbage collector.
+ */
+public final class EntityDataPool {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final AtomicReferenceArray<CoreEntityData> slots;
+
+    public EntityDataPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EntityDataPool(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns a pooled data, or a new one if the pool is empty. The fields
+     * not marked as changed hold stale values.
+     */
+    public CoreEntityData acquire() {
+        for (int i = 0; i < slots.length(); i++) {
+            CoreEntityData data = slots.get(i);
+            if (data != null && slots.compareAndSet(i, data, null)) {
+                return data;
+            }
+        }
+
+        return new CoreEntityData(new EntityChanges(0));
+    }
+
+    public void release(CoreEntityData data) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, data)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.glydar.core.model.entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.glydar.core.util.LongObjectMap;
+
+/**
+ * Entities indexed by id, along with a separate index of the players among
+ * them so that they can be counted and iterated over without scanning or
+ * copying the whole registry.
+ */
+public class EntityRegistry {
+
+    private final LongObjectMap<CoreEntity> entities;
+    private final ArrayList<CorePlayer> players;
+    private final List<CorePlayer> playersView;
+
+    public EntityRegistry() {
+        this.entities = new LongObjectMap<>();
+        this.players = new ArrayList<>();
+        this.playersView = Collections.unmodifiableList(players);
+    }
+
+    public CoreEntity get(long id) {
+        return entities.get(id);
+    }
+
+    public void register(CoreEntity entity) {
+        CoreEntity previous = entities.put(entity.getId(), entity);
+        if (previous instanceof CorePlayer) {
+            players.remove(previous);
+        }
+        if (entity instanceof CorePlayer) {
+            players.add((CorePlayer) entity);
+        }
+    }
+
+    public CoreEntity unregister(long id) {
+        CoreEntity removed = entities.remove(id);
+        if (removed instanceof CorePlayer) {
+            players.remove(removed);
+        }
+        return removed;
+    }
+
+    public int size() {
+        return entities.size();
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the registered entities.
+     */
+    public Collection<CoreEntity> entities() {
+        return entities.values();
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the registered players. It must
+     * not be iterated over while players are being registered or
+     * unregistered.
+     */
+    public List<CorePlayer> players() {
+        return playersView;
+    }
+}
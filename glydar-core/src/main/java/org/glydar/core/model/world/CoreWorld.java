@@ -1,38 +1,102 @@
 package org.glydar.core.model.world;
 
-import java.util.HashMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.glydar.api.model.entity.Entity;
 import org.glydar.api.model.entity.Player;
+import org.glydar.api.model.geom.LongVector3;
 import org.glydar.api.model.world.World;
 import org.glydar.core.model.entity.CoreEntity;
 import org.glydar.core.model.entity.CorePlayer;
+import org.glydar.core.model.entity.EntityRegistry;
 import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.RemoteType;
 import org.glydar.core.protocol.codec.WorldUpdates;
-import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.driver.OutboundPolicy;
+import org.glydar.core.protocol.driver.ProtocolEncoder;
 import org.glydar.core.protocol.packet.Packet02UpdateFinished;
 import org.glydar.core.protocol.packet.Packet04WorldUpdate;
+import org.glydar.core.util.LongObjectMap;
 
 import com.google.common.collect.ImmutableList;
 
+/**
+ * A world is owned by the tick thread : its entities and pending updates
+ * must only be accessed from there. Work originating from other threads
+ * (e.g. packets received by the network threads) must be handed over with
+ * {@link #submit(Runnable)}, it will run at the start of the next tick.
+ */
 public class CoreWorld implements World {
 
+    /**
+     * Number of ticks between two full state updates sent to every player,
+     * delta updates are sent in between.
+     */
+    private static final int KEYFRAME_INTERVAL = 250;
+
+    /**
+     * Number of world units in a block.
+     */
+    public static final long BLOCK_SCALE = 0x10000;
+
+    public static final int DEFAULT_INTEREST_RADIUS = 2048;
+
+    /**
+     * Entities farther than half the interest radius from a player are only
+     * updated every {@code FAR_UPDATE_INTERVAL} ticks for this player.
+     */
+    private static final int FAR_UPDATE_INTERVAL = 4;
+
+    /**
+     * Tracked entities are kept slightly beyond the interest radius, so that
+     * an entity moving along the border does not enter and leave every tick.
+     */
+    private static final double LEAVE_RADIUS_FACTOR = 1.1;
+
     private final String name;
     private final int seed;
     private boolean pvpAllowed;
-    private final HashMap<Long, CoreEntity> entities;
-    private final WorldUpdates updateData;
+    private final EntityRegistry entities;
+    private WorldUpdates updateData;
+    private WorldUpdates sentUpdateData;
+    private final WorldUpdatesMetrics updateMetrics;
+    private final Queue<Runnable> inbound;
+    private final SpatialGrid grid;
+    private final LongObjectMap<EntityInterest> interests;
+    private final List<EntityInterest> interestList;
+    private final LongObjectMap<LongObjectMap<Tracking>> trackings;
+    private final List<CoreEntity> nearby;
+    private int interestRadius;
+    private double enterDistanceSq;
+    private long leaveDistance;
+    private double nearDistanceSq;
+    private int tickCount;
 
     public CoreWorld(String name, int seed) {
         this.name = name;
         this.seed = seed;
         this.pvpAllowed = false;
-        this.entities = new HashMap<>();
+        this.entities = new EntityRegistry();
         this.updateData = new WorldUpdates();
+        this.sentUpdateData = new WorldUpdates();
+        this.updateMetrics = new WorldUpdatesMetrics();
+        this.inbound = new ConcurrentLinkedQueue<>();
+        this.grid = new SpatialGrid();
+        this.interests = new LongObjectMap<>();
+        this.interestList = new ArrayList<>();
+        this.trackings = new LongObjectMap<>();
+        this.nearby = new ArrayList<>();
+        setInterestRadius(DEFAULT_INTEREST_RADIUS);
     }
 
     public ImmutableList<Entity> getEntities() {
-        return ImmutableList.<Entity> copyOf(entities.values());
+        return ImmutableList.<Entity> copyOf(entities.entities());
     }
 
     public ImmutableList<Player> getPlayers() {
@@ -40,13 +104,11 @@ public class CoreWorld implements World {
     }
 
     public ImmutableList<CorePlayer> getCorePlayers() {
-        ImmutableList.Builder<CorePlayer> builder = ImmutableList.builder();
-        for (Entity entity : entities.values()) {
-            if (entity instanceof CorePlayer) {
-                builder.add((CorePlayer) entity);
-            }
-        }
-        return builder.build();
+        return ImmutableList.copyOf(entities.players());
+    }
+
+    public int getPlayerCount() {
+        return entities.getPlayerCount();
     }
 
     public CoreEntity getEntityById(long id) {
@@ -54,12 +116,73 @@ public class CoreWorld implements World {
     }
 
     public void unregisterEntity(long id) {
-        entities.remove(id);
+        entities.unregister(id);
+        grid.remove(id);
+        EntityInterest interest = interests.remove(id);
+        if (interest != null) {
+            interestList.remove(interest);
+        }
+
+        trackings.remove(id);
+        List<CorePlayer> players = entities.players();
+        for (int i = 0; i < players.size(); i++) {
+            trackings.get(players.get(i).getId()).remove(id);
+        }
     }
 
     public void registerEntity(Entity entity) {
         CoreEntity coreEntity = (CoreEntity) entity;
-        entities.put(coreEntity.getId(), coreEntity);
+        entities.register(coreEntity);
+
+        EntityInterest interest = new EntityInterest(coreEntity);
+        EntityInterest previous = interests.put(coreEntity.getId(), interest);
+        if (previous != null) {
+            interestList.remove(previous);
+        }
+        interestList.add(interest);
+
+        grid.update(coreEntity);
+        if (coreEntity instanceof CorePlayer) {
+            trackings.put(coreEntity.getId(), new LongObjectMap<Tracking>());
+        }
+    }
+
+    /**
+     * Moves the entity in the spatial index right away, to be called from the
+     * tick thread when its position is merged from a received update.
+     */
+    public void positionChanged(CoreEntity entity) {
+        if (entities.get(entity.getId()) == entity) {
+            grid.update(entity);
+        }
+    }
+
+    @Override
+    public ImmutableList<Entity> getEntitiesInRange(LongVector3 center, long radius) {
+        List<Entity> result = new ArrayList<>();
+        grid.queryRange(center, radius, result);
+        return ImmutableList.copyOf(result);
+    }
+
+    @Override
+    public ImmutableList<Entity> getNearestEntities(LongVector3 center, int count) {
+        return ImmutableList.<Entity> copyOf(grid.queryNearest(center, count));
+    }
+
+    /**
+     * Returns the radius, in blocks, around a player in which entities are
+     * sent to this player.
+     */
+    public int getInterestRadius() {
+        return interestRadius;
+    }
+
+    public void setInterestRadius(int interestRadius) {
+        this.interestRadius = interestRadius;
+        double enterDistance = (double) interestRadius * BLOCK_SCALE;
+        this.enterDistanceSq = enterDistance * enterDistance;
+        this.leaveDistance = (long) (enterDistance * LEAVE_RADIUS_FACTOR);
+        this.nearDistanceSq = enterDistanceSq / 4;
     }
 
     @Override
@@ -80,29 +203,195 @@ public class CoreWorld implements World {
     @Override
     public void setPvpAllowed(boolean pvpAllowed) {
         this.pvpAllowed = pvpAllowed;
-        for (CorePlayer player : getCorePlayers()) {
+        for (CorePlayer player : entities.players()) {
             player.getData().setFlags1((byte) 32);
         }
     }
 
+    /**
+     * Sends the given packets to every player of this world. The packets are
+     * encoded only once and the resulting bytes are shared by all players.
+     */
     public void sendPacketsToWorld(Packet... packets) {
-        for (CorePlayer player : getCorePlayers()) {
-            player.sendPackets(packets);
+        List<CorePlayer> players = entities.players();
+        if (players.isEmpty()) {
+            return;
+        }
+
+        ByteBuf encoded = ProtocolEncoder.encode(players.get(0).getChannel().alloc(), RemoteType.CLIENT, packets);
+        try {
+            for (int i = 0; i < players.size(); i++) {
+                players.get(i).sendEncoded(encoded);
+            }
+        }
+        finally {
+            encoded.release();
         }
     }
 
+    /**
+     * Returns the world updates which will be sent on the next tick.
+     */
     public WorldUpdates getUpdateData() {
         return updateData;
     }
 
+    public WorldUpdatesMetrics getUpdateMetrics() {
+        return updateMetrics;
+    }
+
+    /**
+     * Swaps the pending world updates with the ones sent on the previous
+     * tick, which are cleared to collect the updates of the next tick.
+     */
+    private WorldUpdates swapUpdateData() {
+        WorldUpdates pending = updateData;
+        sentUpdateData.flush();
+        updateData = sentUpdateData;
+        sentUpdateData = pending;
+        updateMetrics.record(pending);
+        return pending;
+    }
+
+    /**
+     * Queues a task to be run by the tick thread. Safe to call from any
+     * thread.
+     */
+    public void submit(Runnable task) {
+        inbound.add(task);
+    }
+
+    /**
+     * Runs the tasks submitted since the last call. Must be called from the
+     * tick thread.
+     */
+    public void runSubmittedTasks() {
+        Runnable task;
+        while ((task = inbound.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Sends the entity updates of this tick. Each player only receives the
+     * entities within its interest radius : the full state of the entities
+     * entering it, and then only the fields which changed, every tick for
+     * near entities and every few ticks for far ones. Players who just joined
+     * and, periodically, every player receive the full state of all the
+     * entities around them.
+     * <p/>
+     * Players which do not keep up (see {@link OutboundPolicy}) only receive
+     * the full state of the entities every few ticks, replacing the ones they
+     * did not receive yet, until they catch up.
+     */
     public void tick() {
-        for (CorePlayer p : getCorePlayers()) {
-            sendPacketsToWorld(new Packet00EntityUpdate(p.getId(), p.getData()));
+        tickCount++;
+        boolean keyframe = tickCount % KEYFRAME_INTERVAL == 0;
+        boolean farTick = tickCount % FAR_UPDATE_INTERVAL == 0;
+
+        for (int i = 0; i < interestList.size(); i++) {
+            EntityInterest interest = interestList.get(i);
+            if (interest.beginTick(farTick)) {
+                grid.update(interest.getEntity());
+            }
+        }
+
+        WorldUpdates worldUpdates = swapUpdateData();
+        List<CorePlayer> players = entities.players();
+        if (players.isEmpty()) {
+            return;
         }
-        sendPacketsToWorld(new Packet02UpdateFinished());
 
-        if (updateData.hasChanges()) {
-            sendPacketsToWorld(new Packet04WorldUpdate(updateData));
+        ByteBufAllocator alloc = players.get(0).getChannel().alloc();
+        Packet finished = new Packet02UpdateFinished();
+        ByteBuf tail = worldUpdates.hasChanges()
+                ? ProtocolEncoder.encode(alloc, RemoteType.CLIENT, finished, new Packet04WorldUpdate(worldUpdates))
+                : ProtocolEncoder.encode(alloc, RemoteType.CLIENT, finished);
+        try {
+            for (int i = 0; i < players.size(); i++) {
+                CorePlayer observer = players.get(i);
+                OutboundPolicy.Level level = observer.updateOutboundLevel();
+                if (level == OutboundPolicy.Level.OVERFLOWED) {
+                    continue;
+                }
+                else if (level == OutboundPolicy.Level.CONGESTED) {
+                    observer.setSynced(false);
+                    if (tickCount % observer.getOutboundPolicy().getCongestedUpdateInterval() == 0) {
+                        writeEntityUpdates(observer, alloc, true, farTick);
+                    }
+                }
+                else {
+                    writeEntityUpdates(observer, alloc, keyframe || !observer.isSynced(), farTick);
+                    observer.setSynced(true);
+                }
+
+                observer.writeEncoded(tail);
+                observer.flush();
+            }
         }
+        finally {
+            tail.release();
+            for (int i = 0; i < interestList.size(); i++) {
+                interestList.get(i).endTick();
+            }
+        }
+    }
+
+    private void writeEntityUpdates(CorePlayer observer, ByteBufAllocator alloc, boolean full, boolean farTick) {
+        LongObjectMap<Tracking> tracked = trackings.get(observer.getId());
+        LongVector3 origin = observer.getData().getPosition();
+
+        nearby.clear();
+        grid.queryRange(origin, leaveDistance, nearby);
+        for (int i = 0; i < nearby.size(); i++) {
+            CoreEntity entity = nearby.get(i);
+            double distanceSq = SpatialGrid.distanceSq(origin, entity.getData().getPosition());
+
+            // Entities which were not in range on the previous tick are no
+            // longer tracked, even if their tracking is still around
+            Tracking tracking = tracked.get(entity.getId());
+            boolean wasTracked = tracking != null && tracking.lastTick == tickCount - 1;
+            if (!wasTracked && distanceSq > enterDistanceSq) {
+                continue;
+            }
+
+            EntityInterest interest = interests.get(entity.getId());
+            boolean near = distanceSq <= nearDistanceSq;
+            ByteBuf update;
+            boolean fullState = full || !wasTracked || near && !tracking.near && !farTick;
+            if (fullState) {
+                update = interest.full(alloc);
+            }
+            else if (near && !tracking.near) {
+                // Coming closer, catch up with the changes not sent yet
+                update = interest.far(alloc);
+            }
+            else if (near) {
+                update = interest.near(alloc);
+            }
+            else {
+                update = interest.far(alloc);
+            }
+
+            if (tracking == null) {
+                tracking = new Tracking();
+                tracked.put(entity.getId(), tracking);
+            }
+            tracking.near = near;
+            tracking.lastTick = tickCount;
+
+            if (fullState) {
+                observer.writeEntityState(entity.getId(), update);
+            }
+            else if (update != null) {
+                observer.writeEncoded(update);
+            }
+        }
+    }
+
+    private static final class Tracking {
+
+        private boolean near;
+        private int lastTick;
     }
 }
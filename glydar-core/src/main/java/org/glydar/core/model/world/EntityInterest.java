@@ -0,0 +1,95 @@
+package org.glydar.core.model.world;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import org.glydar.core.model.entity.CoreEntity;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.ProtocolEncoder;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+
+/**
+ * Per tick state of an entity for interest management : the changes to send
+ * to near and far observers, each encoded at most once and only if needed.
+ */
+class EntityInterest {
+
+    private final CoreEntity entity;
+    private final EntityChanges farChanges;
+
+    private EntityChanges nearDelta;
+    private EntityChanges farDelta;
+    private ByteBuf nearEncoded;
+    private ByteBuf farEncoded;
+    private ByteBuf fullEncoded;
+
+    EntityInterest(CoreEntity entity) {
+        this.entity = entity;
+        this.farChanges = new EntityChanges(0);
+    }
+
+    CoreEntity getEntity() {
+        return entity;
+    }
+
+    /**
+     * Collects the changes of the entity for this tick. Far observers are
+     * only updated on far ticks, with every change since the previous one.
+     * 
+     * @return whether the position of the entity changed
+     */
+    boolean beginTick(boolean farTick) {
+        nearDelta = entity.getData().takeChanges();
+        farChanges.union(nearDelta);
+        if (farTick) {
+            farDelta = new EntityChanges(farChanges);
+            farChanges.reset();
+        }
+        else {
+            farDelta = null;
+        }
+
+        return nearDelta.get(EntityChange.POSITION);
+    }
+
+    ByteBuf near(ByteBufAllocator alloc) {
+        if (nearEncoded == null && !nearDelta.isEmpty()) {
+            nearEncoded = encode(alloc, nearDelta);
+        }
+        return nearEncoded;
+    }
+
+    ByteBuf far(ByteBufAllocator alloc) {
+        if (farEncoded == null && farDelta != null && !farDelta.isEmpty()) {
+            farEncoded = encode(alloc, farDelta);
+        }
+        return farEncoded;
+    }
+
+    ByteBuf full(ByteBufAllocator alloc) {
+        if (fullEncoded == null) {
+            fullEncoded = encode(alloc, new EntityChanges());
+        }
+        return fullEncoded;
+    }
+
+    private ByteBuf encode(ByteBufAllocator alloc, EntityChanges changes) {
+        return ProtocolEncoder.encode(alloc, RemoteType.CLIENT, new Packet00EntityUpdate(entity.getId(),
+                entity.getData(), changes));
+    }
+
+    void endTick() {
+        nearEncoded = release(nearEncoded);
+        farEncoded = release(farEncoded);
+        fullEncoded = release(fullEncoded);
+    }
+
+    private static ByteBuf release(ByteBuf buf) {
+        if (buf != null) {
+            buf.release();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,227 @@
+package org.glydar.core.model.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.core.model.entity.CoreEntity;
+import org.glydar.core.util.LongObjectMap;
+
+/**
+ * Sparse uniform grid of entities, with one cell per (horizontal) chunk.
+ * Only the cells containing entities exist.
+ * <p/>
+ * Positions are read from the entities' data : {@link #update(CoreEntity)}
+ * must be called whenever the position of an entity changes.
+ */
+public class SpatialGrid {
+
+    /**
+     * Number of world units in a chunk, as a power of two.
+     */
+    public static final int CHUNK_SHIFT = 24;
+    public static final long CHUNK_SCALE = 1L << CHUNK_SHIFT;
+
+    private final LongObjectMap<Cell> cells;
+    private final LongObjectMap<Cell> entityCells;
+
+    public SpatialGrid() {
+        this.cells = new LongObjectMap<>();
+        this.entityCells = new LongObjectMap<>();
+    }
+
+    private static final class Cell {
+
+        private final int x;
+        private final int y;
+        private final ArrayList<CoreEntity> entities;
+
+        private Cell(int x, int y) {
+            this.x = x;
+            this.y = y;
+            this.entities = new ArrayList<>(4);
+        }
+    }
+
+    private static int chunk(long coordinate) {
+        return (int) (coordinate >> CHUNK_SHIFT);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        return entityCells.size();
+    }
+
+    /**
+     * Adds the entity to the grid, or moves it to the cell of its current
+     * position if it is already in the grid.
+     */
+    public void update(CoreEntity entity) {
+        LongVector3 position = entity.getData().getPosition();
+        int x = chunk(position.getX());
+        int y = chunk(position.getY());
+
+        Cell current = entityCells.get(entity.getId());
+        if (current != null) {
+            if (current.x == x && current.y == y) {
+                return;
+            }
+            removeFromCell(current, current.entities.indexOf(entity));
+        }
+
+        long key = key(x, y);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell(x, y);
+            cells.put(key, cell);
+        }
+        cell.entities.add(entity);
+        entityCells.put(entity.getId(), cell);
+    }
+
+    public void remove(long id) {
+        Cell cell = entityCells.remove(id);
+        if (cell == null) {
+            return;
+        }
+
+        List<CoreEntity> entities = cell.entities;
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i).getId() == id) {
+                removeFromCell(cell, i);
+                return;
+            }
+        }
+    }
+
+    private void removeFromCell(Cell cell, int index) {
+        ArrayList<CoreEntity> entities = cell.entities;
+        int last = entities.size() - 1;
+        entities.set(index, entities.get(last));
+        entities.remove(last);
+
+        if (entities.isEmpty()) {
+            cells.remove(key(cell.x, cell.y));
+        }
+    }
+
+    /**
+     * Adds to {@code result} every entity within {@code radius} world units
+     * of {@code center}.
+     */
+    public void queryRange(LongVector3 center, long radius, List<? super CoreEntity> result) {
+        double radiusSq = (double) radius * radius;
+        int minX = chunk(center.getX() - radius);
+        int maxX = chunk(center.getX() + radius);
+        int minY = chunk(center.getY() - radius);
+        int maxY = chunk(center.getY() + radius);
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+            // Fewer occupied cells than cells in range
+            for (Cell cell : cells.values()) {
+                if (cell.x >= minX && cell.x <= maxX && cell.y >= minY && cell.y <= maxY) {
+                    collect(cell, center, radiusSq, result);
+                }
+            }
+            return;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                Cell cell = cells.get(key(x, y));
+                if (cell != null) {
+                    collect(cell, center, radiusSq, result);
+                }
+            }
+        }
+    }
+
+    private static void collect(Cell cell, LongVector3 center, double radiusSq, List<? super CoreEntity> result) {
+        List<CoreEntity> entities = cell.entities;
+        for (int i = 0; i < entities.size(); i++) {
+            CoreEntity entity = entities.get(i);
+            if (distanceSq(center, entity.getData().getPosition()) <= radiusSq) {
+                result.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code count} entities closest to {@code center}, closest
+     * first. Fewer entities are returned if the grid does not contain
+     * enough.
+     */
+    public List<CoreEntity> queryNearest(final LongVector3 center, int count) {
+        List<CoreEntity> candidates = new ArrayList<>();
+        if (count <= 0 || cells.isEmpty()) {
+            return candidates;
+        }
+
+        int centerX = chunk(center.getX());
+        int centerY = chunk(center.getY());
+        for (int ring = 0;; ring++) {
+            long ringCells = ring == 0 ? 1 : 8L * ring;
+            if (ringCells > cells.size()) {
+                // Rings got larger than the grid itself, finish with a scan
+                candidates.clear();
+                for (Cell cell : cells.values()) {
+                    candidates.addAll(cell.entities);
+                }
+                break;
+            }
+
+            for (int x = centerX - ring; x <= centerX + ring; x++) {
+                boolean edge = x == centerX - ring || x == centerX + ring;
+                int step = edge ? 1 : 2 * ring;
+                for (int y = centerY - ring; y <= centerY + ring; y += Math.max(step, 1)) {
+                    Cell cell = cells.get(key(x, y));
+                    if (cell != null) {
+                        candidates.addAll(cell.entities);
+                    }
+                }
+            }
+
+            // Entities in the next rings are at least this far away
+            double boundary = (double) ring * CHUNK_SCALE;
+            if (candidates.size() >= count && countWithin(candidates, center, boundary * boundary) >= count) {
+                break;
+            }
+            if (candidates.size() == size()) {
+                break;
+            }
+        }
+
+        Collections.sort(candidates, new Comparator<CoreEntity>() {
+
+            @Override
+            public int compare(CoreEntity a, CoreEntity b) {
+                return Double.compare(distanceSq(center, a.getData().getPosition()),
+                        distanceSq(center, b.getData().getPosition()));
+            }
+        });
+
+        return candidates.size() > count ? new ArrayList<>(candidates.subList(0, count)) : candidates;
+    }
+
+    private static int countWithin(List<CoreEntity> entities, LongVector3 center, double distanceSq) {
+        int count = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            if (distanceSq(center, entities.get(i).getData().getPosition()) <= distanceSq) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static double distanceSq(LongVector3 a, LongVector3 b) {
+        double dx = (double) a.getX() - b.getX();
+        double dy = (double) a.getY() - b.getY();
+        double dz = (double) a.getZ() - b.getZ();
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,36 @@
+package org.glydar.core.model.world;
+
+import org.glydar.core.protocol.codec.WorldUpdates;
+
+/**
+ * Counts the world updates sent by a world, per kind, for the last tick and
+ * since the world was created.
+ */
+public class WorldUpdatesMetrics {
+
+    private static final WorldUpdates.Kind[] KINDS = WorldUpdates.Kind.values();
+
+    private final int[] lastTick;
+    private final long[] total;
+
+    public WorldUpdatesMetrics() {
+        this.lastTick = new int[KINDS.length];
+        this.total = new long[KINDS.length];
+    }
+
+    void record(WorldUpdates updates) {
+        for (WorldUpdates.Kind kind : KINDS) {
+            int count = updates.size(kind);
+            lastTick[kind.ordinal()] = count;
+            total[kind.ordinal()] += count;
+        }
+    }
+
+    public int getLastTickCount(WorldUpdates.Kind kind) {
+        return lastTick[kind.ordinal()];
+    }
+
+    public long getTotalCount(WorldUpdates.Kind kind) {
+        return total[kind.ordinal()];
+    }
+}
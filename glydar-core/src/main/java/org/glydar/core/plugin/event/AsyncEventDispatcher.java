@@ -0,0 +1,190 @@
+package org.glydar.core.plugin.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glydar.api.logging.GlydarLogger;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventExecutor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the asynchronous event handlers on a small pool of threads.
+ * <p/>
+ * Each plugin has its own queue, whose events are handled in order by at most
+ * one thread at a time : a slow plugin only ever occupies one thread of the
+ * pool, the other plugins keep the remaining ones. A queue is handed back to
+ * the pool after {@link #BATCH_SIZE} events so that plugins take turns when
+ * there are more of them than threads. A plugin may only have a bounded
+ * number of events waiting, beyond that its events are dropped.
+ */
+class AsyncEventDispatcher {
+
+    static final int DEFAULT_THREADS = 2;
+    static final int DEFAULT_PLUGIN_CAPACITY = 1024;
+
+    /**
+     * Events handled from a plugin queue before it goes back to the pool.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Only one in this many dropped events is logged.
+     */
+    private static final int DROP_LOG_INTERVAL = 1000;
+
+    private final GlydarLogger logger;
+    private final ThreadPoolExecutor executor;
+    private final int pluginCapacity;
+    private final ConcurrentMap<String, PluginQueue> queues;
+
+    AsyncEventDispatcher(GlydarLogger logger, int threads, int pluginCapacity) {
+        this.logger = logger;
+        this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("Async Events #%d").setDaemon(true).build());
+        this.pluginCapacity = pluginCapacity;
+        this.queues = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The events waiting to be handled for a plugin.
+     */
+    final class PluginQueue implements Runnable {
+
+        private final String pluginName;
+        private final Queue<Runnable> tasks;
+        private final AtomicBoolean scheduled;
+        private final AtomicInteger depth;
+        private final AtomicLong dropped;
+
+        private PluginQueue(String pluginName) {
+            this.pluginName = pluginName;
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.scheduled = new AtomicBoolean();
+            this.depth = new AtomicInteger();
+            this.dropped = new AtomicLong();
+        }
+
+        int getDepth() {
+            return depth.get();
+        }
+
+        long getDroppedCount() {
+            return dropped.get();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException exc) {
+                // Shutting down, what is left is dropped
+                scheduled.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+
+                task.run();
+            }
+
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    PluginQueue queueOf(String pluginName) {
+        PluginQueue queue = queues.get(pluginName);
+        if (queue == null) {
+            PluginQueue created = new PluginQueue(pluginName);
+            queue = queues.putIfAbsent(pluginName, created);
+            if (queue == null) {
+                queue = created;
+            }
+        }
+        return queue;
+    }
+
+    PluginQueue getQueue(String pluginName) {
+        return queues.get(pluginName);
+    }
+
+    int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Resizes the pool, the queues are picked up by the new threads as they
+     * come.
+     */
+    void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected at least one thread, got " + threads);
+        }
+
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+        else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    <E extends Event> void dispatch(final PluginQueue queue, final EventExecutor<? super E> handler, final E event) {
+        if (queue.depth.incrementAndGet() > pluginCapacity) {
+            queue.depth.decrementAndGet();
+            drop(queue);
+            return;
+        }
+
+        queue.tasks.offer(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    handler.execute(event);
+                }
+                catch (Exception exc) {
+                    logger.warning(exc, "Exception thrown in async Event handler of {0}", queue.pluginName);
+                }
+                finally {
+                    queue.depth.decrementAndGet();
+                }
+            }
+        });
+        queue.schedule();
+    }
+
+    private void drop(PluginQueue queue) {
+        if (queue.dropped.getAndIncrement() % DROP_LOG_INTERVAL == 0) {
+            logger.warning("Plugin {0} does not keep up with its async events, dropping some", queue.pluginName);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
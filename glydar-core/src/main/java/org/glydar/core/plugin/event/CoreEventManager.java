@@ -8,6 +8,8 @@ import java.util.Map;
 import org.glydar.api.Backend;
 import org.glydar.api.logging.GlydarLogger;
 import org.glydar.api.plugin.Plugin;
+import org.glydar.api.plugin.event.AsyncObservable;
+import org.glydar.api.plugin.event.Cancellable;
 import org.glydar.api.plugin.event.Event;
 import org.glydar.api.plugin.event.EventExecutor;
 import org.glydar.api.plugin.event.EventHandler;
@@ -15,21 +17,36 @@ import org.glydar.api.plugin.event.EventManager;
 import org.glydar.api.plugin.event.EventPriority;
 import org.glydar.api.plugin.event.Listener;
 import org.glydar.core.plugin.event.RegisteredHandlers.RegisteredHandler;
+import org.glydar.core.plugin.event.RegisteredHandlers.Resolved;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
 
+/**
+ * Events can be called from any thread without locking : dispatch only reads
+ * an immutable snapshot of the resolved handlers of each event class.
+ * Registration is synchronized and publishes a new snapshot after each
+ * change.
+ */
 public class CoreEventManager implements EventManager {
 
     private static final String LOGGER_PREFIX = "Event Manager";
 
     private final GlydarLogger logger;
     private final Map<Class<? extends Event>, RegisteredHandlers> map;
+    private final AsyncEventDispatcher asyncDispatcher;
+    private final EventTimings timings;
     private int handlerIndex;
+    private volatile ImmutableMap<Class<?>, Resolved> resolved;
 
     public CoreEventManager(Backend backend) {
         this.logger = backend.getLogger(getClass(), LOGGER_PREFIX);
         this.map = new HashMap<>();
+        this.asyncDispatcher = new AsyncEventDispatcher(logger, AsyncEventDispatcher.DEFAULT_THREADS,
+                AsyncEventDispatcher.DEFAULT_PLUGIN_CAPACITY);
+        this.timings = new EventTimings(logger);
         this.handlerIndex = 0;
+        this.resolved = ImmutableMap.of();
     }
 
     @Override
@@ -73,35 +90,67 @@ public class CoreEventManager implements EventManager {
 
     private <E extends Event> void register(Plugin plugin, Listener listener, Method method, Class<E> eventClass,
             EventHandler annotation) {
-        MethodEventExecutor<E> executor = new MethodEventExecutor<E>(eventClass, listener, method, annotation);
-        register(plugin, eventClass, executor, annotation.priority());
+        MethodEventExecutor<E> executor = MethodEventExecutor.of(eventClass, listener, method, annotation);
+        boolean async = annotation.async();
+        if (async && !isAsyncObservable(eventClass)) {
+            logger.warning("Event Handler Method `{0}` is async but its event can only be handled synchronously,"
+                    + " running it synchronously", method);
+            async = false;
+        }
+
+        register(plugin, eventClass, executor, annotation.priority(), async);
+    }
+
+    /**
+     * Events handed to the handlers before the caller is done with them
+     * (cancellable ones, or those which can not give a snapshot of the data
+     * the caller reuses) must be handled synchronously.
+     */
+    static boolean isAsyncObservable(Class<? extends Event> eventClass) {
+        return AsyncObservable.class.isAssignableFrom(eventClass)
+                && !Cancellable.class.isAssignableFrom(eventClass);
     }
 
     @Override
     public <E extends Event> void register(Plugin plugin, Class<E> eventClass, EventExecutor<E> executor,
             EventPriority priority) {
-        if (Modifier.isAbstract(eventClass.getModifiers())) {
-            throw new UnsupportedOperationException();
+        register(plugin, eventClass, executor, priority, false);
+    }
+
+    private synchronized <E extends Event> void register(Plugin plugin, Class<E> eventClass,
+            EventExecutor<E> executor, EventPriority priority, boolean async) {
+        if (eventClass == Event.class) {
+            throw new IllegalArgumentException("Can not register a handler for " + Event.class.getName()
+                    + ", only for one of its subclasses");
         }
 
-        RegisteredHandler handler = new RegisteredHandler(plugin, handlerIndex++, priority, executor);
+        String pluginName = plugin.getDescriptor().getName();
+        RegisteredHandler handler;
+        if (async) {
+            handler = new RegisteredHandler(plugin, handlerIndex++, priority, executor,
+                    asyncDispatcher.queueOf(pluginName), null);
+        }
+        else {
+            handler = new RegisteredHandler(plugin, handlerIndex++, priority, executor, null,
+                    timings.statsOf(pluginName, eventClass));
+        }
         RegisteredHandlers handlers = getHandlers(eventClass);
         handlers.addHandler(handler);
+        publish();
     }
 
     /*
      * Retrieves or creates the {@link RegisteredHandlers} for the given event
      * class. <p/> If the RegisteredHandlers does not already exist, this method
      * will create it, recursively calling itself to get or create the
-     * RegisteredHandlers of the superclass.
+     * RegisteredHandlers of the superclass, abstract or not, up to Event.
      */
     private RegisteredHandlers getHandlers(Class<? extends Event> eventClass) {
         RegisteredHandlers handlers = map.get(eventClass);
         if (handlers == null) {
-            // #asSubclass is safe because we know eventClass is not abstract
-            // and so cannot be Event.
+            // #asSubclass is safe because eventClass can not be Event.
             Class<? extends Event> eventSuperClass = eventClass.getSuperclass().asSubclass(Event.class);
-            if (!Modifier.isAbstract(eventSuperClass.getModifiers())) {
+            if (eventSuperClass != Event.class) {
                 RegisteredHandlers parentHandlers = getHandlers(eventSuperClass);
                 handlers = new RegisteredHandlers(parentHandlers);
             }
@@ -153,26 +202,113 @@ public class CoreEventManager implements EventManager {
         });
     }
 
-    private void unregisterAllIf(Predicate<RegisteredHandler> predicate) {
+    private synchronized void unregisterAllIf(Predicate<RegisteredHandler> predicate) {
         for (RegisteredHandlers handlers : map.values()) {
             handlers.removeHandlersIf(predicate);
         }
+        publish();
+    }
+
+    private void publish() {
+        ImmutableMap.Builder<Class<?>, Resolved> builder = ImmutableMap.builder();
+        for (Map.Entry<Class<? extends Event>, RegisteredHandlers> entry : map.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue().getResolved());
+        }
+        resolved = builder.build();
+    }
+
+    /**
+     * Looks up the handlers of the given event class in the current
+     * snapshot. Classes without handlers of their own are not in it and use
+     * the handlers of their closest registered superclass.
+     */
+    private Resolved getResolved(Class<?> eventClass) {
+        ImmutableMap<Class<?>, Resolved> snapshot = resolved;
+        for (Class<?> clazz = eventClass; clazz != Event.class; clazz = clazz.getSuperclass()) {
+            Resolved handlers = snapshot.get(clazz);
+            if (handlers != null) {
+                return handlers;
+            }
+        }
+        return Resolved.EMPTY;
+    }
+
+    @Override
+    public boolean hasHandlers(Class<? extends Event> eventClass) {
+        return !getResolved(eventClass).isEmpty();
     }
 
     @Override
     public <E extends Event> E callEvent(E event) {
-        RegisteredHandlers handlers = getHandlers(event.getClass());
-        for (EventExecutor<?> rawExecutor : handlers.resolvedExecutors) {
+        Resolved handlers = getResolved(event.getClass());
+        EventTimings.Mode timingsMode = timings.getMode();
+        for (RegisteredHandler handler : handlers.handlers) {
             @SuppressWarnings("unchecked")
-            EventExecutor<? super E> executor = (EventExecutor<? super E>) rawExecutor;
+            EventExecutor<? super E> executor = (EventExecutor<? super E>) handler.getExecutor();
             try {
-                executor.execute(event);
+                if (timingsMode == EventTimings.Mode.OFF) {
+                    executor.execute(event);
+                }
+                else {
+                    timings.execute(handler.getStats(), executor, event, timingsMode);
+                }
             }
             catch (Exception exc) {
                 logger.warning(exc, "Exception thrown in Event handler");
             }
         }
 
+        if (handlers.asyncHandlers.length > 0) {
+            @SuppressWarnings("unchecked")
+            E snapshot = (E) ((AsyncObservable) event).snapshot();
+            for (RegisteredHandler handler : handlers.asyncHandlers) {
+                @SuppressWarnings("unchecked")
+                EventExecutor<? super E> executor = (EventExecutor<? super E>) handler.getExecutor();
+                asyncDispatcher.dispatch(handler.getAsyncQueue(), executor, snapshot);
+            }
+        }
+
         return event;
     }
+
+    /**
+     * Returns the number of events waiting to be handled by the async
+     * handlers of the given plugin.
+     */
+    public int getAsyncQueueDepth(Plugin plugin) {
+        AsyncEventDispatcher.PluginQueue queue = asyncDispatcher.getQueue(plugin.getDescriptor().getName());
+        return queue == null ? 0 : queue.getDepth();
+    }
+
+    /**
+     * Returns the number of events dropped because the async handlers of the
+     * given plugin did not keep up.
+     */
+    public long getAsyncDroppedCount(Plugin plugin) {
+        AsyncEventDispatcher.PluginQueue queue = asyncDispatcher.getQueue(plugin.getDescriptor().getName());
+        return queue == null ? 0 : queue.getDroppedCount();
+    }
+
+    /**
+     * Returns the number of threads running the async handlers.
+     */
+    public int getAsyncThreads() {
+        return asyncDispatcher.getThreads();
+    }
+
+    /**
+     * Sets the number of threads running the async handlers. Each plugin
+     * uses at most one of them at a time.
+     */
+    public void setAsyncThreads(int threads) {
+        asyncDispatcher.setThreads(threads);
+    }
+
+    public EventTimings getTimings() {
+        return timings;
+    }
+
+    public void shutdown() {
+        asyncDispatcher.shutdown();
+    }
 }
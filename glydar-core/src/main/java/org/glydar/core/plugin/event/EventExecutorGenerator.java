@@ -0,0 +1,128 @@
+package org.glydar.core.plugin.event;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.Listener;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates a {@link MethodEventExecutor} subclass per handler method, whose
+ * {@code invoke} casts the listener and the event and calls the method
+ * directly. The JIT can then inline the handler into the dispatch like any
+ * other virtual call.
+ * <p/>
+ * Each class is defined in its own class loader, child of the listener's
+ * one, so that it can be unloaded with its plugin. As it lives in another
+ * runtime package, it can only call public methods of public classes.
+ */
+final class EventExecutorGenerator {
+
+    private static final String PACKAGE = "org/glydar/core/plugin/event/generated/";
+    private static final String SUPER_NAME = Type.getInternalName(MethodEventExecutor.class);
+    private static final String CONSTRUCTOR_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(Listener.class), Type.BOOLEAN_TYPE);
+    private static final String GET_LISTENER_DESC = Type.getMethodDescriptor(Type.getType(Listener.class));
+    private static final String INVOKE_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Event.class));
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private EventExecutorGenerator() {
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        private GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * Classes the listener's loader can not see, i.e. Glydar's own.
+         */
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return MethodEventExecutor.class.getClassLoader().loadClass(name);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    static boolean canGenerate(Method method) {
+        int modifiers = method.getModifiers();
+        return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)
+                && isPublic(method.getDeclaringClass()) && isPublic(method.getParameterTypes()[0]);
+    }
+
+    private static boolean isPublic(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static <E extends Event> MethodEventExecutor<E> generate(Listener listener, Method method,
+            boolean ignoreCancelled) {
+        Class<?> listenerClass = method.getDeclaringClass();
+        String name = PACKAGE + listenerClass.getSimpleName() + "$" + method.getName() + "$"
+                + COUNTER.incrementAndGet();
+        byte[] bytes = generateClass(name, method);
+
+        GeneratedClassLoader loader = new GeneratedClassLoader(listener.getClass().getClassLoader());
+        Class<?> generated = loader.define(name.replace('/', '.'), bytes);
+        try {
+            Constructor<?> constructor = generated.getConstructor(Listener.class, boolean.class);
+            @SuppressWarnings("unchecked")
+            MethodEventExecutor<E> executor = (MethodEventExecutor<E>) constructor.newInstance(listener,
+                    ignoreCancelled);
+            return executor;
+        }
+        catch (ReflectiveOperationException exc) {
+            throw new MethodEventExecutor.MethodEventExecutorException(exc);
+        }
+    }
+
+    private static byte[] generateClass(String name, Method method) {
+        String listenerName = Type.getInternalName(method.getDeclaringClass());
+        String eventName = Type.getInternalName(method.getParameterTypes()[0]);
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_7, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, SUPER_NAME, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitVarInsn(ILOAD, 2);
+        constructor.visitMethodInsn(INVOKESPECIAL, SUPER_NAME, "<init>", CONSTRUCTOR_DESC, false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor invoke = writer.visitMethod(ACC_PROTECTED, "invoke", INVOKE_DESC, null, null);
+        invoke.visitCode();
+        invoke.visitVarInsn(ALOAD, 0);
+        invoke.visitMethodInsn(INVOKEVIRTUAL, SUPER_NAME, "getListener", GET_LISTENER_DESC, false);
+        invoke.visitTypeInsn(CHECKCAST, listenerName);
+        invoke.visitVarInsn(ALOAD, 1);
+        invoke.visitTypeInsn(CHECKCAST, eventName);
+        invoke.visitMethodInsn(INVOKEVIRTUAL, listenerName, method.getName(), Type.getMethodDescriptor(method),
+                false);
+        invoke.visitInsn(RETURN);
+        invoke.visitMaxs(0, 0);
+        invoke.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,317 @@
+package org.glydar.core.plugin.event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glydar.api.logging.GlydarLogger;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventExecutor;
+
+/**
+ * Optional instrumentation of the synchronous event handlers : invocation
+ * count, time and allocated bytes, aggregated per plugin and event class.
+ * Handlers exceeding the time budget are reported in the log.
+ */
+public class EventTimings {
+
+    public enum Mode {
+
+        OFF,
+
+        /**
+         * Counts every invocation but only measures one in
+         * {@link EventTimings#SAMPLE_INTERVAL}.
+         */
+        SAMPLED,
+
+        FULL;
+    }
+
+    public static final int SAMPLE_INTERVAL = 64;
+    public static final long DEFAULT_BUDGET_MILLIS = 5;
+
+    /**
+     * Minimum delay between two warnings about the same handler.
+     */
+    private static final long WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final GlydarLogger logger;
+    private final ConcurrentMap<String, HandlerStats> stats;
+    private final AllocationCounter allocationCounter;
+    private volatile Mode mode;
+    private volatile long budgetNanos;
+
+    EventTimings(GlydarLogger logger) {
+        this.logger = logger;
+        this.stats = new ConcurrentHashMap<>();
+        this.allocationCounter = allocationCounter();
+        this.mode = Mode.OFF;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Reads the bytes allocated by the current thread. Only this class refers
+     * to {@code com.sun.management}, so that EventTimings still loads on JVMs
+     * which do not provide it.
+     */
+    private static final class AllocationCounter {
+
+        private final com.sun.management.ThreadMXBean bean;
+
+        private AllocationCounter(com.sun.management.ThreadMXBean bean) {
+            this.bean = bean;
+        }
+
+        private static AllocationCounter create() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (!allocationBean.isThreadAllocatedMemorySupported()
+                    || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return null;
+            }
+            return new AllocationCounter(allocationBean);
+        }
+
+        private long currentThreadAllocatedBytes() {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    private static AllocationCounter allocationCounter() {
+        try {
+            return AllocationCounter.create();
+        }
+        catch (LinkageError err) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the JVM can tell the bytes allocated by the handlers.
+     */
+    public boolean isAllocationTracked() {
+        return allocationCounter != null;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getBudget(TimeUnit unit) {
+        return unit.convert(budgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void setBudget(long budget, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Statistics shared by the handlers of a plugin for an event class.
+     */
+    static final class HandlerStats {
+
+        private final String pluginName;
+        private final Class<? extends Event> eventClass;
+        private final AtomicLong invocations;
+        private final AtomicLong measuredInvocations;
+        private final AtomicLong totalNanos;
+        private final AtomicLong maxNanos;
+        private final AtomicLong allocatedBytes;
+        private final AtomicLong lastWarning;
+
+        private HandlerStats(String pluginName, Class<? extends Event> eventClass) {
+            this.pluginName = pluginName;
+            this.eventClass = eventClass;
+            this.invocations = new AtomicLong();
+            this.measuredInvocations = new AtomicLong();
+            this.totalNanos = new AtomicLong();
+            this.maxNanos = new AtomicLong();
+            this.allocatedBytes = new AtomicLong();
+            this.lastWarning = new AtomicLong(System.nanoTime() - WARNING_INTERVAL_NANOS);
+        }
+
+        private void reset() {
+            invocations.set(0);
+            measuredInvocations.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            allocatedBytes.set(0);
+        }
+    }
+
+    HandlerStats statsOf(String pluginName, Class<? extends Event> eventClass) {
+        String key = pluginName + '/' + eventClass.getName();
+        HandlerStats handlerStats = stats.get(key);
+        if (handlerStats == null) {
+            HandlerStats created = new HandlerStats(pluginName, eventClass);
+            handlerStats = stats.putIfAbsent(key, created);
+            if (handlerStats == null) {
+                handlerStats = created;
+            }
+        }
+        return handlerStats;
+    }
+
+    /**
+     * Executes the handler, measuring it according to the given mode (which
+     * must not be {@link Mode#OFF}).
+     */
+    <E extends Event> void execute(HandlerStats handlerStats, EventExecutor<? super E> executor, E event, Mode mode) {
+        long invocation = handlerStats.invocations.getAndIncrement();
+        if (mode == Mode.SAMPLED && invocation % SAMPLE_INTERVAL != 0) {
+            executor.execute(event);
+            return;
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            executor.execute(event);
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBefore < 0 ? 0 : allocatedBytes() - allocatedBefore;
+            record(handlerStats, elapsed, allocated);
+        }
+    }
+
+    private long allocatedBytes() {
+        return allocationCounter == null ? -1 : allocationCounter.currentThreadAllocatedBytes();
+    }
+
+    private void record(HandlerStats handlerStats, long elapsed, long allocated) {
+        handlerStats.measuredInvocations.incrementAndGet();
+        handlerStats.totalNanos.addAndGet(elapsed);
+        handlerStats.allocatedBytes.addAndGet(allocated);
+        long max;
+        while (elapsed > (max = handlerStats.maxNanos.get())) {
+            if (handlerStats.maxNanos.compareAndSet(max, elapsed)) {
+                break;
+            }
+        }
+
+        if (elapsed > budgetNanos) {
+            long now = System.nanoTime();
+            long lastWarning = handlerStats.lastWarning.get();
+            if (now - lastWarning >= WARNING_INTERVAL_NANOS
+                    && handlerStats.lastWarning.compareAndSet(lastWarning, now)) {
+                logger.warning("Handler of {0} for {1} took {2} ms (budget {3} ms)", handlerStats.pluginName,
+                        handlerStats.eventClass.getSimpleName(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+            }
+        }
+    }
+
+    public void reset() {
+        for (HandlerStats handlerStats : stats.values()) {
+            handlerStats.reset();
+        }
+    }
+
+    /**
+     * Returns the statistics of every handler invoked since the last reset,
+     * the most expensive first.
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (HandlerStats handlerStats : stats.values()) {
+            if (handlerStats.invocations.get() > 0) {
+                snapshots.add(new Snapshot(handlerStats));
+            }
+        }
+
+        Collections.sort(snapshots, new Comparator<Snapshot>() {
+
+            @Override
+            public int compare(Snapshot a, Snapshot b) {
+                return Long.compare(b.getEstimatedTotalNanos(), a.getEstimatedTotalNanos());
+            }
+        });
+        return snapshots;
+    }
+
+    public static final class Snapshot {
+
+        private final String pluginName;
+        private final Class<? extends Event> eventClass;
+        private final long invocations;
+        private final long measuredInvocations;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long allocatedBytes;
+
+        private Snapshot(HandlerStats handlerStats) {
+            this.pluginName = handlerStats.pluginName;
+            this.eventClass = handlerStats.eventClass;
+            this.invocations = handlerStats.invocations.get();
+            this.measuredInvocations = handlerStats.measuredInvocations.get();
+            this.totalNanos = handlerStats.totalNanos.get();
+            this.maxNanos = handlerStats.maxNanos.get();
+            this.allocatedBytes = handlerStats.allocatedBytes.get();
+        }
+
+        public String getPluginName() {
+            return pluginName;
+        }
+
+        public Class<? extends Event> getEventClass() {
+            return eventClass;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * Returns the number of invocations which were measured, all of them
+         * unless sampling.
+         */
+        public long getMeasuredInvocations() {
+            return measuredInvocations;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return measuredInvocations == 0 ? 0 : totalNanos / measuredInvocations;
+        }
+
+        /**
+         * Returns the total time extrapolated to every invocation.
+         */
+        public long getEstimatedTotalNanos() {
+            return getMeanNanos() * invocations;
+        }
+
+        /**
+         * Returns the mean number of bytes allocated per invocation, 0 when
+         * the allocations are not tracked (see
+         * {@link EventTimings#isAllocationTracked()}).
+         */
+        public long getMeanAllocatedBytes() {
+            return measuredInvocations == 0 ? 0 : allocatedBytes / measuredInvocations;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.glydar.core.plugin.event;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.glydar.api.plugin.event.Cancellable;
@@ -10,23 +12,34 @@ import org.glydar.api.plugin.event.EventHandler;
 import org.glydar.api.plugin.event.Listener;
 
 /**
- * Implementation of {@link EventExecutor} for the annotation-based API
+ * Implementation of {@link EventExecutor} for the annotation-based API.
+ * <p/>
+ * When the listener, the event and the handler method are public, the
+ * executor is an instance of a class generated for the method, which calls
+ * it directly (see {@link EventExecutorGenerator}). Otherwise the method is
+ * called through a {@link MethodHandle}, which is about as fast as
+ * reflection but does not allocate an argument array per call.
  */
-public class MethodEventExecutor<E extends Event> implements EventExecutor<E> {
+public abstract class MethodEventExecutor<E extends Event> implements EventExecutor<E> {
 
     private final Listener listener;
-    private final Method method;
     private final boolean ignoreCancelled;
 
-    public MethodEventExecutor(Class<E> eventClass, Listener listener, Method method, EventHandler annotation) {
+    protected MethodEventExecutor(Listener listener, boolean ignoreCancelled) {
         this.listener = listener;
-        this.method = method;
-        this.ignoreCancelled = annotation.ignoreCancelled();
+        this.ignoreCancelled = ignoreCancelled;
+    }
+
+    public static <E extends Event> MethodEventExecutor<E> of(Class<E> eventClass, Listener listener, Method method,
+            EventHandler annotation) {
+        if (EventExecutorGenerator.canGenerate(method)) {
+            return EventExecutorGenerator.generate(listener, method, annotation.ignoreCancelled());
+        }
 
-        method.setAccessible(true);
+        return new HandleEventExecutor<>(listener, method, annotation.ignoreCancelled());
     }
 
-    public Listener getListener() {
+    public final Listener getListener() {
         return listener;
     }
 
@@ -40,13 +53,38 @@ public class MethodEventExecutor<E extends Event> implements EventExecutor<E> {
         }
 
         try {
-            method.invoke(listener, event);
+            invoke(event);
         }
-        catch (IllegalAccessException | IllegalArgumentException exc) {
-            throw new MethodEventExecutorException(exc);
+        catch (Throwable throwable) {
+            throw new MethodEventExecutorException(throwable);
         }
-        catch (InvocationTargetException exc) {
-            throw new MethodEventExecutorException(exc.getCause());
+    }
+
+    /**
+     * Calls the handler method.
+     */
+    protected abstract void invoke(E event) throws Throwable;
+
+    static class HandleEventExecutor<E extends Event> extends MethodEventExecutor<E> {
+
+        private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Event.class);
+
+        private final MethodHandle handle;
+
+        HandleEventExecutor(Listener listener, Method method, boolean ignoreCancelled) {
+            super(listener, ignoreCancelled);
+            method.setAccessible(true);
+            try {
+                this.handle = MethodHandles.lookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+            }
+            catch (IllegalAccessException exc) {
+                throw new MethodEventExecutorException(exc);
+            }
+        }
+
+        @Override
+        protected void invoke(E event) throws Throwable {
+            handle.invokeExact((Event) event);
         }
     }
 
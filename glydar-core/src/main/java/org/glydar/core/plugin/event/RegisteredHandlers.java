@@ -21,13 +21,16 @@ import com.google.common.base.Predicate;
  * In other words, the parent of an instance storing handlers of a given Event
  * class, is the RegisteredHandlers instance storing handler for the superclass
  * of this Event class.
+ * <p/>
+ * Instances are only modified by the (synchronized) registration methods of
+ * {@link CoreEventManager}, which then publish the {@link Resolved} snapshots.
  */
 class RegisteredHandlers {
 
     private final RegisteredHandlers parent;
     private final List<RegisteredHandlers> children = new ArrayList<>();
     private final List<RegisteredHandler> list = new ArrayList<>();
-    EventExecutor<?>[] resolvedExecutors = new EventExecutor<?>[0];
+    private Resolved resolved = Resolved.EMPTY;
 
     public RegisteredHandlers() {
         this.parent = null;
@@ -43,17 +46,28 @@ class RegisteredHandlers {
         resolveHandlersIn(this, resolvedHandlers);
         Collections.sort(resolvedHandlers);
 
-        int i = 0;
-        resolvedExecutors = new EventExecutor<?>[resolvedHandlers.size()];
+        List<RegisteredHandler> syncHandlers = new ArrayList<>();
+        List<RegisteredHandler> asyncHandlers = new ArrayList<>();
         for (RegisteredHandler handler : resolvedHandlers) {
-            resolvedExecutors[i++] = handler.getExecutor();
+            if (handler.isAsync()) {
+                asyncHandlers.add(handler);
+            }
+            else {
+                syncHandlers.add(handler);
+            }
         }
+        resolved = new Resolved(syncHandlers.toArray(new RegisteredHandler[syncHandlers.size()]),
+                asyncHandlers.toArray(new RegisteredHandler[asyncHandlers.size()]));
 
         for (RegisteredHandlers child : children) {
             child.resolve();
         }
     }
 
+    public Resolved getResolved() {
+        return resolved;
+    }
+
     public void addChild(RegisteredHandlers child) {
         children.add(child);
         resolve();
@@ -89,18 +103,55 @@ class RegisteredHandlers {
         }
     }
 
+    /**
+     * Immutable snapshot of the handlers to call for an event class, including
+     * the ones of its superclasses, in calling order.
+     */
+    static final class Resolved {
+
+        static final Resolved EMPTY = new Resolved(new RegisteredHandler[0], new RegisteredHandler[0]);
+
+        final RegisteredHandler[] handlers;
+        final RegisteredHandler[] asyncHandlers;
+
+        private Resolved(RegisteredHandler[] handlers, RegisteredHandler[] asyncHandlers) {
+            this.handlers = handlers;
+            this.asyncHandlers = asyncHandlers;
+        }
+
+        boolean isEmpty() {
+            return handlers.length == 0 && asyncHandlers.length == 0;
+        }
+    }
+
     static class RegisteredHandler implements Comparable<RegisteredHandler> {
 
         private final Plugin plugin;
         private final EventPriority priority;
         private final EventExecutor<?> executor;
         private final int index;
+        private final AsyncEventDispatcher.PluginQueue asyncQueue;
+        private final EventTimings.HandlerStats stats;
 
         public RegisteredHandler(Plugin plugin, int index, EventPriority priority, EventExecutor<?> executor) {
+            this(plugin, index, priority, executor, null, null);
+        }
+
+        /**
+         * @param asyncQueue
+         *            the queue of the plugin if the handler is async, null
+         *            otherwise
+         * @param stats
+         *            the statistics of the handler, if it is timed
+         */
+        public RegisteredHandler(Plugin plugin, int index, EventPriority priority, EventExecutor<?> executor,
+                AsyncEventDispatcher.PluginQueue asyncQueue, EventTimings.HandlerStats stats) {
             this.plugin = plugin;
             this.index = index;
             this.priority = priority;
             this.executor = executor;
+            this.asyncQueue = asyncQueue;
+            this.stats = stats;
         }
 
         public Plugin getPlugin() {
@@ -115,6 +166,18 @@ class RegisteredHandlers {
             return executor;
         }
 
+        public boolean isAsync() {
+            return asyncQueue != null;
+        }
+
+        public AsyncEventDispatcher.PluginQueue getAsyncQueue() {
+            return asyncQueue;
+        }
+
+        public EventTimings.HandlerStats getStats() {
+            return stats;
+        }
+
         @Override
         public int compareTo(RegisteredHandler other) {
             int priorityComparison = priority.compareTo(other.priority);
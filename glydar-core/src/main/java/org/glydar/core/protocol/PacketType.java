@@ -1,7 +1,10 @@
 package org.glydar.core.protocol;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
 
+import org.glydar.core.model.entity.EntityDataPool;
+import org.glydar.core.protocol.codec.ItemCodec;
 import org.glydar.core.protocol.exceptions.InvalidPacketIdException;
 import org.glydar.core.protocol.exceptions.UnsupportedPacketException;
 import org.glydar.core.protocol.packet.Packet00EntityUpdate;
@@ -30,6 +33,16 @@ public enum PacketType {
         public Packet00EntityUpdate createPacket(RemoteType sender, ByteBuf buf) {
             return new Packet00EntityUpdate(buf);
         }
+
+        @Override
+        public Packet00EntityUpdate createPacket(RemoteType sender, ByteBuf buf, EntityDataPool pool) {
+            return new Packet00EntityUpdate(buf, pool);
+        }
+
+        @Override
+        public int frameLength(RemoteType sender, ByteBuf buf) {
+            return compressedFrameLength(buf);
+        }
     },
 
     MULTIPLE_ENTITY_UPDATE {
@@ -40,7 +53,7 @@ public enum PacketType {
         }
     },
 
-    UPDATE_FINISHED {
+    UPDATE_FINISHED(0) {
 
         @Override
         public Packet02UpdateFinished createPacket(RemoteType sender, ByteBuf buf) {
@@ -62,9 +75,14 @@ public enum PacketType {
         public Packet04WorldUpdate createPacket(RemoteType sender, ByteBuf buf) {
             return new Packet04WorldUpdate(buf);
         }
+
+        @Override
+        public int frameLength(RemoteType sender, ByteBuf buf) {
+            return compressedFrameLength(buf);
+        }
     },
 
-    CURRENT_TIME {
+    CURRENT_TIME(8) {
 
         @Override
         public Packet05CurrentTime createPacket(RemoteType sender, ByteBuf buf) {
@@ -72,7 +90,7 @@ public enum PacketType {
         }
     },
 
-    INTERACTION {
+    INTERACTION(ItemCodec.ITEM_LENGTH + 20) {
 
         @Override
         public Packet06Interaction createPacket(RemoteType sender, ByteBuf buf) {
@@ -80,7 +98,7 @@ public enum PacketType {
         }
     },
 
-    HIT {
+    HIT(72) {
 
         @Override
         public Packet07Hit createPacket(RemoteType sender, ByteBuf buf) {
@@ -88,7 +106,7 @@ public enum PacketType {
         }
     },
 
-    STEALTH {
+    STEALTH(40) {
 
         @Override
         public Packet08Stealth createPacket(RemoteType sender, ByteBuf buf) {
@@ -96,7 +114,7 @@ public enum PacketType {
         }
     },
 
-    SHOOT {
+    SHOOT(112) {
 
         @Override
         public Packet09Shoot createPacket(RemoteType sender, ByteBuf buf) {
@@ -110,9 +128,25 @@ public enum PacketType {
         public Packet10Chat createPacket(RemoteType sender, ByteBuf buf) {
             return new Packet10Chat(sender, buf);
         }
+
+        @Override
+        public int frameLength(RemoteType sender, ByteBuf buf) {
+            // Messages sent by the server are prefixed by the sender id
+            int headerLength = sender == RemoteType.CLIENT ? 4 : 12;
+            if (buf.readableBytes() < headerLength) {
+                return -1;
+            }
+
+            int length = buf.getInt(buf.readerIndex() + headerLength - 4);
+            if (length < 0 || length > MAX_FRAME_LENGTH / 2) {
+                throw new CorruptedFrameException("Invalid chat message length " + length);
+            }
+
+            return headerLength + length * 2;
+        }
     },
 
-    CHUNK_DISCOVERY {
+    CHUNK_DISCOVERY(8) {
 
         @Override
         public Packet11ChunkDiscovery createPacket(RemoteType sender, ByteBuf buf) {
@@ -120,7 +154,7 @@ public enum PacketType {
         }
     },
 
-    SECTOR_DISCOVERY {
+    SECTOR_DISCOVERY(8) {
 
         @Override
         public Packet12SectorDiscovery createPacket(RemoteType sender, ByteBuf buf) {
@@ -128,7 +162,7 @@ public enum PacketType {
         }
     },
 
-    MISSION_DATA {
+    MISSION_DATA(56) {
 
         @Override
         public Packet13MissionData createPacket(RemoteType sender, ByteBuf buf) {
@@ -144,7 +178,7 @@ public enum PacketType {
         }
     },
 
-    SEED {
+    SEED(4) {
 
         @Override
         public Packet15Seed createPacket(RemoteType sender, ByteBuf buf) {
@@ -152,7 +186,7 @@ public enum PacketType {
         }
     },
 
-    JOIN {
+    JOIN(4468) {
 
         @Override
         public Packet16Join createPacket(RemoteType sender, ByteBuf buf) {
@@ -160,7 +194,7 @@ public enum PacketType {
         }
     },
 
-    VERSION_EXCHANGE {
+    VERSION_EXCHANGE(4) {
 
         @Override
         public Packet17VersionExchange createPacket(RemoteType sender, ByteBuf buf) {
@@ -168,7 +202,7 @@ public enum PacketType {
         }
     },
 
-    SERVER_FULL {
+    SERVER_FULL(0) {
 
         @Override
         public Packet18ServerFull createPacket(RemoteType sender, ByteBuf buf) {
@@ -176,12 +210,65 @@ public enum PacketType {
         }
     };
 
+    /**
+     * Upper bound for the body of a single packet, used to reject corrupted
+     * length prefixes before buffering them.
+     */
+    public static final int MAX_FRAME_LENGTH = 8 * 1024 * 1024;
+
+    private final int fixedLength;
+
+    private PacketType() {
+        this(-1);
+    }
+
+    private PacketType(int fixedLength) {
+        this.fixedLength = fixedLength;
+    }
+
     public int id() {
         return ordinal();
     }
 
     public abstract Packet createPacket(RemoteType sender, ByteBuf buf);
 
+    /**
+     * Same as {@link #createPacket(RemoteType, ByteBuf)}, with a pool of the
+     * connection to decode entity data into.
+     */
+    public Packet createPacket(RemoteType sender, ByteBuf buf, EntityDataPool pool) {
+        return createPacket(sender, buf);
+    }
+
+    /**
+     * Computes the length of the body (excluding the packet id) of the packet
+     * starting at the reader index of the given buffer, without consuming any
+     * byte.
+     * 
+     * @return the length of the body, or -1 if not enough bytes are readable
+     *         yet to know it
+     */
+    public int frameLength(RemoteType sender, ByteBuf buf) {
+        if (fixedLength < 0) {
+            throw new UnsupportedPacketException(this);
+        }
+
+        return fixedLength;
+    }
+
+    private static int compressedFrameLength(ByteBuf buf) {
+        if (buf.readableBytes() < 4) {
+            return -1;
+        }
+
+        int length = buf.getInt(buf.readerIndex());
+        if (length < 0 || length > MAX_FRAME_LENGTH - 4) {
+            throw new CorruptedFrameException("Invalid compressed data length " + length);
+        }
+
+        return 4 + length;
+    }
+
     @Override
     public String toString() {
         return name() + "(" + id() + ")";
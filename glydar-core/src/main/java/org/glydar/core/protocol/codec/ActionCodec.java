@@ -36,10 +36,8 @@ public final class ActionCodec {
     public static KillAction readKillAction(ByteBuf buf) {
         long killerId = buf.readLong();
         long targetId = buf.readLong();
-        KillAction action = new KillAction(killerId, targetId);
         buf.skipBytes(4);
-        action.setXp(buf.readInt());
-        return action;
+        return new KillAction(killerId, targetId, buf.readInt());
     }
 
     public static void writeKillAction(ByteBuf buf, KillAction action) {
@@ -2,8 +2,6 @@ package org.glydar.core.protocol.codec;
 
 import io.netty.buffer.ByteBuf;
 
-import java.util.BitSet;
-
 import org.glydar.api.model.entity.Appearance;
 import org.glydar.api.model.geom.LongVector3;
 import org.glydar.core.model.actions.Particle;
@@ -21,348 +19,393 @@ public final class EntityCodec {
     }
 
     public static CoreEntityData readEntityData(ByteBuf buf) {
-        byte[] bitSetBuf = new byte[8];
-        buf.readBytes(bitSetBuf);
-        BitSet bitSet = BitSet.valueOf(bitSetBuf);
-        EntityChanges changes = new EntityChanges(bitSet);
+        return readEntityData(buf, new CoreEntityData(new EntityChanges(0)));
+    }
 
-        CoreEntityData data = new CoreEntityData(changes);
-        if (changes.get(EntityChange.POSITION)) {
-            data.setPosition(GeomCodec.readLongVector3(buf));
-        }
-        if (changes.get(EntityChange.ORIENTATION)) {
-            data.setOrientation(GeomCodec.readOrientation(buf));
-        }
-        if (changes.get(EntityChange.VELOCITY)) {
-            data.setVelocity(GeomCodec.readFloatVector3(buf));
-        }
-        if (changes.get(EntityChange.ACCELERATION)) {
-            data.setAcceleration(GeomCodec.readFloatVector3(buf));
-        }
-        if (changes.get(EntityChange.EXTRA_VELOCITY)) {
-            data.setExtraVelocity(GeomCodec.readFloatVector3(buf));
-        }
-        if (changes.get(EntityChange.LOOK_PITCH)) {
-            data.setLookPitch(buf.readFloat());
-        }
-        if (changes.get(EntityChange.PHYSICS_FLAGS)) {
-            data.setPhysicsFlags(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.HOSTILE_TYPE)) {
-            data.setHostileType(buf.readByte());
-        }
-        if (changes.get(EntityChange.ENTITY_TYPE)) {
-            data.setEntityTypeId(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.CURRENT_MODE)) {
-            data.setCurrentMode(buf.readByte());
-        }
-        if (changes.get(EntityChange.LAST_SHOOT_TIME)) {
-            data.setLastShootTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.HIT_COUNTER)) {
-            data.setHitCounter(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.LAST_HIT_TIME)) {
-            data.setLastHitTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.APPEARANCE)) {
-            data.setAppearance(readAppearance(buf));
-        }
-        if (changes.get(EntityChange.FLAGS)) {
-            data.setFlags1(buf.readByte());
-            data.setFlags2(buf.readByte());
-        }
-        if (changes.get(EntityChange.ROLL_TIME)) {
-            data.setRollTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.STUN_TIME)) {
-            data.setStunTime(buf.readInt());
-        }
-        if (changes.get(EntityChange.SLOWED_TIME)) {
-            data.setSlowedTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.MAKE_BLUE_TIME)) {
-            data.setMakeBlueTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.SPEED_UP_TIME)) {
-            data.setSpeedUpTime(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.SLOW_PATCH_TIME)) {
-            data.setSlowPatchTime(buf.readFloat());
-        }
-        if (changes.get(EntityChange.ENTITY_CLASS)) {
-            data.setEntityClassId(buf.readByte());
-        }
-        if (changes.get(EntityChange.SPECIALIZATION)) {
-            data.setSpecializationId(buf.readByte());
-        }
-        if (changes.get(EntityChange.CHARGED_MP)) {
-            data.setChargedMP(buf.readFloat());
-        }
-        if (changes.get(EntityChange.NU_1_2_3)) {
-            data.setNu1(buf.readUnsignedInt());
-            data.setNu2(buf.readUnsignedInt());
-            data.setNu3(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.NU_4_5_6)) {
-            data.setNu4(buf.readUnsignedInt());
-            data.setNu5(buf.readUnsignedInt());
-            data.setNu6(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.RAY_HIT)) {
-            data.setRayHit(GeomCodec.readFloatVector3(buf));
-        }
-        if (changes.get(EntityChange.HP)) {
-            data.setHp(buf.readFloat());
-        }
-        if (changes.get(EntityChange.MP)) {
-            data.setMp(buf.readFloat());
-        }
-        if (changes.get(EntityChange.BLOCK_POWER)) {
-            data.setBlockPower(buf.readFloat());
-        }
-        if (changes.get(EntityChange.MULTIPLIERS)) {
-            data.setMaxHPMultiplier(buf.readFloat());
-            data.setShootSpeed(buf.readFloat());
-            data.setDamageMultiplier(buf.readFloat());
-            data.setArmorMultiplier(buf.readFloat());
-            data.setResistanceMultiplier(buf.readFloat());
-        }
-        if (changes.get(EntityChange.NU_7)) {
-            data.setNu7(buf.readByte());
-        }
-        if (changes.get(EntityChange.NU_8)) {
-            data.setNu8(buf.readByte());
-        }
-        if (changes.get(EntityChange.LEVEL)) {
-            data.setLevel(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.CURRENT_XP)) {
-            data.setCurrentXP(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.PARENT_OWNER)) {
-            data.setParentOwner(buf.readLong());
-        }
-        if (changes.get(EntityChange.NA_1_2)) {
-            data.setNa1(buf.readUnsignedInt());
-            data.setNa2(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.NA_3)) {
-            data.setNa3(buf.readByte());
-        }
-        if (changes.get(EntityChange.NA_4)) {
-            data.setNa4(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.NA_5_NU_11_12)) {
-            data.setNa5(buf.readUnsignedInt());
-            data.setNu11(buf.readUnsignedInt());
-            data.setNu12(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.SPAWN_POSITION)) {
-            data.setSpawnPosition(GeomCodec.readLongVector3(buf));
-        }
-        if (changes.get(EntityChange.NU_20_21_22)) {
-            data.setNu20(buf.readUnsignedInt());
-            data.setNu21(buf.readUnsignedInt());
-            data.setNu22(buf.readUnsignedInt());
-        }
-        if (changes.get(EntityChange.NU_19)) {
-            data.setNu19(buf.readByte());
-        }
-        if (changes.get(EntityChange.QUICK_ITEM)) {
-            data.setQuickItem(ItemCodec.readItem(buf));
-        }
-        if (changes.get(EntityChange.EQUIPMENT)) {
-            data.setEquipment(ItemCodec.readEquipment(buf));
-        }
-        if (changes.get(EntityChange.NAME)) {
-            data.setName(new String(buf.readBytes(16).array(), Charsets.US_ASCII).trim());
-        }
-        if (changes.get(EntityChange.SKILLS)) {
-            long[] skills = data.getSkills();
-            for (int i = 0; i < 11; i++) {
-                skills[i] = buf.readUnsignedInt();
+    /**
+     * Decodes into an existing entity data, typically a reused decoding
+     * buffer. Its changes are replaced by the ones read and only the fields
+     * marked as changed are meaningful afterwards. Vectors and name equal to
+     * the ones already held are kept instead of being allocated again.
+     */
+    public static CoreEntityData readEntityData(ByteBuf buf, CoreEntityData data) {
+        // Unknown changes are ignored, there is no way to know their length
+        EntityChanges changes = data.getChanges();
+        changes.setMask(buf.readLong() & EntityChanges.ALL);
+
+        for (long mask = changes.getMask(); mask != 0; mask &= mask - 1) {
+            switch (EntityChanges.lowest(mask)) {
+            case POSITION:
+                data.setPosition(GeomCodec.readLongVector3(buf, data.getPosition()));
+                break;
+            case ORIENTATION:
+                data.setOrientation(GeomCodec.readOrientation(buf, data.getOrientation()));
+                break;
+            case VELOCITY:
+                data.setVelocity(GeomCodec.readFloatVector3(buf, data.getVelocity()));
+                break;
+            case ACCELERATION:
+                data.setAcceleration(GeomCodec.readFloatVector3(buf, data.getAcceleration()));
+                break;
+            case EXTRA_VELOCITY:
+                data.setExtraVelocity(GeomCodec.readFloatVector3(buf, data.getExtraVelocity()));
+                break;
+            case LOOK_PITCH:
+                data.setLookPitch(buf.readFloat());
+                break;
+            case PHYSICS_FLAGS:
+                data.setPhysicsFlags(buf.readUnsignedInt());
+                break;
+            case HOSTILE_TYPE:
+                data.setHostileType(buf.readByte());
+                break;
+            case ENTITY_TYPE:
+                data.setEntityTypeId(buf.readUnsignedInt());
+                break;
+            case CURRENT_MODE:
+                data.setCurrentMode(buf.readByte());
+                break;
+            case LAST_SHOOT_TIME:
+                data.setLastShootTime(buf.readUnsignedInt());
+                break;
+            case HIT_COUNTER:
+                data.setHitCounter(buf.readUnsignedInt());
+                break;
+            case LAST_HIT_TIME:
+                data.setLastHitTime(buf.readUnsignedInt());
+                break;
+            case APPEARANCE:
+                data.setAppearance(readAppearance(buf));
+                break;
+            case FLAGS:
+                data.setFlags1(buf.readByte());
+                data.setFlags2(buf.readByte());
+                break;
+            case ROLL_TIME:
+                data.setRollTime(buf.readUnsignedInt());
+                break;
+            case STUN_TIME:
+                data.setStunTime(buf.readInt());
+                break;
+            case SLOWED_TIME:
+                data.setSlowedTime(buf.readUnsignedInt());
+                break;
+            case MAKE_BLUE_TIME:
+                data.setMakeBlueTime(buf.readUnsignedInt());
+                break;
+            case SPEED_UP_TIME:
+                data.setSpeedUpTime(buf.readUnsignedInt());
+                break;
+            case SLOW_PATCH_TIME:
+                data.setSlowPatchTime(buf.readFloat());
+                break;
+            case ENTITY_CLASS:
+                data.setEntityClassId(buf.readByte());
+                break;
+            case SPECIALIZATION:
+                data.setSpecializationId(buf.readByte());
+                break;
+            case CHARGED_MP:
+                data.setChargedMP(buf.readFloat());
+                break;
+            case NU_1_2_3:
+                data.setNu1(buf.readUnsignedInt());
+                data.setNu2(buf.readUnsignedInt());
+                data.setNu3(buf.readUnsignedInt());
+                break;
+            case NU_4_5_6:
+                data.setNu4(buf.readUnsignedInt());
+                data.setNu5(buf.readUnsignedInt());
+                data.setNu6(buf.readUnsignedInt());
+                break;
+            case RAY_HIT:
+                data.setRayHit(GeomCodec.readFloatVector3(buf, data.getRayHit()));
+                break;
+            case HP:
+                data.setHp(buf.readFloat());
+                break;
+            case MP:
+                data.setMp(buf.readFloat());
+                break;
+            case BLOCK_POWER:
+                data.setBlockPower(buf.readFloat());
+                break;
+            case MULTIPLIERS:
+                data.setMaxHPMultiplier(buf.readFloat());
+                data.setShootSpeed(buf.readFloat());
+                data.setDamageMultiplier(buf.readFloat());
+                data.setArmorMultiplier(buf.readFloat());
+                data.setResistanceMultiplier(buf.readFloat());
+                break;
+            case NU_7:
+                data.setNu7(buf.readByte());
+                break;
+            case NU_8:
+                data.setNu8(buf.readByte());
+                break;
+            case LEVEL:
+                data.setLevel(buf.readUnsignedInt());
+                break;
+            case CURRENT_XP:
+                data.setCurrentXP(buf.readUnsignedInt());
+                break;
+            case PARENT_OWNER:
+                data.setParentOwner(buf.readLong());
+                break;
+            case NA_1_2:
+                data.setNa1(buf.readUnsignedInt());
+                data.setNa2(buf.readUnsignedInt());
+                break;
+            case NA_3:
+                data.setNa3(buf.readByte());
+                break;
+            case NA_4:
+                data.setNa4(buf.readUnsignedInt());
+                break;
+            case NA_5_NU_11_12:
+                data.setNa5(buf.readUnsignedInt());
+                data.setNu11(buf.readUnsignedInt());
+                data.setNu12(buf.readUnsignedInt());
+                break;
+            case SPAWN_POSITION:
+                data.setSpawnPosition(GeomCodec.readLongVector3(buf, data.getSpawnPosition()));
+                break;
+            case NU_20_21_22:
+                data.setNu20(buf.readUnsignedInt());
+                data.setNu21(buf.readUnsignedInt());
+                data.setNu22(buf.readUnsignedInt());
+                break;
+            case NU_19:
+                data.setNu19(buf.readByte());
+                break;
+            case QUICK_ITEM:
+                data.setQuickItem(ItemCodec.readItem(buf));
+                break;
+            case EQUIPMENT:
+                data.setEquipment(ItemCodec.readEquipment(buf));
+                break;
+            case NAME:
+                data.setName(readName(buf, data.getName()));
+                break;
+            case SKILLS:
+                long[] skills = data.getSkills();
+                for (int i = 0; i < 11; i++) {
+                    skills[i] = buf.readUnsignedInt();
+                }
+                data.setSkills(skills);
+                break;
+            case ICE_BLOCK_FOUR:
+                data.setIceBlockFour(buf.readUnsignedInt());
+                break;
             }
-            data.setSkills(skills);
-        }
-        if (changes.get(EntityChange.ICE_BLOCK_FOUR)) {
-            data.setIceBlockFour(buf.readUnsignedInt());
         }
 
         return data;
     }
 
-    public static void writeEntityData(ByteBuf buf, CoreEntityData e) {
-        EntityChanges changes = e.getChanges();
+    private static String readName(ByteBuf buf, String current) {
+        int start = buf.readerIndex();
+        buf.skipBytes(16);
+        if (current != null && nameEquals(buf, start, current)) {
+            return current;
+        }
 
-        byte[] bitSetBytes = changes.getBitSet().toByteArray();
-        buf.writeBytes(bitSetBytes);
-        // BitSet/BitArray are the stupidest classes ever :(
-        buf.writeZero(8 - bitSetBytes.length);
+        byte[] name = new byte[16];
+        buf.getBytes(start, name);
+        return new String(name, Charsets.US_ASCII).trim();
+    }
 
-        if (changes.get(EntityChange.POSITION)) {
-            GeomCodec.writeLongVector3(buf, e.getPosition());
-        }
-        if (changes.get(EntityChange.ORIENTATION)) {
-            GeomCodec.writeOrientation(buf, e.getOrientation());
-        }
-        if (changes.get(EntityChange.VELOCITY)) {
-            GeomCodec.writeFloatVector3(buf, e.getVelocity());
-        }
-        if (changes.get(EntityChange.ACCELERATION)) {
-            GeomCodec.writeFloatVector3(buf, e.getAcceleration());
-        }
-        if (changes.get(EntityChange.EXTRA_VELOCITY)) {
-            GeomCodec.writeFloatVector3(buf, e.getExtraVelocity());
-        }
-        if (changes.get(EntityChange.LOOK_PITCH)) {
-            buf.writeFloat(e.getLookPitch());
-        }
-        if (changes.get(EntityChange.PHYSICS_FLAGS)) {
-            buf.writeInt((int) e.getPhysicsFlags());
-        }
-        if (changes.get(EntityChange.HOSTILE_TYPE)) {
-            buf.writeByte(e.getHostileType());
-        }
-        if (changes.get(EntityChange.ENTITY_TYPE)) {
-            buf.writeInt((int) e.getEntityTypeId());
-        }
-        if (changes.get(EntityChange.CURRENT_MODE)) {
-            buf.writeByte(e.getCurrentMode());
-        }
-        if (changes.get(EntityChange.LAST_SHOOT_TIME)) {
-            buf.writeInt((int) e.getLastShootTime());
-        }
-        if (changes.get(EntityChange.HIT_COUNTER)) {
-            buf.writeInt((int) e.getHitCounter());
-        }
-        if (changes.get(EntityChange.LAST_HIT_TIME)) {
-            buf.writeInt((int) e.getLastHitTime());
-        }
-        if (changes.get(EntityChange.APPEARANCE)) {
-            writeAppearance(buf, e.getAppearance());
-        }
-        if (changes.get(EntityChange.FLAGS)) {
-            buf.writeByte(e.getFlags1());
-            buf.writeByte(e.getFlags2());
-        }
-        if (changes.get(EntityChange.ROLL_TIME)) {
-            buf.writeInt((int) e.getRollTime());
-        }
-        if (changes.get(EntityChange.STUN_TIME)) {
-            buf.writeInt(e.getStunTime());
-        }
-        if (changes.get(EntityChange.SLOWED_TIME)) {
-            buf.writeInt((int) e.getSlowedTime());
-        }
-        if (changes.get(EntityChange.MAKE_BLUE_TIME)) {
-            buf.writeInt((int) e.getMakeBlueTime());
-        }
-        if (changes.get(EntityChange.SPEED_UP_TIME)) {
-            buf.writeInt((int) e.getSpeedUpTime());
-        }
-        if (changes.get(EntityChange.SLOW_PATCH_TIME)) {
-            buf.writeFloat(e.getSlowPatchTime());
-        }
-        if (changes.get(EntityChange.ENTITY_CLASS)) {
-            buf.writeByte(e.getEntityClassId());
-        }
-        if (changes.get(EntityChange.SPECIALIZATION)) {
-            buf.writeByte(e.getSpecializationId());
-        }
-        if (changes.get(EntityChange.CHARGED_MP)) {
-            buf.writeFloat(e.getChargedMP());
-        }
-        if (changes.get(EntityChange.NU_1_2_3)) {
-            buf.writeInt((int) e.getNu1());
-            buf.writeInt((int) e.getNu2());
-            buf.writeInt((int) e.getNu3());
-        }
-        if (changes.get(EntityChange.NU_4_5_6)) {
-            buf.writeInt((int) e.getNu4());
-            buf.writeInt((int) e.getNu5());
-            buf.writeInt((int) e.getNu6());
-        }
-        if (changes.get(EntityChange.RAY_HIT)) {
-            GeomCodec.writeFloatVector3(buf, e.getRayHit());
-        }
-        if (changes.get(EntityChange.HP)) {
-            buf.writeFloat(e.getHp());
-        }
-        if (changes.get(EntityChange.MP)) {
-            buf.writeFloat(e.getMp());
-        }
-        if (changes.get(EntityChange.BLOCK_POWER)) {
-            buf.writeFloat(e.getBlockPower());
-        }
-        if (changes.get(EntityChange.MULTIPLIERS)) {
-            buf.writeFloat(e.getMaxHPMultiplier());
-            buf.writeFloat(e.getShootSpeed());
-            buf.writeFloat(e.getDamageMultiplier());
-            buf.writeFloat(e.getArmorMultiplier());
-            buf.writeFloat(e.getResistanceMultiplier());
-        }
-        if (changes.get(EntityChange.NU_7)) {
-            buf.writeByte(e.getNu7());
-        }
-        if (changes.get(EntityChange.NU_8)) {
-            buf.writeByte(e.getNu8());
-        }
-        if (changes.get(EntityChange.LEVEL)) {
-            buf.writeInt((int) e.getLevel());
-        }
-        if (changes.get(EntityChange.CURRENT_XP)) {
-            buf.writeInt((int) e.getCurrentXP());
-        }
-        if (changes.get(EntityChange.PARENT_OWNER)) {
-            buf.writeLong(e.getParentOwner());
-        }
-        if (changes.get(EntityChange.NA_1_2)) {
-            buf.writeInt((int) e.getNa1());
-            buf.writeInt((int) e.getNa2());
-        }
-        if (changes.get(EntityChange.NA_3)) {
-            buf.writeByte(e.getNa3());
-        }
-        if (changes.get(EntityChange.NA_4)) {
-            buf.writeInt((int) e.getNa4());
-        }
-        if (changes.get(EntityChange.NA_5_NU_11_12)) {
-            buf.writeInt((int) e.getNa5());
-            buf.writeInt((int) e.getNu11());
-            buf.writeInt((int) e.getNu12());
-        }
-        if (changes.get(EntityChange.SPAWN_POSITION)) {
-            GeomCodec.writeLongVector3(buf, e.getSpawnPosition());
-        }
-        if (changes.get(EntityChange.NU_20_21_22)) {
-            buf.writeInt((int) e.getNu20());
-            buf.writeInt((int) e.getNu21());
-            buf.writeInt((int) e.getNu22());
-        }
-        if (changes.get(EntityChange.NU_19)) {
-            buf.writeByte(e.getNu19());
-        }
-        if (changes.get(EntityChange.QUICK_ITEM)) {
-            ItemCodec.writeItem(buf, e.getQuickItem());
-        }
-        if (changes.get(EntityChange.EQUIPMENT)) {
-            ItemCodec.writeEquipment(buf, e.getEquipment());
-        }
-        if (changes.get(EntityChange.NAME)) {
-            byte[] ascii = e.getName().getBytes(Charsets.US_ASCII);
-            buf.writeBytes(ascii);
-            buf.writeBytes(new byte[16 - e.getName().length()]);
-        }
-        if (changes.get(EntityChange.SKILLS)) {
-            long[] skills = e.getSkills();
-            for (int i = 0; i < 11; i++) {
-                buf.writeInt((int) skills[i]);
+    private static boolean nameEquals(ByteBuf buf, int start, String name) {
+        if (name.length() > 16) {
+            return false;
+        }
+        for (int i = 0; i < 16; i++) {
+            int c = i < name.length() ? name.charAt(i) : 0;
+            if (buf.getByte(start + i) != c) {
+                return false;
             }
         }
-        if (changes.get(EntityChange.ICE_BLOCK_FOUR)) {
-            buf.writeInt((int) e.getIceBlockFour());
+        return true;
+    }
+
+    public static void writeEntityData(ByteBuf buf, CoreEntityData e) {
+        writeEntityData(buf, e, e.getChanges());
+    }
+
+    /**
+     * Writes only the fields of the given entity data marked in
+     * {@code changes}.
+     */
+    public static void writeEntityData(ByteBuf buf, CoreEntityData e, EntityChanges changes) {
+        long changed = changes.getMask() & EntityChanges.ALL;
+        buf.writeLong(changed);
+
+        for (long mask = changed; mask != 0; mask &= mask - 1) {
+            switch (EntityChanges.lowest(mask)) {
+            case POSITION:
+                GeomCodec.writeLongVector3(buf, e.getPosition());
+                break;
+            case ORIENTATION:
+                GeomCodec.writeOrientation(buf, e.getOrientation());
+                break;
+            case VELOCITY:
+                GeomCodec.writeFloatVector3(buf, e.getVelocity());
+                break;
+            case ACCELERATION:
+                GeomCodec.writeFloatVector3(buf, e.getAcceleration());
+                break;
+            case EXTRA_VELOCITY:
+                GeomCodec.writeFloatVector3(buf, e.getExtraVelocity());
+                break;
+            case LOOK_PITCH:
+                buf.writeFloat(e.getLookPitch());
+                break;
+            case PHYSICS_FLAGS:
+                buf.writeInt((int) e.getPhysicsFlags());
+                break;
+            case HOSTILE_TYPE:
+                buf.writeByte(e.getHostileType());
+                break;
+            case ENTITY_TYPE:
+                buf.writeInt((int) e.getEntityTypeId());
+                break;
+            case CURRENT_MODE:
+                buf.writeByte(e.getCurrentMode());
+                break;
+            case LAST_SHOOT_TIME:
+                buf.writeInt((int) e.getLastShootTime());
+                break;
+            case HIT_COUNTER:
+                buf.writeInt((int) e.getHitCounter());
+                break;
+            case LAST_HIT_TIME:
+                buf.writeInt((int) e.getLastHitTime());
+                break;
+            case APPEARANCE:
+                writeAppearance(buf, e.getAppearance());
+                break;
+            case FLAGS:
+                buf.writeByte(e.getFlags1());
+                buf.writeByte(e.getFlags2());
+                break;
+            case ROLL_TIME:
+                buf.writeInt((int) e.getRollTime());
+                break;
+            case STUN_TIME:
+                buf.writeInt(e.getStunTime());
+                break;
+            case SLOWED_TIME:
+                buf.writeInt((int) e.getSlowedTime());
+                break;
+            case MAKE_BLUE_TIME:
+                buf.writeInt((int) e.getMakeBlueTime());
+                break;
+            case SPEED_UP_TIME:
+                buf.writeInt((int) e.getSpeedUpTime());
+                break;
+            case SLOW_PATCH_TIME:
+                buf.writeFloat(e.getSlowPatchTime());
+                break;
+            case ENTITY_CLASS:
+                buf.writeByte(e.getEntityClassId());
+                break;
+            case SPECIALIZATION:
+                buf.writeByte(e.getSpecializationId());
+                break;
+            case CHARGED_MP:
+                buf.writeFloat(e.getChargedMP());
+                break;
+            case NU_1_2_3:
+                buf.writeInt((int) e.getNu1());
+                buf.writeInt((int) e.getNu2());
+                buf.writeInt((int) e.getNu3());
+                break;
+            case NU_4_5_6:
+                buf.writeInt((int) e.getNu4());
+                buf.writeInt((int) e.getNu5());
+                buf.writeInt((int) e.getNu6());
+                break;
+            case RAY_HIT:
+                GeomCodec.writeFloatVector3(buf, e.getRayHit());
+                break;
+            case HP:
+                buf.writeFloat(e.getHp());
+                break;
+            case MP:
+                buf.writeFloat(e.getMp());
+                break;
+            case BLOCK_POWER:
+                buf.writeFloat(e.getBlockPower());
+                break;
+            case MULTIPLIERS:
+                buf.writeFloat(e.getMaxHPMultiplier());
+                buf.writeFloat(e.getShootSpeed());
+                buf.writeFloat(e.getDamageMultiplier());
+                buf.writeFloat(e.getArmorMultiplier());
+                buf.writeFloat(e.getResistanceMultiplier());
+                break;
+            case NU_7:
+                buf.writeByte(e.getNu7());
+                break;
+            case NU_8:
+                buf.writeByte(e.getNu8());
+                break;
+            case LEVEL:
+                buf.writeInt((int) e.getLevel());
+                break;
+            case CURRENT_XP:
+                buf.writeInt((int) e.getCurrentXP());
+                break;
+            case PARENT_OWNER:
+                buf.writeLong(e.getParentOwner());
+                break;
+            case NA_1_2:
+                buf.writeInt((int) e.getNa1());
+                buf.writeInt((int) e.getNa2());
+                break;
+            case NA_3:
+                buf.writeByte(e.getNa3());
+                break;
+            case NA_4:
+                buf.writeInt((int) e.getNa4());
+                break;
+            case NA_5_NU_11_12:
+                buf.writeInt((int) e.getNa5());
+                buf.writeInt((int) e.getNu11());
+                buf.writeInt((int) e.getNu12());
+                break;
+            case SPAWN_POSITION:
+                GeomCodec.writeLongVector3(buf, e.getSpawnPosition());
+                break;
+            case NU_20_21_22:
+                buf.writeInt((int) e.getNu20());
+                buf.writeInt((int) e.getNu21());
+                buf.writeInt((int) e.getNu22());
+                break;
+            case NU_19:
+                buf.writeByte(e.getNu19());
+                break;
+            case QUICK_ITEM:
+                ItemCodec.writeItem(buf, e.getQuickItem());
+                break;
+            case EQUIPMENT:
+                ItemCodec.writeEquipment(buf, e.getEquipment());
+                break;
+            case NAME:
+                byte[] ascii = e.getName().getBytes(Charsets.US_ASCII);
+                buf.writeBytes(ascii);
+                buf.writeBytes(new byte[16 - e.getName().length()]);
+                break;
+            case SKILLS:
+                long[] skills = e.getSkills();
+                for (int i = 0; i < 11; i++) {
+                    buf.writeInt((int) skills[i]);
+                }
+                break;
+            case ICE_BLOCK_FOUR:
+                buf.writeInt((int) e.getIceBlockFour());
+                break;
+            }
         }
     }
 
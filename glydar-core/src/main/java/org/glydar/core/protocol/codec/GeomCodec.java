@@ -37,6 +37,20 @@ public final class GeomCodec {
         return new LongVector3(buf.readLong(), buf.readLong(), buf.readLong());
     }
 
+    /**
+     * Reads a vector, returning {@code current} instead of a new instance if
+     * it is equal to the read one.
+     */
+    public static LongVector3 readLongVector3(ByteBuf buf, LongVector3 current) {
+        long x = buf.readLong();
+        long y = buf.readLong();
+        long z = buf.readLong();
+        if (current.getX() == x && current.getY() == y && current.getZ() == z) {
+            return current;
+        }
+        return new LongVector3(x, y, z);
+    }
+
     public static void writeLongVector3(ByteBuf buf, LongVector3 vector) {
         buf.writeLong(vector.getX());
         buf.writeLong(vector.getY());
@@ -47,6 +61,20 @@ public final class GeomCodec {
         return new FloatVector3(buf.readFloat(), buf.readFloat(), buf.readFloat());
     }
 
+    /**
+     * Reads a vector, returning {@code current} instead of a new instance if
+     * it is equal to the read one.
+     */
+    public static FloatVector3 readFloatVector3(ByteBuf buf, FloatVector3 current) {
+        float x = buf.readFloat();
+        float y = buf.readFloat();
+        float z = buf.readFloat();
+        if (current.getX() == x && current.getY() == y && current.getZ() == z) {
+            return current;
+        }
+        return new FloatVector3(x, y, z);
+    }
+
     public static void writeFloatVector3(ByteBuf buf, FloatVector3 vector) {
         buf.writeFloat(vector.getX());
         buf.writeFloat(vector.getY());
@@ -57,6 +85,20 @@ public final class GeomCodec {
         return new Orientation(buf.readFloat(), buf.readFloat(), buf.readFloat());
     }
 
+    /**
+     * Reads an orientation, returning {@code current} instead of a new
+     * instance if it is equal to the read one.
+     */
+    public static Orientation readOrientation(ByteBuf buf, Orientation current) {
+        float roll = buf.readFloat();
+        float pitch = buf.readFloat();
+        float yaw = buf.readFloat();
+        if (current.getRoll() == roll && current.getPitch() == pitch && current.getYaw() == yaw) {
+            return current;
+        }
+        return new Orientation(roll, pitch, yaw);
+    }
+
     public static void writeOrientation(ByteBuf buf, Orientation orientation) {
         buf.writeFloat(orientation.getRoll());
         buf.writeFloat(orientation.getPitch());
@@ -13,6 +13,11 @@ import org.glydar.core.model.item.CoreWeapon;
 /* Structures and data discovered by cuwo (http://github.com/matpow2) */
 public final class ItemCodec {
 
+    /**
+     * Size in bytes of an encoded item (including its 32 upgrades).
+     */
+    public static final int ITEM_LENGTH = 280;
+
     private ItemCodec() {
     }
 
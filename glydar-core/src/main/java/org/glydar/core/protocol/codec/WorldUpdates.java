@@ -20,6 +20,25 @@ import org.glydar.core.protocol.util.BufWritable;
 /* Structures and data discovered by cuwo (http://github.com/matpow2) */
 public class WorldUpdates implements BufWritable {
 
+    /**
+     * The kinds of updates, in the order they are written.
+     */
+    public enum Kind {
+        UNKNOWN1,
+        HIT,
+        PARTICLE,
+        SOUND,
+        SHOOT,
+        UNKNOWN6,
+        CHUNK_ITEMS,
+        UNKNOWN8,
+        PICKUP,
+        KILL,
+        DAMAGE,
+        UNKNOWN12,
+        MISSION;
+    }
+
     private boolean changes;
 
     private final List<Unknown1Data> unknown1List;
@@ -189,11 +208,14 @@ public class WorldUpdates implements BufWritable {
         for (Packet13MissionData p : missions) {
             p.writeTo(receiver, buf);
         }
-
-        changes = false;
     }
 
+    /**
+     * Removes every update, keeping the lists' capacity so that this instance
+     * can be refilled without allocating.
+     */
     public void flush() {
+        changes = false;
         unknown1List.clear();
         hitPackets.clear();
         particles.clear();
@@ -213,6 +235,39 @@ public class WorldUpdates implements BufWritable {
         return changes;
     }
 
+    public int size(Kind kind) {
+        switch (kind) {
+        case UNKNOWN1:
+            return unknown1List.size();
+        case HIT:
+            return hitPackets.size();
+        case PARTICLE:
+            return particles.size();
+        case SOUND:
+            return soundActions.size();
+        case SHOOT:
+            return shootPackets.size();
+        case UNKNOWN6:
+            return unknown6List.size();
+        case CHUNK_ITEMS:
+            return chunkItemsList.size();
+        case UNKNOWN8:
+            return unknown8List.size();
+        case PICKUP:
+            return pickupActions.size();
+        case KILL:
+            return killActions.size();
+        case DAMAGE:
+            return damageActions.size();
+        case UNKNOWN12:
+            return unknown12List.size();
+        case MISSION:
+            return missions.size();
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
     public void pushShoot(Packet09Shoot shootPacket) {
         shootPackets.add(shootPacket);
         changes = true;
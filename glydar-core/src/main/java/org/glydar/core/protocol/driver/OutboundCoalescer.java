@@ -0,0 +1,339 @@
+package org.glydar.core.protocol.driver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.util.LongObjectMap;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Accumulates the writes to a channel and hands them over to its event loop
+ * in a single task ending with a single flush, instead of one task and one
+ * syscall per write.
+ * <p/>
+ * Writes are flushed when {@link #flush()} is called (usually at the end of
+ * a tick) or as soon as more than the flush threshold is pending. While the
+ * channel is not writable (more than its
+ * {@link io.netty.channel.ChannelOption#WRITE_BUFFER_HIGH_WATER_MARK} is
+ * waiting to be sent), the writes stay here and are flushed all at once
+ * when the channel becomes writable again. Writes made with a key, such as
+ * the full state of an entity, replace the one with the same key still
+ * waiting here, so that a slow remote only gets the latest one.
+ * <p/>
+ * This class is thread safe, the channel can be written to from any thread.
+ * Flushed batches are queued in order and always written by the event loop
+ * in that order, whichever thread flushed them.
+ */
+public class OutboundCoalescer {
+
+    public static final int DEFAULT_FLUSH_THRESHOLD = 32 * 1024;
+
+    private final Channel channel;
+    private final RemoteType receiver;
+    private final Queue<OutboundCoalescer> flushQueue;
+    private final int flushThreshold;
+
+    private List<ByteBuf> pending;
+    private final Queue<List<ByteBuf>> batches;
+    private final LongObjectMap<Integer> pendingKeys;
+    private int pendingBytes;
+    private int peakPendingBytes;
+    private long supersededBytes;
+    private boolean queued;
+
+    public OutboundCoalescer(Channel channel, RemoteType receiver) {
+        this(channel, receiver, null);
+    }
+
+    /**
+     * @param flushQueue
+     *            where this coalescer adds itself when something is sent
+     *            through {@link #send}, for the owner of the queue to flush
+     *            it later. If {@code null}, sends are flushed right away.
+     */
+    public OutboundCoalescer(Channel channel, RemoteType receiver, Queue<OutboundCoalescer> flushQueue) {
+        this(channel, receiver, flushQueue, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public OutboundCoalescer(Channel channel, RemoteType receiver, Queue<OutboundCoalescer> flushQueue,
+            int flushThreshold) {
+        this.channel = channel;
+        this.receiver = receiver;
+        this.flushQueue = flushQueue;
+        this.flushThreshold = flushThreshold;
+        this.pending = new ArrayList<>();
+        this.batches = new ConcurrentLinkedQueue<>();
+        this.pendingKeys = new LongObjectMap<>();
+        channel.pipeline().addLast(new WritabilityHandler());
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Returns the number of bytes written but not yet handed over to the
+     * channel.
+     */
+    public synchronized int getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Returns the highest number of pending bytes since the creation or the
+     * last {@link #resetPeakPendingBytes()}.
+     */
+    public synchronized int getPeakPendingBytes() {
+        return peakPendingBytes;
+    }
+
+    /**
+     * Restarts the peak from the current number of pending bytes.
+     */
+    public synchronized void resetPeakPendingBytes() {
+        this.peakPendingBytes = pendingBytes;
+    }
+
+    /**
+     * Returns the number of bytes which were replaced by a newer write with
+     * the same key before being sent.
+     */
+    public synchronized long getSupersededBytes() {
+        return supersededBytes;
+    }
+
+    /**
+     * Encodes the packets and keeps them until the next flush.
+     */
+    public void write(Packet... packets) {
+        write(Arrays.asList(packets));
+    }
+
+    public void write(Iterable<? extends Packet> packets) {
+        List<? extends Packet> list = packets instanceof List ? (List<? extends Packet>) packets : Lists
+                .newArrayList(packets);
+        if (!list.isEmpty()) {
+            add(ProtocolEncoder.encode(channel.alloc(), receiver, list));
+        }
+    }
+
+    /**
+     * Keeps packets previously encoded with {@link ProtocolEncoder#encode}
+     * until the next flush. The given buffer is not released, this coalescer
+     * holds its own reference to it.
+     */
+    public void write(ByteBuf encoded) {
+        add(encoded.duplicate().retain());
+    }
+
+    /**
+     * Same as {@link #write(ByteBuf)}, replacing the previous write with the
+     * same key if it is still pending.
+     */
+    public void write(long key, ByteBuf encoded) {
+        ByteBuf buf = encoded.duplicate().retain();
+        if (!channel.isActive()) {
+            buf.release();
+            return;
+        }
+
+        ByteBuf superseded = null;
+        boolean full;
+        synchronized (this) {
+            Integer index = pendingKeys.put(key, pending.size());
+            if (index != null) {
+                superseded = pending.set(index, null);
+                pendingBytes -= superseded.readableBytes();
+                supersededBytes += superseded.readableBytes();
+            }
+            full = append(buf);
+        }
+
+        if (superseded != null) {
+            superseded.release();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Same as {@link #write(Packet...)} but also makes sure the packets are
+     * flushed, either right away or by the owner of the flush queue.
+     */
+    public void send(Packet... packets) {
+        write(packets);
+        scheduleFlush();
+    }
+
+    public void send(Iterable<? extends Packet> packets) {
+        write(packets);
+        scheduleFlush();
+    }
+
+    public void send(ByteBuf encoded) {
+        write(encoded);
+        scheduleFlush();
+    }
+
+    private void add(ByteBuf buf) {
+        if (!channel.isActive()) {
+            buf.release();
+            return;
+        }
+
+        boolean full;
+        synchronized (this) {
+            full = append(buf);
+        }
+
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns whether the flush threshold is reached.
+     */
+    private boolean append(ByteBuf buf) {
+        pending.add(buf);
+        pendingBytes += buf.readableBytes();
+        peakPendingBytes = Math.max(peakPendingBytes, pendingBytes);
+        return pendingBytes >= flushThreshold;
+    }
+
+    private void scheduleFlush() {
+        if (flushQueue == null) {
+            flush();
+            return;
+        }
+
+        synchronized (this) {
+            if (queued || pending.isEmpty()) {
+                return;
+            }
+            queued = true;
+        }
+        flushQueue.add(this);
+    }
+
+    /**
+     * Hands everything written so far to the channel, unless the channel is
+     * not writable in which case it is kept until it is.
+     */
+    public void flush() {
+        List<ByteBuf> batch = null;
+        synchronized (this) {
+            queued = false;
+            if (pending.isEmpty() || channel.isActive() && !channel.isWritable()) {
+                return;
+            }
+
+            if (channel.isActive()) {
+                // Queued while holding the lock, batches are in write order
+                batches.add(pending);
+            }
+            else {
+                batch = pending;
+            }
+            pending = new ArrayList<>();
+            pendingKeys.clear();
+            pendingBytes = 0;
+        }
+
+        if (batch != null) {
+            release(batch);
+        }
+        else if (channel.eventLoop().inEventLoop()) {
+            writeBatches();
+        }
+        else {
+            channel.eventLoop().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    writeBatches();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes every queued batch, oldest first, and flushes once. Only called
+     * on the event loop : a batch flushed from another thread may still be
+     * queued when the event loop flushes a newer one, which must not go
+     * first.
+     */
+    private void writeBatches() {
+        boolean written = false;
+        List<ByteBuf> batch;
+        while ((batch = batches.poll()) != null) {
+            for (int i = 0; i < batch.size(); i++) {
+                ByteBuf buf = batch.get(i);
+                if (buf != null) {
+                    channel.write(buf);
+                }
+            }
+            written = true;
+        }
+
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    /**
+     * Releases everything written but not yet handed over to the channel.
+     */
+    public void discard() {
+        List<ByteBuf> discarded;
+        synchronized (this) {
+            discarded = pending;
+            pending = new ArrayList<>();
+            pendingKeys.clear();
+            pendingBytes = 0;
+        }
+        release(discarded);
+
+        List<ByteBuf> batch;
+        while ((batch = batches.poll()) != null) {
+            release(batch);
+        }
+    }
+
+    private static void release(List<ByteBuf> bufs) {
+        for (ByteBuf buf : bufs) {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    private class WritabilityHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext context) throws Exception {
+            if (context.channel().isWritable()) {
+                flush();
+            }
+            context.fireChannelWritabilityChanged();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext context) throws Exception {
+            discard();
+            context.fireChannelInactive();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.glydar.core.protocol.driver;
+
+/**
+ * How much can be waiting to be sent to a remote before it is considered too
+ * slow. The backlog is what an {@link OutboundCoalescer} holds because the
+ * channel is above its write buffer high water mark.
+ * <p/>
+ * Above the high water mark, the remote is {@link Level#CONGESTED} until the
+ * backlog goes back under the low water mark. Above the limit, it is
+ * {@link Level#OVERFLOWED} and should be disconnected.
+ */
+public class OutboundPolicy {
+
+    public static final int DEFAULT_LOW_WATER_MARK = 64 * 1024;
+    public static final int DEFAULT_HIGH_WATER_MARK = 256 * 1024;
+    public static final int DEFAULT_LIMIT = 4 * 1024 * 1024;
+    public static final int DEFAULT_CONGESTED_UPDATE_INTERVAL = 10;
+
+    public static final OutboundPolicy DEFAULT = new OutboundPolicy(DEFAULT_LOW_WATER_MARK, DEFAULT_HIGH_WATER_MARK,
+            DEFAULT_LIMIT, DEFAULT_CONGESTED_UPDATE_INTERVAL);
+
+    public enum Level {
+        NORMAL,
+        CONGESTED,
+        OVERFLOWED;
+    }
+
+    private final int lowWaterMark;
+    private final int highWaterMark;
+    private final int limit;
+    private final int congestedUpdateInterval;
+
+    public OutboundPolicy(int lowWaterMark, int highWaterMark, int limit, int congestedUpdateInterval) {
+        if (lowWaterMark < 0 || highWaterMark < lowWaterMark || limit < highWaterMark) {
+            throw new IllegalArgumentException("Expected 0 <= lowWaterMark (" + lowWaterMark
+                    + ") <= highWaterMark (" + highWaterMark + ") <= limit (" + limit + ")");
+        }
+        if (congestedUpdateInterval < 1) {
+            throw new IllegalArgumentException("congestedUpdateInterval must be positive");
+        }
+
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+        this.limit = limit;
+        this.congestedUpdateInterval = congestedUpdateInterval;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of ticks between two entity updates sent to a
+     * congested remote.
+     */
+    public int getCongestedUpdateInterval() {
+        return congestedUpdateInterval;
+    }
+
+    /**
+     * Returns the level of a remote with the given backlog, which was at the
+     * given level before.
+     */
+    public Level levelOf(Level current, int backlog) {
+        if (backlog > limit) {
+            return Level.OVERFLOWED;
+        }
+        else if (backlog >= highWaterMark) {
+            return Level.CONGESTED;
+        }
+        else if (backlog <= lowWaterMark) {
+            return Level.NORMAL;
+        }
+        else {
+            return current == Level.OVERFLOWED ? Level.CONGESTED : current;
+        }
+    }
+}
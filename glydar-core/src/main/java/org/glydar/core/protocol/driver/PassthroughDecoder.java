@@ -0,0 +1,169 @@
+package org.glydar.core.protocol.driver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.nio.ByteOrder;
+
+import org.glydar.core.model.entity.EntityDataPool;
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.PacketType;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.Remote;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Frames the incoming stream like {@link ProtocolDecoder} but only decodes
+ * the packets of the selected types. The other ones are passed on as is, as
+ * a buffer holding the whole frame (packet id included) which can be written
+ * to another channel without being decoded and encoded again.
+ * <p/>
+ * Frames are slices of the received buffers, only the bytes of frames split
+ * across two reads are copied. {@link io.netty.handler.codec.ByteToMessageDecoder}
+ * can not be used here, it moves the bytes of its buffer around while the
+ * slices are still in use.
+ */
+public class PassthroughDecoder<T extends Remote> extends ChannelInboundHandlerAdapter {
+
+    private static final int PACKET_ID_LENGTH = 4;
+
+    private final ProtocolHandler<T> handler;
+    private final Predicate<PacketType> decoded;
+    private final EntityDataPool entityDataPool;
+    private ByteBuf partial;
+
+    /**
+     * @param decoded
+     *            the types of the packets to decode
+     */
+    public PassthroughDecoder(ProtocolHandler<T> handler, Predicate<PacketType> decoded) {
+        this.handler = handler;
+        this.decoded = decoded;
+        this.entityDataPool = new EntityDataPool();
+        this.partial = null;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext context, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            context.fireChannelRead(msg);
+            return;
+        }
+
+        ByteBuf in = ((ByteBuf) msg).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (partial != null && !completePartial(context, in)) {
+                return;
+            }
+
+            int frameLength;
+            while ((frameLength = frameLength(in)) >= 0 && in.readableBytes() >= frameLength) {
+                emit(context, in.readSlice(frameLength));
+            }
+
+            if (in.isReadable()) {
+                int capacity = Math.max(in.readableBytes(), frameLength);
+                partial = context.alloc().buffer(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                partial.writeBytes(in);
+            }
+        }
+        finally {
+            in.release();
+        }
+    }
+
+    /**
+     * Copies the bytes missing from the split frame, and no more. While its
+     * length is unknown, the header is copied byte per byte.
+     *
+     * @return whether the frame is complete, in which case it was emitted
+     */
+    private boolean completePartial(ChannelHandlerContext context, ByteBuf in) {
+        while (in.isReadable()) {
+            int frameLength = frameLength(partial);
+            int missing;
+            if (frameLength >= 0) {
+                missing = frameLength - partial.readableBytes();
+            }
+            else {
+                missing = Math.max(1, PACKET_ID_LENGTH - partial.readableBytes());
+            }
+            partial.writeBytes(in, Math.min(missing, in.readableBytes()));
+
+            frameLength = frameLength(partial);
+            if (frameLength >= 0 && partial.readableBytes() == frameLength) {
+                ByteBuf frame = partial;
+                partial = null;
+                try {
+                    emit(context, frame);
+                }
+                finally {
+                    frame.release();
+                }
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the length of the frame (packet id included) at the reader index
+     * of the given buffer, or -1 if not enough bytes are readable to know it.
+     */
+    private int frameLength(ByteBuf buf) {
+        if (buf.readableBytes() < PACKET_ID_LENGTH) {
+            return -1;
+        }
+
+        int frameStart = buf.readerIndex();
+        PacketType type = PacketType.valueOf(buf.getInt(frameStart));
+        buf.skipBytes(PACKET_ID_LENGTH);
+        try {
+            int bodyLength = type.frameLength(handler.getRemoteType(), buf);
+            return bodyLength < 0 ? -1 : PACKET_ID_LENGTH + bodyLength;
+        }
+        finally {
+            buf.readerIndex(frameStart);
+        }
+    }
+
+    private void emit(ChannelHandlerContext context, ByteBuf frame) {
+        PacketType type = PacketType.valueOf(frame.getInt(frame.readerIndex()));
+        if (!decoded.apply(type)) {
+            context.fireChannelRead(frame.retain());
+            return;
+        }
+
+        handler.getLogger().finer("Decoding packet {0}", type);
+        ByteBuf body = frame.slice(frame.readerIndex() + PACKET_ID_LENGTH, frame.readableBytes()
+                - PACKET_ID_LENGTH);
+        Packet packet = type.createPacket(handler.getRemoteType(), body, entityDataPool);
+        if (body.isReadable()) {
+            handler.getLogger().warning("Packet {0} left {1} unread bytes in its frame", type,
+                    body.readableBytes());
+        }
+
+        context.fireChannelRead(packet);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext context) throws Exception {
+        releasePartial();
+        context.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext context) {
+        releasePartial();
+    }
+
+    private void releasePartial() {
+        if (partial != null) {
+            partial.release();
+            partial = null;
+        }
+    }
+}
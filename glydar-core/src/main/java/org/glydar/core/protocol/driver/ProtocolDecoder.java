@@ -2,47 +2,73 @@ package org.glydar.core.protocol.driver;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
 
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 
+import org.glydar.core.model.entity.EntityDataPool;
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.PacketType;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.Remote;
 
-public class ProtocolDecoder<T extends Remote> extends ReplayingDecoder<Void> {
+/**
+ * Frames the incoming stream using the length known for each
+ * {@link PacketType} and decodes each packet exactly once, when all of its
+ * bytes have been received.
+ */
+public class ProtocolDecoder<T extends Remote> extends ByteToMessageDecoder {
+
+    private static final int PACKET_ID_LENGTH = 4;
 
     private final ProtocolHandler<T> handler;
+    private final EntityDataPool entityDataPool;
 
     public ProtocolDecoder(ProtocolHandler<T> handler) {
         this.handler = handler;
+        this.entityDataPool = new EntityDataPool();
     }
 
     @Override
-    protected void decode(ChannelHandlerContext context, ByteBuf buf, List<Object> objects) {
-        buf = buf.order(ByteOrder.LITTLE_ENDIAN);
-        int packetId = buf.readInt();
-        PacketType type = PacketType.valueOf(packetId);
+    protected void decode(ChannelHandlerContext context, ByteBuf in, List<Object> objects) {
+        ByteBuf buf = in.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.readableBytes() < PACKET_ID_LENGTH) {
+            return;
+        }
+
+        int frameStart = buf.readerIndex();
+        PacketType type = PacketType.valueOf(buf.getInt(frameStart));
+        buf.skipBytes(PACKET_ID_LENGTH);
+
+        int bodyLength = type.frameLength(handler.getRemoteType(), buf);
+        if (bodyLength < 0 || buf.readableBytes() < bodyLength) {
+            buf.readerIndex(frameStart);
+            return;
+        }
+
         handler.getLogger().finer("Decoding packet {0}", type);
+        ByteBuf body = buf.readSlice(bodyLength);
+        Packet packet = type.createPacket(handler.getRemoteType(), body, entityDataPool);
+        dumpPacket(body, type);
 
-        int indexBefore = buf.readerIndex();
-        Packet packet = type.createPacket(handler.getRemoteType(), buf);
-        dumpPacket(buf, type, indexBefore);
+        if (body.isReadable()) {
+            handler.getLogger().warning("Packet {0} left {1} unread bytes in its frame", type,
+                    body.readableBytes());
+        }
 
         objects.add(packet);
     }
 
-    private void dumpPacket(ByteBuf buf, PacketType type, int indexBefore) {
+    private void dumpPacket(ByteBuf body, PacketType type) {
         if (!handler.getLogger().getJdkLogger().isLoggable(Level.FINEST)) {
             return;
         }
 
-        byte[] dump = new byte[buf.readerIndex() - indexBefore];
-        buf.getBytes(indexBefore, dump);
+        byte[] dump = new byte[body.readerIndex()];
+        body.getBytes(0, dump);
         handler.getLogger().finest("Read {0} : {1}", type, Arrays.toString(dump));
     }
 }
@@ -32,26 +32,58 @@ public class ProtocolDispatcher<T extends Remote> extends SimpleChannelInboundHa
         this.remote = handler.createRemote(context.channel(), data);
     }
 
+    /**
+     * Also passes the event on, handlers added after this one (such as the
+     * one of an {@link OutboundCoalescer}) release their resources on it.
+     */
     @Override
     public void channelInactive(ChannelHandlerContext context) {
-        if (remote == null) {
-            throw new RuntimeException("Tried to disconnect remote before it has been created");
+        try {
+            if (remote == null) {
+                throw new RuntimeException("Tried to disconnect remote before it has been created");
+            }
+
+            handler.getLogger().info("{0} disconnected", context.channel().remoteAddress());
+            disconnect(remote);
         }
+        finally {
+            context.fireChannelInactive();
+        }
+    }
 
-        handler.getLogger().info("{0} disconnected", context.channel().remoteAddress());
-        handler.disconnect(remote);
+    /**
+     * Returns the remote of the channel, {@code null} until it is active.
+     */
+    protected T getRemote() {
+        return remote;
     }
 
     @Override
     protected void channelRead0(ChannelHandlerContext context, Packet packet) throws Exception {
         try {
-            packet.dispatchTo(handler, remote);
+            dispatch(remote, packet);
         }
         catch (Exception exc) {
             throw new ProtocolHandlerException(exc, packet);
         }
     }
 
+    /**
+     * Hands the packet over to the handler, by default directly on the
+     * channel's event loop.
+     */
+    protected void dispatch(T remote, Packet packet) {
+        packet.dispatchTo(handler, remote);
+    }
+
+    /**
+     * Notifies the handler that the remote disconnected, by default directly
+     * on the channel's event loop.
+     */
+    protected void disconnect(T remote) {
+        handler.disconnect(remote);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
         // In case things go reaallly wrong.
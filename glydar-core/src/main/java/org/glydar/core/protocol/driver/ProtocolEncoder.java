@@ -1,17 +1,20 @@
 package org.glydar.core.protocol.driver;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.PacketType;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.Remote;
+import org.glydar.core.protocol.RemoteType;
 
 public class ProtocolEncoder<T extends Remote> extends MessageToByteEncoder<Packet> {
 
@@ -25,13 +28,47 @@ public class ProtocolEncoder<T extends Remote> extends MessageToByteEncoder<Pack
     protected void encode(ChannelHandlerContext ctx, Packet packet, ByteBuf out) throws Exception {
         out = out.order(ByteOrder.LITTLE_ENDIAN);
         handler.getLogger().finer("Writing packet {0}", packet.getPacketType());
-        out.writeInt(packet.getPacketType().id());
 
-        int indexBefore = out.writerIndex();
-        packet.writeTo(handler.getRemoteType(), out);
+        int indexBefore = out.writerIndex() + 4;
+        writePacket(handler.getRemoteType(), packet, out);
         dumpPacket(out, packet.getPacketType(), indexBefore);
     }
 
+    /**
+     * Encodes the given packets back to back into a single buffer, so that
+     * the same bytes can be written to several channels without encoding
+     * (and compressing) them once per channel.
+     * <p/>
+     * Buffers written to the channel are passed through this encoder as is.
+     * The caller owns the returned buffer and should write a retained
+     * {@link ByteBuf#duplicate()} of it to each channel before releasing it.
+     */
+    public static ByteBuf encode(ByteBufAllocator alloc, RemoteType receiver, Packet... packets) {
+        return encode(alloc, receiver, Arrays.asList(packets));
+    }
+
+    public static ByteBuf encode(ByteBufAllocator alloc, RemoteType receiver, List<? extends Packet> packets) {
+        ByteBuf buf = alloc.ioBuffer();
+        try {
+            ByteBuf out = buf.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < packets.size(); i++) {
+                Packet packet = packets.get(i);
+                writePacket(receiver, packet, out);
+            }
+        }
+        catch (RuntimeException exc) {
+            buf.release();
+            throw exc;
+        }
+
+        return buf;
+    }
+
+    private static void writePacket(RemoteType receiver, Packet packet, ByteBuf out) {
+        out.writeInt(packet.getPacketType().id());
+        packet.writeTo(receiver, out);
+    }
+
     private void dumpPacket(ByteBuf out, PacketType type, int indexBefore) {
         if (!handler.getLogger().getJdkLogger().isLoggable(Level.FINEST)) {
             return;
@@ -26,6 +26,10 @@ public class ProtocolInitializer<T extends Remote> extends ChannelInitializer<So
         ChannelPipeline pipeline = socketChannel.pipeline();
         pipeline.addLast("decoder", new ProtocolDecoder<T>(handler));
         pipeline.addLast("encoder", new ProtocolEncoder<T>(handler));
-        pipeline.addLast("dispatcher", new ProtocolDispatcher<T>(handler, data));
+        pipeline.addLast("dispatcher", createDispatcher(handler, data));
+    }
+
+    protected ProtocolDispatcher<T> createDispatcher(ProtocolHandler<T> handler, Object data) {
+        return new ProtocolDispatcher<T>(handler, data);
     }
 }
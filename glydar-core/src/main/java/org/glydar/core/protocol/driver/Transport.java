@@ -0,0 +1,87 @@
+package org.glydar.core.protocol.driver;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.socket.SocketChannel;
+
+import java.util.Locale;
+
+/**
+ * The Netty transports the network can run on. The classes are looked up by
+ * name, so that a transport can be listed here without being shipped : the
+ * native epoll transport only comes with later Netty versions and is simply
+ * unavailable with the bundled one.
+ */
+public enum Transport {
+
+    NIO("io.netty.channel.nio.NioEventLoopGroup", "io.netty.channel.socket.nio.NioServerSocketChannel",
+            "io.netty.channel.socket.nio.NioSocketChannel"),
+
+    EPOLL("io.netty.channel.epoll.EpollEventLoopGroup", "io.netty.channel.epoll.EpollServerSocketChannel",
+            "io.netty.channel.epoll.EpollSocketChannel");
+
+    private final String eventLoopGroupClassName;
+    private final String serverChannelClassName;
+    private final String socketChannelClassName;
+
+    private Transport(String eventLoopGroupClassName, String serverChannelClassName, String socketChannelClassName) {
+        this.eventLoopGroupClassName = eventLoopGroupClassName;
+        this.serverChannelClassName = serverChannelClassName;
+        this.socketChannelClassName = socketChannelClassName;
+    }
+
+    public boolean isAvailable() {
+        if (this == EPOLL && !System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).contains("linux")) {
+            return false;
+        }
+
+        try {
+            Class.forName(eventLoopGroupClassName);
+            Class.forName(serverChannelClassName);
+            Class.forName(socketChannelClassName);
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError exc) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the fastest available transport.
+     */
+    public static Transport best() {
+        return EPOLL.isAvailable() ? EPOLL : NIO;
+    }
+
+    /**
+     * @param threads
+     *            the number of threads, 0 for Netty's default (twice the
+     *            number of cores)
+     */
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        try {
+            return (EventLoopGroup) Class.forName(eventLoopGroupClassName).getConstructor(int.class)
+                    .newInstance(threads);
+        }
+        catch (ReflectiveOperationException exc) {
+            throw new IllegalStateException("Transport " + this + " is not available", exc);
+        }
+    }
+
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return load(serverChannelClassName, ServerChannel.class);
+    }
+
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return load(socketChannelClassName, SocketChannel.class);
+    }
+
+    private static <T> Class<? extends T> load(String className, Class<T> type) {
+        try {
+            return Class.forName(className).asSubclass(type);
+        }
+        catch (ClassNotFoundException exc) {
+            throw new IllegalStateException("Class " + className + " is not available", exc);
+        }
+    }
+}
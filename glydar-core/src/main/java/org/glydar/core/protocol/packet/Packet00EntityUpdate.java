@@ -3,6 +3,8 @@ package org.glydar.core.protocol.packet;
 import io.netty.buffer.ByteBuf;
 
 import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.model.entity.EntityDataPool;
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.PacketType;
 import org.glydar.core.protocol.ProtocolHandler;
@@ -17,16 +19,45 @@ public class Packet00EntityUpdate implements Packet {
 
     private final long entityId;
     private final CoreEntityData data;
+    private final EntityChanges changes;
+    private final EntityDataPool pool;
 
     public Packet00EntityUpdate(ByteBuf buf) {
+        this(buf, null);
+    }
+
+    /**
+     * Decodes the update into a data taken from {@code pool}, which should be
+     * given back with {@link #release()} once the update has been handled.
+     */
+    public Packet00EntityUpdate(ByteBuf buf, EntityDataPool pool) {
         ByteBuf decompressed = ZLibOperations.decompress(buf);
-        this.entityId = decompressed.readLong();
-        this.data = EntityCodec.readEntityData(decompressed);
+        try {
+            this.entityId = decompressed.readLong();
+            this.data = pool == null
+                    ? EntityCodec.readEntityData(decompressed)
+                    : EntityCodec.readEntityData(decompressed, pool.acquire());
+            this.changes = data.getChanges();
+            this.pool = pool;
+        }
+        finally {
+            decompressed.release();
+        }
     }
 
     public Packet00EntityUpdate(long entityId, CoreEntityData data) {
+        this(entityId, data, data.getChanges());
+    }
+
+    /**
+     * Creates an update which only contains the fields marked in
+     * {@code changes}.
+     */
+    public Packet00EntityUpdate(long entityId, CoreEntityData data, EntityChanges changes) {
         this.entityId = entityId;
         this.data = data;
+        this.changes = changes;
+        this.pool = null;
     }
 
     @Override
@@ -52,12 +83,26 @@ public class Packet00EntityUpdate implements Packet {
         return data;
     }
 
+    public EntityChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gives the decoded data back to its pool, if any. Neither the packet nor
+     * its data must be used afterwards.
+     */
+    public void release() {
+        if (pool != null) {
+            pool.release(data);
+        }
+    }
+
     private class EntityUpdate implements BufWritable {
 
         @Override
         public void writeTo(RemoteType receiver, ByteBuf buf) {
             buf.writeLong(entityId);
-            EntityCodec.writeEntityData(buf, data);
+            EntityCodec.writeEntityData(buf, data, changes);
         }
     }
 }
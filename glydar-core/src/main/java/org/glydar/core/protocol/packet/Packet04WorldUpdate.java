@@ -16,7 +16,13 @@ public class Packet04WorldUpdate implements Packet {
     private final WorldUpdates data;
 
     public Packet04WorldUpdate(ByteBuf buf) {
-        data = new WorldUpdates(ZLibOperations.decompress(buf));
+        ByteBuf decompressed = ZLibOperations.decompress(buf);
+        try {
+            data = new WorldUpdates(decompressed);
+        }
+        finally {
+            decompressed.release();
+        }
     }
 
     public Packet04WorldUpdate(WorldUpdates worldData) {
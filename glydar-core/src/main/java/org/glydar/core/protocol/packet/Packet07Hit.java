@@ -30,15 +30,20 @@ public class Packet07Hit implements Packet {
     private final byte unknown13;
 
     public Packet07Hit(CoreEntity entity) {
-        this.damagerId = entity.getId();
-        this.targetId = entity.getId();
-        this.damage = -100F;
+        this(entity.getId(), entity.getId(), -100F, entity.getData().getPosition(), entity.getData()
+                .getExtraVelocity());
+    }
+
+    public Packet07Hit(long damagerId, long targetId, float damage, LongVector3 position, FloatVector3 hitDirection) {
+        this.damagerId = damagerId;
+        this.targetId = targetId;
+        this.damage = damage;
         this.critical = (byte) 0;
         this.unknown5 = new byte[3];
         this.stunDuration = 0;
         this.unknown7 = 0;
-        this.position = entity.getData().getPosition();
-        this.hitDirection = entity.getData().getExtraVelocity();
+        this.position = position;
+        this.hitDirection = hitDirection;
         this.skillHit = (byte) 0;
         this.type = (byte) 0;
         this.showLight = (byte) 0;
@@ -1,24 +1,55 @@
 package org.glydar.core.protocol.util;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 import org.glydar.core.protocol.RemoteType;
 
+/**
+ * zlib helpers for the compressed packets (entity and world updates).
+ * <p/>
+ * {@link Deflater} and {@link Inflater} instances are reused per thread (in
+ * practice, per event loop) and data is deflated from and inflated into the
+ * backing arrays of the buffers whenever possible. Per thread scratch arrays
+ * are only used as a bridge for direct buffers.
+ */
 public class ZLibOperations {
 
+    private static final int SCRATCH_LENGTH = 8192;
+
+    private static final ThreadLocal<Engine> ENGINES = new ThreadLocal<Engine>() {
+
+        @Override
+        protected Engine initialValue() {
+            return new Engine();
+        }
+    };
+
+    /**
+     * Inflates the length-prefixed zlib data at the reader index of the given
+     * buffer.
+     * <p/>
+     * The returned buffer is allocated with the allocator of {@code buf} and
+     * must be released by the caller.
+     */
     public static ByteBuf decompress(ByteBuf buf) {
         int length = buf.readInt();
-        byte[] compressed = new byte[length];
-        buf.readBytes(compressed);
-        ByteBuf decompressed = Unpooled.copiedBuffer(decompressBytes(compressed));
+        ByteBuf compressed = buf.readSlice(length);
+        ByteBuf decompressed = buf.alloc().heapBuffer(Math.max(64, length * 4));
+        try {
+            ENGINES.get().inflate(compressed, decompressed);
+        }
+        catch (RuntimeException exc) {
+            decompressed.release();
+            throw exc;
+        }
+
         return decompressed.order(ByteOrder.LITTLE_ENDIAN);
     }
 
@@ -27,57 +58,148 @@ public class ZLibOperations {
             return new byte[0];
         }
 
-        Inflater inflater = new Inflater();
+        Inflater inflater = ENGINES.get().inflater;
+        inflater.reset();
         inflater.setInput(data);
 
-        byte[] buf = new byte[1024];
-        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length);
+        byte[] output = new byte[Math.max(64, data.length * 4)];
+        int length = 0;
         try {
             while (!inflater.finished()) {
-                int decompressed = inflater.inflate(buf);
-                output.write(buf, 0, decompressed);
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                int inflated = inflater.inflate(output, length, output.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DecoderException("Truncated zlib data");
+                }
+                length += inflated;
             }
-
-            inflater.end();
-            output.close();
-
-            return output.toByteArray();
         }
-        catch (DataFormatException | IOException exc) {
-            throw new RuntimeException(exc);
+        catch (DataFormatException exc) {
+            throw new DecoderException(exc);
         }
+
+        return Arrays.copyOf(output, length);
     }
 
+    /**
+     * Writes the given writable to {@code buf} as length-prefixed zlib data.
+     * Only the bytes actually written by the writable are compressed.
+     */
     public static void compress(RemoteType remoteType, ByteBuf buf, BufWritable writable) {
-        ByteBuf buf2 = Unpooled.buffer();
-        buf2 = buf2.order(ByteOrder.LITTLE_ENDIAN);
-        writable.writeTo(remoteType, buf2);
-        byte[] compressed = compressBytes(buf2.array());
+        ByteBuf uncompressed = buf.alloc().heapBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            writable.writeTo(remoteType, uncompressed);
 
-        buf.writeInt(compressed.length);
-        buf.writeBytes(compressed);
+            int lengthIndex = buf.writerIndex();
+            buf.writeInt(0);
+            int compressedLength = ENGINES.get().deflate(uncompressed, buf);
+            buf.setInt(lengthIndex, compressedLength);
+        }
+        finally {
+            uncompressed.release();
+        }
     }
 
     public static byte[] compressBytes(byte[] data) {
-        Deflater deflater = new Deflater();
+        Deflater deflater = ENGINES.get().deflater;
+        deflater.reset();
         deflater.setInput(data);
         deflater.finish();
 
-        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length);
-        byte[] buf = new byte[1024];
+        byte[] output = new byte[Math.max(64, data.length / 2)];
+        int length = 0;
         while (!deflater.finished()) {
-            int compressed = deflater.deflate(buf);
-            output.write(buf, 0, compressed);
+            if (length == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            length += deflater.deflate(output, length, output.length - length);
         }
 
-        try {
-            output.close();
+        return Arrays.copyOf(output, length);
+    }
+
+    private static class Engine {
+
+        private final Deflater deflater = new Deflater();
+        private final Inflater inflater = new Inflater();
+        private final byte[] outputScratch = new byte[SCRATCH_LENGTH];
+        private byte[] inputScratch = new byte[SCRATCH_LENGTH];
+
+        int deflate(ByteBuf in, ByteBuf out) {
+            deflater.reset();
+            setInput(deflater, in);
+            deflater.finish();
+
+            int written = 0;
+            while (!deflater.finished()) {
+                int deflated;
+                if (out.hasArray()) {
+                    out.ensureWritable(SCRATCH_LENGTH);
+                    deflated = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(),
+                            out.writableBytes());
+                    out.writerIndex(out.writerIndex() + deflated);
+                }
+                else {
+                    deflated = deflater.deflate(outputScratch);
+                    out.writeBytes(outputScratch, 0, deflated);
+                }
+                written += deflated;
+            }
+
+            return written;
         }
-        catch (IOException exc) {
-            throw new RuntimeException(exc);
+
+        void inflate(ByteBuf in, ByteBuf out) {
+            if (!in.isReadable()) {
+                return;
+            }
+
+            inflater.reset();
+            setInput(inflater, in);
+            try {
+                while (!inflater.finished()) {
+                    out.ensureWritable(SCRATCH_LENGTH);
+                    int inflated = inflater.inflate(out.array(), out.arrayOffset() + out.writerIndex(),
+                            out.writableBytes());
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new DecoderException("Truncated zlib data");
+                    }
+                    out.writerIndex(out.writerIndex() + inflated);
+                }
+            }
+            catch (DataFormatException exc) {
+                throw new DecoderException(exc);
+            }
         }
 
-        return output.toByteArray();
+        private void setInput(Deflater deflater, ByteBuf in) {
+            if (in.hasArray()) {
+                deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+            }
+            else {
+                deflater.setInput(copyToScratch(in), 0, in.readableBytes());
+            }
+        }
+
+        private void setInput(Inflater inflater, ByteBuf in) {
+            if (in.hasArray()) {
+                inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+            }
+            else {
+                inflater.setInput(copyToScratch(in), 0, in.readableBytes());
+            }
+        }
+
+        private byte[] copyToScratch(ByteBuf in) {
+            int length = in.readableBytes();
+            if (inputScratch.length < length) {
+                inputScratch = new byte[Integer.highestOneBit(length) << 1];
+            }
 
+            in.getBytes(in.readerIndex(), inputScratch, 0, length);
+            return inputScratch;
+        }
     }
 }
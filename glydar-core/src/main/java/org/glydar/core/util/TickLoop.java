@@ -0,0 +1,172 @@
+package org.glydar.core.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.logging.GlydarLogger;
+
+/**
+ * Runs a {@link Tickable} at a fixed rate on the calling thread.
+ * <p/>
+ * Ticks are scheduled against {@link System#nanoTime()} deadlines : a late
+ * tick is followed by back to back ticks until the loop caught up, unless it
+ * is more than {@link #MAX_CATCH_UP_TICKS} behind, in which case the missed
+ * ticks are skipped.
+ */
+public class TickLoop {
+
+    public static final int MAX_CATCH_UP_TICKS = 10;
+    public static final int HISTORY_LENGTH = 60;
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public interface Tickable {
+
+        void tick(int currentTick);
+    }
+
+    private final GlydarLogger logger;
+    private final int tps;
+    private final long tickNanos;
+    private final Tickable tickable;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    private volatile int currentTick;
+    private volatile long lastTickNanos;
+    private volatile long overrunCount;
+    private volatile long skippedCount;
+
+    private final double[] tpsHistory;
+    private int historyStart;
+    private int historySize;
+    private long secondStart;
+    private int secondTicks;
+
+    public TickLoop(GlydarLogger logger, int tps, Tickable tickable) {
+        this.logger = logger;
+        this.tps = tps;
+        this.tickNanos = SECOND_NANOS / tps;
+        this.tickable = tickable;
+        this.tpsHistory = new double[HISTORY_LENGTH];
+    }
+
+    /**
+     * Runs the loop until {@link #stop()} is called.
+     */
+    public void run() {
+        thread = Thread.currentThread();
+        running = true;
+
+        long deadline = System.nanoTime();
+        secondStart = deadline;
+        while (running) {
+            long now = System.nanoTime();
+            long remaining = deadline - now;
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+                catch (InterruptedException exc) {
+                    running = false;
+                }
+                continue;
+            }
+
+            long behind = -remaining / tickNanos;
+            if (behind > MAX_CATCH_UP_TICKS) {
+                logger.warning("Can't keep up, skipping {0} ticks", behind);
+                skippedCount += behind;
+                deadline += behind * tickNanos;
+            }
+
+            tick(now);
+            deadline += tickNanos;
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Thread thread = this.thread;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+
+    private void tick(long start) {
+        int tick = ++currentTick;
+        try {
+            tickable.tick(tick);
+        }
+        catch (RuntimeException exc) {
+            logger.severe(exc, "Exception while running tick {0}", tick);
+        }
+
+        long end = System.nanoTime();
+        lastTickNanos = end - start;
+        if (lastTickNanos > tickNanos) {
+            overrunCount++;
+        }
+
+        secondTicks++;
+        long elapsed = end - secondStart;
+        if (elapsed >= SECOND_NANOS) {
+            recordTps((double) secondTicks * SECOND_NANOS / elapsed);
+            secondStart = end;
+            secondTicks = 0;
+        }
+    }
+
+    private synchronized void recordTps(double value) {
+        int index = (historyStart + historySize) % HISTORY_LENGTH;
+        tpsHistory[index] = value;
+        if (historySize < HISTORY_LENGTH) {
+            historySize++;
+        }
+        else {
+            historyStart = (historyStart + 1) % HISTORY_LENGTH;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getTargetTps() {
+        return tps;
+    }
+
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    public long getLastTickDuration(TimeUnit unit) {
+        return unit.convert(lastTickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Number of ticks which took longer than the time allotted to them.
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Number of ticks dropped because the loop was too far behind.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns the measured TPS for each of the last {@link #HISTORY_LENGTH}
+     * seconds, oldest first.
+     */
+    public synchronized double[] getTpsHistory() {
+        double[] history = new double[historySize];
+        for (int i = 0; i < historySize; i++) {
+            history[i] = tpsHistory[(historyStart + i) % HISTORY_LENGTH];
+        }
+        return history;
+    }
+}
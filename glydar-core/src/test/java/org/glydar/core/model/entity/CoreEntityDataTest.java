@@ -0,0 +1,35 @@
+package org.glydar.core.model.entity;
+
+import static org.junit.Assert.*;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.junit.Test;
+
+public class CoreEntityDataTest {
+
+    @Test
+    public void testSettersMarkChanges() {
+        CoreEntityData data = new CoreEntityData(new EntityChanges(0));
+        assertTrue(data.getChanges().isEmpty());
+
+        data.setPosition(new LongVector3(1, 2, 3));
+        data.setEntityTypeId(4);
+
+        assertTrue(data.getChanges().get(EntityChange.POSITION));
+        assertTrue(data.getChanges().get(EntityChange.ENTITY_TYPE));
+        assertFalse(data.getChanges().get(EntityChange.NAME));
+    }
+
+    @Test
+    public void testTakeChangesResets() {
+        CoreEntityData data = new CoreEntityData(new EntityChanges(0));
+        data.setName("Glydar");
+
+        EntityChanges taken = data.takeChanges();
+        assertTrue(taken.get(EntityChange.NAME));
+        assertTrue(data.getChanges().isEmpty());
+
+        data.setPosition(new LongVector3(1, 2, 3));
+        assertFalse(taken.get(EntityChange.POSITION));
+    }
+}
@@ -0,0 +1,50 @@
+package org.glydar.core.model.entity;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class EntityChangesTest {
+
+    private static EntityChanges of(EntityChange... changes) {
+        EntityChanges result = new EntityChanges(0);
+        for (EntityChange change : changes) {
+            result.set(change);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSetOperations() {
+        EntityChanges changes = of(EntityChange.POSITION, EntityChange.HP);
+        changes.union(of(EntityChange.NAME));
+        assertEquals(of(EntityChange.POSITION, EntityChange.HP, EntityChange.NAME), changes);
+
+        changes.intersect(of(EntityChange.HP, EntityChange.NAME, EntityChange.MP));
+        assertEquals(of(EntityChange.HP, EntityChange.NAME), changes);
+
+        changes.diff(of(EntityChange.NAME));
+        assertEquals(of(EntityChange.HP), changes);
+        assertEquals(1, changes.size());
+
+        changes.clear(EntityChange.HP);
+        assertTrue(changes.isEmpty());
+        assertEquals(EntityChange.values().length, new EntityChanges().size());
+    }
+
+    @Test
+    public void testIterationInWireOrder() {
+        EntityChanges changes = of(EntityChange.ICE_BLOCK_FOUR, EntityChange.POSITION, EntityChange.SKILLS);
+        assertEquals(1L, changes.getMask() & 1L);
+
+        List<EntityChange> iterated = new ArrayList<>();
+        for (long mask = changes.getMask(); mask != 0; mask &= mask - 1) {
+            iterated.add(EntityChanges.lowest(mask));
+        }
+        assertEquals(Arrays.asList(EntityChange.POSITION, EntityChange.SKILLS, EntityChange.ICE_BLOCK_FOUR), iterated);
+    }
+}
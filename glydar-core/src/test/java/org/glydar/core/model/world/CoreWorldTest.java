@@ -0,0 +1,130 @@
+package org.glydar.core.model.world;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.core.model.entity.CorePlayer;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.ProtocolDecoder;
+import org.glydar.core.protocol.driver.TestProtocolHandler;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoreWorldTest {
+
+    private CoreWorld world;
+    private EmbeddedChannel aliceChannel;
+    private EmbeddedChannel bobChannel;
+    private CorePlayer alice;
+    private CorePlayer bob;
+
+    @Before
+    public void setUp() {
+        this.world = new CoreWorld("Test", 1);
+        world.setInterestRadius(100);
+
+        this.aliceChannel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter());
+        this.bobChannel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter());
+        this.alice = new CorePlayer(aliceChannel);
+        this.bob = new CorePlayer(bobChannel);
+        alice.getData().setName("Alice");
+        bob.getData().setName("Bob");
+        alice.joinWorld(world);
+        bob.joinWorld(world);
+    }
+
+    private static LongVector3 blocks(long x) {
+        return new LongVector3(x * CoreWorld.BLOCK_SCALE, 0, 0);
+    }
+
+    private static List<Packet00EntityUpdate> received(EmbeddedChannel channel) {
+        EmbeddedChannel decoder = new EmbeddedChannel(new ProtocolDecoder<>(new TestProtocolHandler(
+                RemoteType.SERVER)));
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            if (message instanceof ByteBuf) {
+                decoder.writeInbound(message);
+            }
+        }
+
+        List<Packet00EntityUpdate> updates = new ArrayList<>();
+        while ((message = decoder.readInbound()) != null) {
+            if (message instanceof Packet00EntityUpdate) {
+                updates.add((Packet00EntityUpdate) message);
+            }
+        }
+        return updates;
+    }
+
+    @Test
+    public void testEntitiesOutsideRadiusAreNotSent() {
+        alice.getData().setPosition(blocks(0));
+        bob.getData().setPosition(blocks(1000));
+        world.tick();
+
+        List<Packet00EntityUpdate> updates = received(aliceChannel);
+        assertEquals(1, updates.size());
+        assertEquals(alice.getId(), updates.get(0).getEntityId());
+    }
+
+    @Test
+    public void testEnteringEntityIsSentInFullThenAsDeltas() {
+        alice.getData().setPosition(blocks(0));
+        bob.getData().setPosition(blocks(1000));
+        world.tick();
+        received(aliceChannel);
+
+        bob.getData().setPosition(blocks(10));
+        world.tick();
+        List<Packet00EntityUpdate> updates = received(aliceChannel);
+        assertEquals(1, updates.size());
+        assertEquals(bob.getId(), updates.get(0).getEntityId());
+        assertTrue(updates.get(0).getData().getChanges().get(EntityChange.NAME));
+
+        bob.getData().setPosition(blocks(11));
+        world.tick();
+        updates = received(aliceChannel);
+        assertEquals(1, updates.size());
+        assertTrue(updates.get(0).getData().getChanges().get(EntityChange.POSITION));
+        assertFalse(updates.get(0).getData().getChanges().get(EntityChange.NAME));
+    }
+
+    @Test
+    public void testFarEntitiesAreUpdatedLessOften() {
+        alice.getData().setPosition(blocks(0));
+        bob.getData().setPosition(blocks(80));
+        world.tick();
+        received(aliceChannel);
+
+        int updates = 0;
+        for (int i = 0; i < 8; i++) {
+            bob.getData().setPosition(blocks(80 + (i % 2)));
+            world.tick();
+            updates += received(aliceChannel).size();
+        }
+
+        assertEquals(2, updates);
+    }
+
+    @Test
+    public void testMergedPositionIsQueryableBeforeTheTick() {
+        alice.getData().setPosition(blocks(0));
+        bob.getData().setPosition(blocks(1000));
+        world.tick();
+        assertEquals(1, world.getEntitiesInRange(blocks(0), 10 * CoreWorld.BLOCK_SCALE).size());
+
+        bob.getData().setPosition(blocks(5));
+        world.positionChanged(bob);
+        assertEquals(2, world.getEntitiesInRange(blocks(0), 10 * CoreWorld.BLOCK_SCALE).size());
+        assertSame(bob, world.getNearestEntities(blocks(6), 1).get(0));
+    }
+}
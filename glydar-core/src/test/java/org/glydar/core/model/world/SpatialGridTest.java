@@ -0,0 +1,104 @@
+package org.glydar.core.model.world;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.core.model.entity.CoreEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialGridTest {
+
+    private static final long SPREAD = 64 * SpatialGrid.CHUNK_SCALE;
+
+    private Random random;
+    private SpatialGrid grid;
+    private List<CoreEntity> entities;
+
+    @Before
+    public void setUp() {
+        this.random = new Random(42);
+        this.grid = new SpatialGrid();
+        this.entities = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            CoreEntity entity = new CoreEntity() {};
+            entity.getData().setPosition(randomPosition());
+            grid.update(entity);
+            entities.add(entity);
+        }
+    }
+
+    private LongVector3 randomPosition() {
+        return new LongVector3(randomCoordinate(), randomCoordinate(), randomCoordinate() / 64);
+    }
+
+    private long randomCoordinate() {
+        return (long) ((random.nextDouble() - 0.5) * SPREAD);
+    }
+
+    private List<CoreEntity> scanRange(LongVector3 center, long radius) {
+        List<CoreEntity> result = new ArrayList<>();
+        for (CoreEntity entity : entities) {
+            if (SpatialGrid.distanceSq(center, entity.getData().getPosition()) <= (double) radius * radius) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private void assertRangeMatchesScan() {
+        for (int i = 0; i < 50; i++) {
+            LongVector3 center = randomPosition();
+            long radius = (long) (random.nextDouble() * SPREAD / 4);
+            List<CoreEntity> result = new ArrayList<>();
+            grid.queryRange(center, radius, result);
+            assertEquals(new HashSet<>(scanRange(center, radius)), new HashSet<>(result));
+        }
+    }
+
+    @Test
+    public void testRangeMatchesScan() {
+        assertRangeMatchesScan();
+    }
+
+    @Test
+    public void testRangeAfterMovesAndRemovals() {
+        for (CoreEntity entity : entities) {
+            entity.getData().setPosition(randomPosition());
+            grid.update(entity);
+        }
+        for (int i = 0; i < 100; i++) {
+            grid.remove(entities.remove(entities.size() - 1).getId());
+        }
+
+        assertEquals(entities.size(), grid.size());
+        assertRangeMatchesScan();
+    }
+
+    @Test
+    public void testNearestMatchesScan() {
+        for (int i = 0; i < 50; i++) {
+            final LongVector3 center = randomPosition();
+            int count = 1 + random.nextInt(20);
+
+            List<CoreEntity> expected = new ArrayList<>(entities);
+            Collections.sort(expected, new Comparator<CoreEntity>() {
+
+                @Override
+                public int compare(CoreEntity a, CoreEntity b) {
+                    return Double.compare(SpatialGrid.distanceSq(center, a.getData().getPosition()),
+                            SpatialGrid.distanceSq(center, b.getData().getPosition()));
+                }
+            });
+
+            assertEquals(expected.subList(0, count), grid.queryNearest(center, count));
+        }
+    }
+}
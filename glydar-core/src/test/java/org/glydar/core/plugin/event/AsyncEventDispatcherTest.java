@@ -0,0 +1,105 @@
+package org.glydar.core.plugin.event;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventExecutor;
+import org.glydar.core.logging.CoreGlydarLogger;
+import org.junit.Test;
+
+public class AsyncEventDispatcherTest {
+
+    private static final CoreGlydarLogger LOGGER = CoreGlydarLogger.of(AsyncEventDispatcherTest.class, "Test");
+
+    private static class TestEvent extends Event {
+    }
+
+    @Test
+    public void testDropsBeyondPluginCapacity() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(LOGGER, 1, 2);
+        AsyncEventDispatcher.PluginQueue slow = dispatcher.queueOf("Slow");
+        AsyncEventDispatcher.PluginQueue other = dispatcher.queueOf("Other");
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch handled = new CountDownLatch(3);
+        EventExecutor<TestEvent> blocking = new EventExecutor<TestEvent>() {
+
+            @Override
+            public void execute(TestEvent event) {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.countDown();
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(slow, blocking, new TestEvent());
+        }
+        dispatcher.dispatch(other, blocking, new TestEvent());
+        assertEquals(2, slow.getDepth());
+        assertEquals(3, slow.getDroppedCount());
+        assertEquals(1, other.getDepth());
+        assertEquals(0, other.getDroppedCount());
+
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testSlowPluginDoesNotStarveTheOthers() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(LOGGER, 2, 1024);
+        AsyncEventDispatcher.PluginQueue slow = dispatcher.queueOf("Slow");
+        AsyncEventDispatcher.PluginQueue other = dispatcher.queueOf("Other");
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        EventExecutor<TestEvent> blocking = new EventExecutor<TestEvent>() {
+
+            @Override
+            public void execute(TestEvent event) {
+                int running = concurrent.incrementAndGet();
+                if (running > maxConcurrent.get()) {
+                    maxConcurrent.set(running);
+                }
+                try {
+                    release.await();
+                }
+                catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+            }
+        };
+        final CountDownLatch handled = new CountDownLatch(10);
+        EventExecutor<TestEvent> fast = new EventExecutor<TestEvent>() {
+
+            @Override
+            public void execute(TestEvent event) {
+                handled.countDown();
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(slow, blocking, new TestEvent());
+        }
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(other, fast, new TestEvent());
+        }
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxConcurrent.get());
+        assertEquals(10, slow.getDepth());
+        release.countDown();
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,270 @@
+package org.glydar.core.plugin.event;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.api.plugin.event.AsyncObservable;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventExecutor;
+import org.glydar.api.plugin.event.EventHandler;
+import org.glydar.api.plugin.event.EventPriority;
+import org.glydar.api.plugin.event.Listener;
+import org.glydar.api.plugin.event.events.EntityDataUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityPositionUpdateEvent;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChanges;
+import org.junit.Test;
+
+public class CoreEventManagerTest {
+
+    public static class ParentEvent extends Event {
+
+        int calls;
+    }
+
+    public static class ChildEvent extends ParentEvent {
+    }
+
+    public abstract static class AbstractEvent extends Event {
+
+        int calls;
+    }
+
+    public static class ConcreteEvent extends AbstractEvent {
+    }
+
+    public static class AbstractListener implements Listener {
+
+        @EventHandler
+        public void onAbstract(AbstractEvent event) {
+            event.calls++;
+        }
+
+        @EventHandler
+        public void onConcrete(ConcreteEvent event) {
+            event.calls++;
+        }
+    }
+
+    public static class ObservableEvent extends Event implements AsyncObservable {
+
+        final Thread thread;
+        ObservableEvent original;
+
+        public ObservableEvent() {
+            this.thread = Thread.currentThread();
+        }
+
+        @Override
+        public ObservableEvent snapshot() {
+            ObservableEvent snapshot = new ObservableEvent();
+            snapshot.original = this;
+            return snapshot;
+        }
+    }
+
+    public static class CountingListener implements Listener {
+
+        @EventHandler
+        public void onParent(ParentEvent event) {
+            event.calls++;
+        }
+    }
+
+    public static class AsyncListener implements Listener {
+
+        final CountDownLatch observed = new CountDownLatch(1);
+        volatile ObservableEvent received;
+        volatile Thread thread;
+
+        @EventHandler(async = true)
+        public void onParent(ParentEvent event) {
+            event.calls++;
+        }
+
+        @EventHandler(async = true)
+        public void onObservable(ObservableEvent event) {
+            received = event;
+            thread = Thread.currentThread();
+            observed.countDown();
+        }
+    }
+
+    public static class EntityUpdateListener implements Listener {
+
+        final CountDownLatch observed = new CountDownLatch(2);
+        volatile String positionThread;
+        volatile EntityDataUpdateEvent data;
+
+        @EventHandler(async = true)
+        public void onPosition(EntityPositionUpdateEvent event) {
+            positionThread = Thread.currentThread().getName();
+            observed.countDown();
+        }
+
+        @EventHandler(async = true)
+        public void onData(EntityDataUpdateEvent event) {
+            data = event;
+            observed.countDown();
+        }
+    }
+
+    @Test
+    public void testAsyncHandlersObserveEntityUpdates() throws InterruptedException {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        EntityUpdateListener listener = new EntityUpdateListener();
+        manager.register(plugin, listener);
+
+        LongVector3 position = new LongVector3(1, 2, 3);
+        CoreEntityData received = new CoreEntityData(new EntityChanges(0));
+        received.setPosition(position);
+        manager.callEvent(new EntityPositionUpdateEvent(null, position));
+        manager.callEvent(new EntityDataUpdateEvent(null, received, received.getChanges().getMask()));
+
+        assertTrue(listener.observed.await(5, TimeUnit.SECONDS));
+        assertTrue(listener.positionThread.startsWith("Async Events"));
+        assertNotSame(received, listener.data.getData());
+        assertEquals(position, listener.data.getData().getPosition());
+        assertEquals(received.getChanges().getMask(), listener.data.getChangeMask());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testAsyncHandlersOnlyObserveSnapshots() throws InterruptedException {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        AsyncListener listener = new AsyncListener();
+        manager.register(plugin, listener);
+
+        // Not observable : run synchronously on the event itself
+        assertEquals(1, manager.callEvent(new ParentEvent()).calls);
+
+        ObservableEvent event = manager.callEvent(new ObservableEvent());
+        assertTrue(listener.observed.await(5, TimeUnit.SECONDS));
+        assertNotSame(event, listener.received);
+        assertSame(event, listener.received.original);
+        assertNotSame(Thread.currentThread(), listener.thread);
+        manager.shutdown();
+    }
+
+    @Test
+    public void testSubclassUsesSuperclassHandlers() {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        assertFalse(manager.hasHandlers(ChildEvent.class));
+
+        CountingListener listener = new CountingListener();
+        manager.register(plugin, listener);
+        assertTrue(manager.hasHandlers(ChildEvent.class));
+        assertEquals(1, manager.callEvent(new ChildEvent()).calls);
+
+        manager.unregister(listener);
+        assertFalse(manager.hasHandlers(ParentEvent.class));
+        assertEquals(0, manager.callEvent(new ChildEvent()).calls);
+        manager.shutdown();
+    }
+
+    @Test
+    public void testAbstractEventHandlersAreCalledForSubclasses() {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        manager.register(plugin, new AbstractListener());
+
+        assertTrue(manager.hasHandlers(AbstractEvent.class));
+        assertEquals(2, manager.callEvent(new ConcreteEvent()).calls);
+        manager.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEventItselfIsRejected() {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        try {
+            manager.register(plugin, Event.class, new EventExecutor<Event>() {
+
+                @Override
+                public void execute(Event event) {
+                }
+            }, EventPriority.NORMAL);
+        }
+        finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegisterWhileDispatching() throws InterruptedException {
+        TestPlugin plugin = new TestPlugin("Test");
+        final CoreEventManager manager = new CoreEventManager(plugin);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread dispatcher = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    while (running.get()) {
+                        manager.callEvent(new ChildEvent());
+                    }
+                }
+                catch (Throwable throwable) {
+                    failure.set(throwable);
+                }
+            }
+        };
+        dispatcher.start();
+
+        EventExecutor<ChildEvent> executor = new EventExecutor<ChildEvent>() {
+
+            @Override
+            public void execute(ChildEvent event) {
+                event.calls++;
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            manager.register(plugin, ChildEvent.class, executor, EventPriority.NORMAL);
+            manager.unregister(executor);
+        }
+
+        running.set(false);
+        dispatcher.join();
+        assertNull(failure.get());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testTimingsPerPluginAndEvent() {
+        TestPlugin plugin = new TestPlugin("Test");
+        CoreEventManager manager = new CoreEventManager(plugin);
+        manager.register(plugin, new CountingListener());
+        manager.register(plugin, new CountingListener());
+
+        manager.callEvent(new ChildEvent());
+        assertTrue(manager.getTimings().snapshot().isEmpty());
+
+        manager.getTimings().setMode(EventTimings.Mode.FULL);
+        manager.callEvent(new ChildEvent());
+        manager.callEvent(new ParentEvent());
+
+        List<EventTimings.Snapshot> snapshots = manager.getTimings().snapshot();
+        assertEquals(1, snapshots.size());
+        assertEquals("Test", snapshots.get(0).getPluginName());
+        assertEquals(ParentEvent.class, snapshots.get(0).getEventClass());
+        assertEquals(4, snapshots.get(0).getInvocations());
+        assertEquals(4, snapshots.get(0).getMeasuredInvocations());
+        // HotSpot provides com.sun.management.ThreadMXBean
+        assertTrue(manager.getTimings().isAllocationTracked());
+
+        manager.getTimings().reset();
+        assertTrue(manager.getTimings().snapshot().isEmpty());
+        manager.shutdown();
+    }
+}
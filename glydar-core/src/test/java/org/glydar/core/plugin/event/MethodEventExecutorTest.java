@@ -0,0 +1,96 @@
+package org.glydar.core.plugin.event;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+
+import org.glydar.api.plugin.event.Cancellable;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventHandler;
+import org.glydar.api.plugin.event.Listener;
+import org.junit.Test;
+
+public class MethodEventExecutorTest {
+
+    public static class CancellableEvent extends Event implements Cancellable {
+
+        int calls;
+        boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+    public static class PublicListener implements Listener {
+
+        @EventHandler(ignoreCancelled = true)
+        public void onEvent(CancellableEvent event) {
+            event.calls++;
+        }
+
+        @EventHandler
+        public void onFailure(CancellableEvent event) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static class PrivateListener implements Listener {
+
+        @EventHandler
+        public void onEvent(CancellableEvent event) {
+            event.calls++;
+        }
+    }
+
+    private static MethodEventExecutor<CancellableEvent> executor(Listener listener, String name)
+            throws NoSuchMethodException {
+        Method method = listener.getClass().getMethod(name, CancellableEvent.class);
+        return MethodEventExecutor.of(CancellableEvent.class, listener, method,
+                method.getAnnotation(EventHandler.class));
+    }
+
+    @Test
+    public void testPublicHandlerCalledThroughAGeneratedClass() throws NoSuchMethodException {
+        PublicListener listener = new PublicListener();
+        MethodEventExecutor<CancellableEvent> executor = executor(listener, "onEvent");
+        assertTrue(executor.getClass().getName().startsWith("org.glydar.core.plugin.event.generated."));
+        assertSame(listener, executor.getListener());
+
+        CancellableEvent event = new CancellableEvent();
+        executor.execute(event);
+        assertEquals(1, event.calls);
+
+        event.setCancelled(true);
+        executor.execute(event);
+        assertEquals(1, event.calls);
+    }
+
+    @Test
+    public void testGeneratedClassWrapsExceptions() throws NoSuchMethodException {
+        MethodEventExecutor<CancellableEvent> executor = executor(new PublicListener(), "onFailure");
+        try {
+            executor.execute(new CancellableEvent());
+            fail();
+        }
+        catch (MethodEventExecutor.MethodEventExecutorException exc) {
+            assertTrue(exc.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testNonPublicListenerFallsBackToAMethodHandle() throws NoSuchMethodException {
+        MethodEventExecutor<CancellableEvent> executor = executor(new PrivateListener(), "onEvent");
+        assertTrue(executor instanceof MethodEventExecutor.HandleEventExecutor);
+
+        CancellableEvent event = new CancellableEvent();
+        executor.execute(event);
+        assertEquals(1, event.calls);
+    }
+}
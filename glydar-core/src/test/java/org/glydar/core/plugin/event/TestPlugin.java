@@ -0,0 +1,137 @@
+package org.glydar.core.plugin.event;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.glydar.api.Backend;
+import org.glydar.api.BackendType;
+import org.glydar.api.Server;
+import org.glydar.api.logging.GlydarLogger;
+import org.glydar.api.plugin.Plugin;
+import org.glydar.api.plugin.PluginDescriptor;
+import org.glydar.api.plugin.PluginManager;
+import org.glydar.api.plugin.command.CommandManager;
+import org.glydar.api.plugin.event.EventManager;
+import org.glydar.core.logging.CoreGlydarLogger;
+
+/**
+ * Plugin, and backend, which only provide names and loggers.
+ */
+public class TestPlugin implements Plugin, PluginDescriptor, Backend {
+
+    private final String name;
+    private final GlydarLogger logger;
+
+    public TestPlugin(String name) {
+        this.name = name;
+        this.logger = CoreGlydarLogger.of(getClass(), name);
+    }
+
+    @Override
+    public PluginDescriptor getDescriptor() {
+        return this;
+    }
+
+    @Override
+    public GlydarLogger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public GlydarLogger getLogger(Class<?> clazz) {
+        return logger;
+    }
+
+    @Override
+    public GlydarLogger getLogger(Class<?> clazz, String prefix) {
+        return logger;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public String getAuthor() {
+        return null;
+    }
+
+    @Override
+    public String getWebsite() {
+        return null;
+    }
+
+    @Override
+    public String getDescription() {
+        return null;
+    }
+
+    @Override
+    public List<PluginDependency> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<PluginDependency> getSoftDependencies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void enable() {
+    }
+
+    @Override
+    public void disable() {
+    }
+
+    @Override
+    public BackendType getType() {
+        return null;
+    }
+
+    @Override
+    public Path getBaseFolder() {
+        return null;
+    }
+
+    @Override
+    public Path getConfigFolder() {
+        return null;
+    }
+
+    @Override
+    public Path getPluginsFolder() {
+        return null;
+    }
+
+    @Override
+    public PluginManager getPluginManager() {
+        return null;
+    }
+
+    @Override
+    public CommandManager getCommandManager() {
+        return null;
+    }
+
+    @Override
+    public EventManager getEventManager() {
+        return null;
+    }
+
+    @Override
+    public Server getServer() {
+        return null;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
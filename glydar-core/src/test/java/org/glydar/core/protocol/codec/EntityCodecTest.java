@@ -0,0 +1,62 @@
+package org.glydar.core.protocol.codec;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteOrder;
+
+import org.glydar.api.model.geom.FloatVector3;
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.model.entity.EntityChanges;
+import org.junit.Test;
+
+public class EntityCodecTest {
+
+    private static ByteBuf encode(CoreEntityData data) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        EntityCodec.writeEntityData(buf, data);
+        return buf;
+    }
+
+    private static CoreEntityData update(LongVector3 position, String name) {
+        CoreEntityData data = new CoreEntityData(new EntityChanges(0));
+        data.setPosition(position);
+        data.setVelocity(new FloatVector3(1, 0, 0));
+        data.setName(name);
+        return data;
+    }
+
+    @Test
+    public void testReadIntoReplacesChanges() {
+        CoreEntityData scratch = new CoreEntityData(new EntityChanges());
+        EntityCodec.readEntityData(encode(update(new LongVector3(1, 2, 3), "Glydar")), scratch);
+
+        EntityChanges changes = scratch.getChanges();
+        assertTrue(changes.get(EntityChange.POSITION));
+        assertTrue(changes.get(EntityChange.VELOCITY));
+        assertTrue(changes.get(EntityChange.NAME));
+        assertFalse(changes.get(EntityChange.ORIENTATION));
+        assertEquals(3, changes.size());
+        assertEquals(2, scratch.getPosition().getY());
+        assertEquals("Glydar", scratch.getName());
+    }
+
+    @Test
+    public void testReadIntoKeepsEqualValues() {
+        CoreEntityData scratch = new CoreEntityData(new EntityChanges());
+        EntityCodec.readEntityData(encode(update(new LongVector3(1, 2, 3), "Glydar")), scratch);
+        FloatVector3 velocity = scratch.getVelocity();
+        String name = scratch.getName();
+
+        EntityCodec.readEntityData(encode(update(new LongVector3(4, 5, 6), "Glydar")), scratch);
+        assertSame(velocity, scratch.getVelocity());
+        assertSame(name, scratch.getName());
+        assertEquals(4, scratch.getPosition().getX());
+
+        EntityCodec.readEntityData(encode(update(new LongVector3(4, 5, 6), "Other")), scratch);
+        assertEquals("Other", scratch.getName());
+    }
+}
@@ -0,0 +1,294 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.net.InetSocketAddress;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.Remote;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.junit.Test;
+
+public class OutboundCoalescerTest {
+
+    private static final Packet[] PACKETS = { new Packet10Chat("Hello"), new Packet15Seed(111),
+            new Packet02UpdateFinished() };
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+
+        private int flushes;
+
+        @Override
+        public void flush(ChannelHandlerContext context) throws Exception {
+            flushes++;
+            context.flush();
+        }
+    }
+
+    private static class Collector extends ChannelInboundHandlerAdapter {
+
+        private final ByteBuf received = UnpooledByteBufAllocator.DEFAULT.buffer();
+        private final int expected;
+        private final CountDownLatch complete = new CountDownLatch(1);
+
+        private Collector(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext context, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            synchronized (received) {
+                received.writeBytes(buf);
+                if (received.readableBytes() >= expected) {
+                    complete.countDown();
+                }
+            }
+            buf.release();
+        }
+    }
+
+    /**
+     * Writes the given buffer to the coalescer of each new remote, without
+     * flushing it.
+     */
+    private static class WritingProtocolHandler extends TestProtocolHandler {
+
+        private final ByteBuf encoded;
+        private final CountDownLatch written = new CountDownLatch(1);
+        private final CountDownLatch disconnected = new CountDownLatch(1);
+
+        private WritingProtocolHandler(ByteBuf encoded) {
+            super(RemoteType.CLIENT);
+            this.encoded = encoded;
+        }
+
+        @Override
+        public Remote createRemote(Channel channel, Object data) {
+            new OutboundCoalescer(channel, RemoteType.CLIENT).write(encoded);
+            written.countDown();
+            return super.createRemote(channel, data);
+        }
+
+        @Override
+        public void disconnect(Remote remote) {
+            disconnected.countDown();
+        }
+    }
+
+    private static ByteBuf readAll(EmbeddedChannel channel) {
+        ByteBuf all = UnpooledByteBufAllocator.DEFAULT.buffer();
+        ByteBuf buf;
+        while ((buf = (ByteBuf) channel.readOutbound()) != null) {
+            all.writeBytes(buf);
+            buf.release();
+        }
+
+        return all;
+    }
+
+    @Test
+    public void testWritesAreFlushedOnce() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT);
+
+        ByteBuf encoded = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT, PACKETS);
+        for (Packet packet : PACKETS) {
+            outbound.write(packet);
+        }
+        outbound.write(encoded);
+        assertEquals(encoded.readableBytes() * 2, outbound.getPendingBytes());
+        assertNull(channel.readOutbound());
+
+        outbound.flush();
+        assertEquals(1, counter.flushes);
+        assertEquals(0, outbound.getPendingBytes());
+
+        ByteBuf expected = UnpooledByteBufAllocator.DEFAULT.buffer();
+        expected.writeBytes(encoded.duplicate()).writeBytes(encoded.duplicate());
+        assertEquals(expected, readAll(channel));
+
+        encoded.release();
+        assertEquals(0, encoded.refCnt());
+    }
+
+    @Test
+    public void testThresholdFlushes() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT, null, 16);
+
+        outbound.write(new Packet15Seed(1));
+        assertEquals(0, counter.flushes);
+        outbound.write(new Packet15Seed(2));
+        assertEquals(1, counter.flushes);
+        assertEquals(0, outbound.getPendingBytes());
+        readAll(channel).release();
+    }
+
+    @Test
+    public void testSendsAreQueuedOnce() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        Queue<OutboundCoalescer> flushQueue = new ConcurrentLinkedQueue<>();
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT, flushQueue);
+
+        outbound.send(PACKETS);
+        outbound.send(PACKETS);
+        assertEquals(1, flushQueue.size());
+        assertEquals(0, counter.flushes);
+
+        flushQueue.poll().flush();
+        assertEquals(1, counter.flushes);
+        outbound.send(PACKETS);
+        assertEquals(1, flushQueue.size());
+        readAll(channel).release();
+    }
+
+    @Test
+    public void testBatchesKeepTheirOrderAcrossThreads() throws InterruptedException {
+        final ByteBuf first = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                new Packet15Seed(1));
+        final ByteBuf second = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                new Packet15Seed(2));
+        Collector collector = new Collector(first.readableBytes() + second.readableBytes());
+
+        EventLoopGroup group = new LocalEventLoopGroup(1);
+        try {
+            LocalAddress address = new LocalAddress("outbound-coalescer-test");
+            new ServerBootstrap().group(group).channel(LocalServerChannel.class).childHandler(collector)
+                    .bind(address).sync();
+            Channel channel = new Bootstrap().group(group).channel(LocalChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter()).connect(address).sync().channel();
+            final OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT);
+
+            // Holds the event loop until the first batch is handed over from
+            // this thread, then flushes the second one from the event loop
+            final CountDownLatch firstFlushed = new CountDownLatch(1);
+            channel.eventLoop().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        firstFlushed.await();
+                    }
+                    catch (InterruptedException exc) {
+                        Thread.currentThread().interrupt();
+                    }
+                    outbound.send(second);
+                }
+            });
+            outbound.send(first);
+            firstFlushed.countDown();
+
+            assertTrue(collector.complete.await(5, TimeUnit.SECONDS));
+            ByteBuf expected = UnpooledByteBufAllocator.DEFAULT.buffer();
+            expected.writeBytes(first).writeBytes(second);
+            assertEquals(expected, collector.received);
+        }
+        finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testPendingReleasedOnClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCounter());
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT);
+
+        ByteBuf encoded = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT, PACKETS);
+        outbound.write(encoded);
+        encoded.release();
+        assertEquals(1, encoded.refCnt());
+
+        channel.close();
+        channel.runPendingTasks();
+        assertEquals(0, encoded.refCnt());
+        assertEquals(0, outbound.getPendingBytes());
+    }
+
+    @Test
+    public void testPendingReleasedWhenTheProtocolPipelineCloses() throws InterruptedException {
+        final ByteBuf encoded = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                PACKETS);
+        WritingProtocolHandler handler = new WritingProtocolHandler(encoded);
+        CountDownLatch written = handler.written;
+        CountDownLatch disconnected = handler.disconnected;
+
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+                    .childHandler(new ProtocolInitializer<>(handler)).bind(new InetSocketAddress("127.0.0.1", 0))
+                    .sync().channel();
+            Channel client = new Bootstrap().group(group).channel(NioSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter()).connect(server.localAddress()).sync().channel();
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            assertEquals(2, encoded.refCnt());
+
+            client.close().sync();
+            assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+            // The coalescer handler comes after the dispatcher, give it time
+            for (int i = 0; i < 100 && encoded.refCnt() > 1; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, encoded.refCnt());
+            server.close().sync();
+        }
+        finally {
+            group.shutdownGracefully();
+            encoded.release();
+        }
+    }
+
+    @Test
+    public void testKeyedWritesSupersedePendingOnes() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCounter());
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.CLIENT);
+
+        ByteBuf first = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                new Packet15Seed(1));
+        ByteBuf second = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                new Packet15Seed(2));
+        outbound.write(1, first);
+        outbound.write(new Packet02UpdateFinished());
+        outbound.write(1, second);
+        outbound.write(2, first);
+        assertEquals(2, first.refCnt());
+        assertEquals(second.readableBytes(), outbound.getSupersededBytes());
+
+        outbound.flush();
+        ByteBuf expected = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT,
+                new Packet02UpdateFinished(), new Packet15Seed(2), new Packet15Seed(1));
+        assertEquals(expected, readAll(channel));
+        first.release();
+        second.release();
+        assertEquals(0, first.refCnt());
+        assertEquals(0, second.refCnt());
+    }
+}
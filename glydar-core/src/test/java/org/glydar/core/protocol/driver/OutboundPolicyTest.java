@@ -0,0 +1,25 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+
+import org.glydar.core.protocol.driver.OutboundPolicy.Level;
+import org.junit.Test;
+
+public class OutboundPolicyTest {
+
+    private final OutboundPolicy policy = new OutboundPolicy(10, 20, 100, 5);
+
+    @Test
+    public void testLevelsHaveHysteresis() {
+        assertEquals(Level.NORMAL, policy.levelOf(Level.NORMAL, 15));
+        assertEquals(Level.CONGESTED, policy.levelOf(Level.NORMAL, 20));
+        assertEquals(Level.CONGESTED, policy.levelOf(Level.CONGESTED, 15));
+        assertEquals(Level.NORMAL, policy.levelOf(Level.CONGESTED, 10));
+        assertEquals(Level.OVERFLOWED, policy.levelOf(Level.CONGESTED, 101));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWaterMarksMustBeOrdered() {
+        new OutboundPolicy(20, 10, 100, 5);
+    }
+}
@@ -0,0 +1,138 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.PacketType;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.glydar.core.protocol.packet.Packet17VersionExchange;
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+
+public class PassthroughDecoderTest {
+
+    private static final Packet[] PACKETS = { new Packet17VersionExchange(3), new Packet10Chat("Hello world"),
+            new Packet15Seed(111), new Packet02UpdateFinished(), new Packet10Chat("Bye") };
+
+    private static final Predicate<PacketType> DECODE_SEED = new Predicate<PacketType>() {
+
+        @Override
+        public boolean apply(PacketType type) {
+            return type == PacketType.SEED;
+        }
+    };
+
+    private static byte[] encode(Packet... packets) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        for (Packet packet : packets) {
+            buf.writeInt(packet.getPacketType().id());
+            packet.writeTo(RemoteType.SERVER, buf);
+        }
+
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    private static List<Object> decode(byte[] stream, List<ByteBuf> inputs, int... splits) {
+        EmbeddedChannel channel = new EmbeddedChannel(new PassthroughDecoder<>(new TestProtocolHandler(
+                RemoteType.CLIENT), DECODE_SEED));
+        int start = 0;
+        for (int i = 0; i <= splits.length; i++) {
+            int end = i < splits.length ? splits[i] : stream.length;
+            ByteBuf input = Unpooled.copiedBuffer(stream, start, end - start);
+            inputs.add(input);
+            channel.writeInbound(input);
+            start = end;
+        }
+        channel.finish();
+
+        List<Object> decoded = new ArrayList<>();
+        Object object;
+        while ((object = channel.readInbound()) != null) {
+            decoded.add(object);
+        }
+
+        return decoded;
+    }
+
+    private static void assertDecoded(List<Object> decoded) {
+        assertEquals(PACKETS.length, decoded.size());
+        for (int i = 0; i < PACKETS.length; i++) {
+            Object object = decoded.get(i);
+            if (PACKETS[i].getPacketType() == PacketType.SEED) {
+                assertEquals(111, ((Packet15Seed) object).getSeed());
+            }
+            else {
+                ByteBuf frame = (ByteBuf) object;
+                assertEquals(Unpooled.wrappedBuffer(encode(PACKETS[i])), frame);
+                frame.release();
+            }
+        }
+    }
+
+    private static void assertReleased(List<ByteBuf> inputs) {
+        for (ByteBuf input : inputs) {
+            assertEquals(0, input.refCnt());
+        }
+    }
+
+    @Test
+    public void testWholeStream() {
+        List<ByteBuf> inputs = new ArrayList<>();
+        assertDecoded(decode(encode(PACKETS), inputs));
+        assertReleased(inputs);
+    }
+
+    @Test
+    public void testSplitAtEveryOffset() {
+        byte[] stream = encode(PACKETS);
+        for (int split = 1; split < stream.length; split++) {
+            List<ByteBuf> inputs = new ArrayList<>();
+            assertDecoded(decode(stream, inputs, split));
+            assertReleased(inputs);
+        }
+    }
+
+    @Test
+    public void testByteByByte() {
+        byte[] stream = encode(PACKETS);
+        int[] splits = new int[stream.length - 1];
+        for (int i = 0; i < splits.length; i++) {
+            splits[i] = i + 1;
+        }
+
+        List<ByteBuf> inputs = new ArrayList<>();
+        assertDecoded(decode(stream, inputs, splits));
+        assertReleased(inputs);
+    }
+
+    @Test
+    public void testFramesAreSlicesOfTheInput() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PassthroughDecoder<>(new TestProtocolHandler(
+                RemoteType.CLIENT), DECODE_SEED));
+        ByteBuf input = Unpooled.copiedBuffer(encode(new Packet10Chat("Hello"), new Packet10Chat("World")));
+        channel.writeInbound(input);
+
+        ByteBuf first = (ByteBuf) channel.readInbound();
+        ByteBuf second = (ByteBuf) channel.readInbound();
+        assertSame(input, first.unwrap());
+        assertSame(input, second.unwrap());
+        assertEquals(2, input.refCnt());
+
+        first.release();
+        second.release();
+        assertEquals(0, input.refCnt());
+    }
+}
@@ -0,0 +1,159 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.glydar.api.model.geom.Orientation;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.PacketType;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.codec.WorldUpdates;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet04WorldUpdate;
+import org.glydar.core.protocol.packet.Packet05CurrentTime;
+import org.glydar.core.protocol.packet.Packet06Interaction;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet08Stealth;
+import org.glydar.core.protocol.packet.Packet09Shoot;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet11ChunkDiscovery;
+import org.glydar.core.protocol.packet.Packet12SectorDiscovery;
+import org.glydar.core.protocol.packet.Packet13MissionData;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.glydar.core.protocol.packet.Packet16Join;
+import org.glydar.core.protocol.packet.Packet17VersionExchange;
+import org.glydar.core.protocol.packet.Packet18ServerFull;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProtocolDecoderTest {
+
+    private List<Packet> packets;
+    private byte[] stream;
+
+    @Before
+    public void setUp() {
+        CoreEntityData data = new CoreEntityData(new EntityChanges());
+        data.setOrientation(new Orientation(1f, 2f, 3f));
+        data.setName("Glydar");
+
+        this.packets = new ArrayList<>();
+        packets.add(new Packet17VersionExchange(3));
+        packets.add(new Packet00EntityUpdate(42L, data));
+        packets.add(new Packet02UpdateFinished());
+        packets.add(new Packet04WorldUpdate(new WorldUpdates()));
+        packets.add(new Packet05CurrentTime(1, 2));
+        packets.add(new Packet06Interaction(zeros()));
+        packets.add(new Packet07Hit(zeros()));
+        packets.add(new Packet08Stealth(zeros()));
+        packets.add(new Packet09Shoot(zeros()));
+        packets.add(new Packet10Chat("Hello world"));
+        packets.add(new Packet11ChunkDiscovery(zeros()));
+        packets.add(new Packet12SectorDiscovery(zeros()));
+        packets.add(new Packet13MissionData(zeros()));
+        packets.add(new Packet15Seed(111));
+        packets.add(new Packet16Join(zeros()));
+        packets.add(new Packet18ServerFull());
+
+        this.stream = encode(RemoteType.SERVER, packets);
+    }
+
+    private static ByteBuf zeros() {
+        return Unpooled.wrappedBuffer(new byte[8192]).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] encode(RemoteType receiver, List<Packet> packets) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        for (Packet packet : packets) {
+            buf.writeInt(packet.getPacketType().id());
+            packet.writeTo(receiver, buf);
+        }
+
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    private static List<Packet> decode(RemoteType remoteType, byte[] stream, int... splits) {
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolDecoder<>(new TestProtocolHandler(remoteType)));
+        int start = 0;
+        for (int split : splits) {
+            channel.writeInbound(Unpooled.wrappedBuffer(stream, start, split - start));
+            start = split;
+        }
+        channel.writeInbound(Unpooled.wrappedBuffer(stream, start, stream.length - start));
+        channel.finish();
+
+        List<Packet> decoded = new ArrayList<>();
+        Object object;
+        while ((object = channel.readInbound()) != null) {
+            decoded.add((Packet) object);
+        }
+
+        return decoded;
+    }
+
+    private void assertDecoded(List<Packet> decoded) {
+        assertEquals(packets.size(), decoded.size());
+        for (int i = 0; i < packets.size(); i++) {
+            assertEquals(packets.get(i).getPacketType(), decoded.get(i).getPacketType());
+        }
+
+        assertEquals(42L, ((Packet00EntityUpdate) decoded.get(1)).getEntityId());
+        assertEquals("Glydar", ((Packet00EntityUpdate) decoded.get(1)).getData().getName());
+        assertEquals("Hello world", ((Packet10Chat) decoded.get(9)).getMessage());
+        assertEquals(111, ((Packet15Seed) decoded.get(13)).getSeed());
+    }
+
+    @Test
+    public void testWholeStream() {
+        assertDecoded(decode(RemoteType.CLIENT, stream));
+    }
+
+    @Test
+    public void testSplitAtEveryOffset() {
+        for (int split = 1; split < stream.length; split++) {
+            assertDecoded(decode(RemoteType.CLIENT, stream, split));
+        }
+    }
+
+    @Test
+    public void testByteByByte() {
+        int[] splits = new int[stream.length - 1];
+        for (int i = 0; i < splits.length; i++) {
+            splits[i] = i + 1;
+        }
+
+        assertDecoded(decode(RemoteType.CLIENT, stream, splits));
+    }
+
+    @Test
+    public void testReEncodingIsIdentical() {
+        List<Packet> decoded = decode(RemoteType.CLIENT, stream);
+        assertArrayEquals(stream, encode(RemoteType.SERVER, decoded));
+    }
+
+    @Test
+    public void testChatFromServer() {
+        List<Packet> chat = new ArrayList<>();
+        chat.add(new Packet10Chat("From server"));
+        chat.add(new Packet15Seed(7));
+        byte[] serverStream = encode(RemoteType.CLIENT, chat);
+
+        for (int split = 1; split < serverStream.length; split++) {
+            List<Packet> decoded = decode(RemoteType.SERVER, serverStream, split);
+            assertEquals(2, decoded.size());
+            assertEquals("From server", ((Packet10Chat) decoded.get(0)).getMessage());
+            assertEquals(PacketType.SEED, decoded.get(1).getPacketType());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.junit.Test;
+
+public class ProtocolEncoderTest {
+
+    private static final Packet[] PACKETS = { new Packet10Chat("Hello"), new Packet15Seed(111),
+            new Packet02UpdateFinished() };
+
+    private static EmbeddedChannel newChannel() {
+        return new EmbeddedChannel(new ProtocolEncoder<>(new TestProtocolHandler(RemoteType.CLIENT)));
+    }
+
+    private static ByteBuf readAll(EmbeddedChannel channel) {
+        ByteBuf all = UnpooledByteBufAllocator.DEFAULT.buffer();
+        ByteBuf buf;
+        while ((buf = (ByteBuf) channel.readOutbound()) != null) {
+            all.writeBytes(buf);
+            buf.release();
+        }
+
+        return all;
+    }
+
+    @Test
+    public void testSharedEncodingMatchesPerChannelEncoding() {
+        EmbeddedChannel channel = newChannel();
+        channel.writeOutbound((Object[]) PACKETS);
+        ByteBuf expected = readAll(channel);
+
+        ByteBuf encoded = ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.CLIENT, PACKETS);
+        assertEquals(expected, encoded);
+
+        EmbeddedChannel channel1 = newChannel();
+        EmbeddedChannel channel2 = newChannel();
+        channel1.writeOutbound(encoded.duplicate().retain());
+        channel2.writeOutbound(encoded.duplicate().retain());
+        encoded.release();
+
+        assertEquals(expected, readAll(channel1));
+        assertEquals(expected, readAll(channel2));
+        assertEquals(0, encoded.refCnt());
+    }
+}
@@ -0,0 +1,123 @@
+package org.glydar.core.protocol.driver;
+
+import io.netty.channel.Channel;
+
+import org.glydar.api.logging.GlydarLogger;
+import org.glydar.core.logging.CoreGlydarLogger;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.Remote;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet04WorldUpdate;
+import org.glydar.core.protocol.packet.Packet05CurrentTime;
+import org.glydar.core.protocol.packet.Packet06Interaction;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet08Stealth;
+import org.glydar.core.protocol.packet.Packet09Shoot;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet11ChunkDiscovery;
+import org.glydar.core.protocol.packet.Packet12SectorDiscovery;
+import org.glydar.core.protocol.packet.Packet13MissionData;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.glydar.core.protocol.packet.Packet16Join;
+import org.glydar.core.protocol.packet.Packet17VersionExchange;
+import org.glydar.core.protocol.packet.Packet18ServerFull;
+
+/**
+ * No-op handler used to drive the protocol pipeline in tests and benchmarks.
+ */
+public class TestProtocolHandler implements ProtocolHandler<Remote> {
+
+    private final GlydarLogger logger;
+    private final RemoteType remoteType;
+
+    public TestProtocolHandler(RemoteType remoteType) {
+        this.logger = CoreGlydarLogger.of(getClass(), "Test");
+        this.remoteType = remoteType;
+    }
+
+    @Override
+    public GlydarLogger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public RemoteType getRemoteType() {
+        return remoteType;
+    }
+
+    @Override
+    public Remote createRemote(Channel channel, Object data) {
+        return new Remote() {
+        };
+    }
+
+    @Override
+    public void disconnect(Remote remote) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet00EntityUpdate packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet02UpdateFinished packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet04WorldUpdate packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet05CurrentTime packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet06Interaction packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet07Hit packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet08Stealth packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet09Shoot packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet10Chat packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet11ChunkDiscovery packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet12SectorDiscovery packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet13MissionData packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet15Seed packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet16Join packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet17VersionExchange packet) {
+    }
+
+    @Override
+    public void handle(Remote remote, Packet18ServerFull packet) {
+    }
+}
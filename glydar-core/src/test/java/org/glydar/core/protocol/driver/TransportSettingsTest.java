@@ -0,0 +1,45 @@
+package org.glydar.core.protocol.driver;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+
+import org.glydar.api.plugin.configuration.MemoryConfiguration;
+import org.glydar.core.logging.CoreGlydarLogger;
+import org.junit.Test;
+
+public class TransportSettingsTest {
+
+    private static final CoreGlydarLogger LOGGER = CoreGlydarLogger.of(TransportSettingsTest.class, "Test");
+
+    @Test
+    public void testDefaults() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        TransportSettings.addDefaults(config, "network");
+        TransportSettings settings = TransportSettings.fromConfig(config, "network", LOGGER);
+
+        assertEquals(Transport.best(), settings.getTransport());
+        assertEquals(1, settings.getBossThreads());
+        assertTrue(settings.isTcpNoDelay());
+        assertTrue(settings.getWriteBufferLowWaterMark() < settings.getWriteBufferHighWaterMark());
+    }
+
+    @Test
+    public void testUnknownTransportFallsBack() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        TransportSettings.addDefaults(config, "network");
+        config.set("network.transport", "carrier-pigeon");
+        config.set("network.pooled-allocator", false);
+        TransportSettings settings = TransportSettings.fromConfig(config, "network", LOGGER);
+
+        assertEquals(Transport.best(), settings.getTransport());
+        assertSame(UnpooledByteBufAllocator.DEFAULT, settings.getAllocator());
+    }
+
+    @Test
+    public void testNioIsAvailable() {
+        assertTrue(Transport.NIO.isAvailable());
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(1);
+        group.shutdownGracefully();
+    }
+}
@@ -0,0 +1,86 @@
+package org.glydar.core.protocol.util;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteOrder;
+
+import org.glydar.core.protocol.RemoteType;
+import org.junit.Test;
+
+public class ZLibOperationsTest {
+
+    private static final BufWritable PAYLOAD = new BufWritable() {
+
+        @Override
+        public void writeTo(RemoteType receiver, ByteBuf buf) {
+            for (int i = 0; i < 10000; i++) {
+                buf.writeInt(i % 97);
+            }
+        }
+    };
+
+    private static void assertRoundTrip(ByteBuf buf) {
+        buf = buf.order(ByteOrder.LITTLE_ENDIAN);
+        ZLibOperations.compress(RemoteType.CLIENT, buf, PAYLOAD);
+        assertEquals(buf.readableBytes() - 4, buf.getInt(buf.readerIndex()));
+
+        ByteBuf decompressed = ZLibOperations.decompress(buf);
+        try {
+            assertFalse(buf.isReadable());
+            assertEquals(40000, decompressed.readableBytes());
+            for (int i = 0; i < 10000; i++) {
+                assertEquals(i % 97, decompressed.readInt());
+            }
+        }
+        finally {
+            decompressed.release();
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testHeapRoundTrip() {
+        assertRoundTrip(Unpooled.buffer(16));
+    }
+
+    @Test
+    public void testDirectRoundTrip() {
+        assertRoundTrip(Unpooled.directBuffer(16));
+    }
+
+    @Test
+    public void testPooledRoundTrip() {
+        assertRoundTrip(PooledByteBufAllocator.DEFAULT.directBuffer(16));
+        assertRoundTrip(PooledByteBufAllocator.DEFAULT.heapBuffer(16));
+    }
+
+    @Test
+    public void testOnlyWrittenBytesAreCompressed() {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        ZLibOperations.compress(RemoteType.CLIENT, buf, new BufWritable() {
+
+            @Override
+            public void writeTo(RemoteType receiver, ByteBuf buf) {
+                buf.writeLong(42L);
+            }
+        });
+
+        ByteBuf decompressed = ZLibOperations.decompress(buf);
+        assertEquals(8, decompressed.readableBytes());
+        assertEquals(42L, decompressed.readLong());
+        decompressed.release();
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+
+        assertArrayEquals(data, ZLibOperations.decompressBytes(ZLibOperations.compressBytes(data)));
+    }
+}
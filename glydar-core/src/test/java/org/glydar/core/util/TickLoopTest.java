@@ -0,0 +1,56 @@
+package org.glydar.core.util;
+
+import static org.junit.Assert.*;
+
+import org.glydar.core.logging.CoreGlydarLogger;
+import org.junit.Test;
+
+public class TickLoopTest {
+
+    private static final CoreGlydarLogger LOGGER = CoreGlydarLogger.of(TickLoopTest.class, "Test");
+
+    @Test(timeout = 5000)
+    public void testTicksAreNumberedAndStop() {
+        final int[] ticks = new int[1];
+        final TickLoop[] loop = new TickLoop[1];
+        loop[0] = new TickLoop(LOGGER, 200, new TickLoop.Tickable() {
+
+            @Override
+            public void tick(int currentTick) {
+                assertEquals(ticks[0] + 1, currentTick);
+                ticks[0] = currentTick;
+                if (currentTick == 20) {
+                    loop[0].stop();
+                }
+            }
+        });
+
+        loop[0].run();
+        assertEquals(20, ticks[0]);
+        assertEquals(20, loop[0].getCurrentTick());
+        assertFalse(loop[0].isRunning());
+    }
+
+    @Test(timeout = 5000)
+    public void testOverrunsAreCounted() {
+        final TickLoop[] loop = new TickLoop[1];
+        loop[0] = new TickLoop(LOGGER, 1000, new TickLoop.Tickable() {
+
+            @Override
+            public void tick(int currentTick) {
+                try {
+                    Thread.sleep(2);
+                }
+                catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                if (currentTick == 5) {
+                    loop[0].stop();
+                }
+            }
+        });
+
+        loop[0].run();
+        assertEquals(5, loop[0].getOverrunCount());
+    }
+}
@@ -0,0 +1,223 @@
+package org.glydar.loadgen;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.model.geom.FloatVector3;
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.api.model.geom.Orientation;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.model.world.CoreWorld;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.Remote;
+import org.glydar.core.protocol.codec.GeomCodec;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet09Shoot;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet17VersionExchange;
+import org.glydar.core.util.LongObjectMap;
+
+/**
+ * A simulated client. Once joined, it walks around its spawn position and
+ * randomly hits other bots, shoots and chats. Everything but the creation
+ * happens on the event loop of its channel.
+ */
+public class Bot implements Remote {
+
+    private static final long ORIGIN = 0x8020000000L;
+    private static final int SPAWN_SPACING = 4;
+    private static final int SPAWN_ROW = 32;
+
+    /**
+     * Distance walked along x on each update, so that every position sent by
+     * a bot is different and can be recognized by the other bots.
+     */
+    private static final long STEP = 64;
+    private static final double SWING = 2 * CoreWorld.BLOCK_SCALE;
+
+    private final LoadGenerator generator;
+    private final int index;
+    private final LongVector3 spawn;
+    private final CoreEntityData data;
+    private final Random random;
+    private final LongObjectMap<Long> lastSeenX;
+    private Channel channel;
+    private volatile long id;
+    private volatile Sent lastSent;
+    private ScheduledFuture<?> steps;
+    private long sequence;
+    private long lastTickNanos;
+
+    public Bot(LoadGenerator generator, int index) {
+        this.generator = generator;
+        this.index = index;
+        this.spawn = new LongVector3(ORIGIN + index % SPAWN_ROW * SPAWN_SPACING * CoreWorld.BLOCK_SCALE, ORIGIN
+                + index / SPAWN_ROW * SPAWN_SPACING * CoreWorld.BLOCK_SCALE, 0x1000000);
+        this.data = new CoreEntityData(new EntityChanges());
+        this.random = new Random(index);
+        this.lastSeenX = new LongObjectMap<>();
+        this.id = -1;
+    }
+
+    /**
+     * Position sent by a bot and when it was sent.
+     */
+    private static final class Sent {
+
+        private final long x;
+        private final long nanos;
+
+        private Sent(long x, long nanos) {
+            this.x = x;
+            this.nanos = nanos;
+        }
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean hasJoined() {
+        return id >= 0;
+    }
+
+    void connected(Channel channel) {
+        this.channel = channel;
+        channel.writeAndFlush(new Packet17VersionExchange(ProtocolHandler.VERSION));
+    }
+
+    void joined(long id) {
+        this.id = id;
+        generator.registerJoined(this);
+
+        data.setName("Bot" + index);
+        data.setPosition(spawn);
+        data.setSpawnPosition(spawn);
+        data.setHp(1000);
+        data.setLevel(1);
+        channel.writeAndFlush(new Packet00EntityUpdate(id, data));
+        data.getChanges().reset();
+
+        LoadGeneratorConfig config = generator.getConfig();
+        long period = TimeUnit.SECONDS.toNanos(1) / config.getUpdateRate();
+        this.steps = channel.eventLoop().scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                step();
+            }
+        }, random.nextInt((int) TimeUnit.NANOSECONDS.toMillis(period) + 1), period, TimeUnit.NANOSECONDS);
+    }
+
+    void close() {
+        channel.close();
+    }
+
+    void disconnected() {
+        if (steps != null) {
+            steps.cancel(false);
+        }
+        if (hasJoined()) {
+            generator.unregisterJoined(this);
+        }
+    }
+
+    private void step() {
+        if (!channel.isActive()) {
+            return;
+        }
+
+        sequence++;
+        double angle = sequence * 0.1;
+        LongVector3 position = new LongVector3(spawn.getX() + sequence * STEP, spawn.getY()
+                + (long) (Math.sin(angle) * SWING), spawn.getZ());
+        data.setPosition(position);
+        data.setVelocity(new FloatVector3(1, (float) Math.cos(angle), 0));
+        data.setOrientation(new Orientation(0, 0, (float) Math.toDegrees(angle) % 360));
+        lastSent = new Sent(position.getX(), System.nanoTime());
+        channel.write(new Packet00EntityUpdate(id, data));
+        data.getChanges().reset();
+
+        LoadGeneratorConfig config = generator.getConfig();
+        if (happens(config.getHitRate())) {
+            Bot target = generator.randomJoined(random);
+            if (target != null && target != this) {
+                channel.write(new Packet07Hit(id, target.getId(), 1, position, new FloatVector3(1, 0, 0)));
+            }
+        }
+        if (happens(config.getShootRate())) {
+            channel.write(shoot(position));
+        }
+        if (happens(config.getChatRate())) {
+            channel.write(new Packet10Chat("Load test message " + sequence + " from bot " + index));
+        }
+
+        channel.flush();
+    }
+
+    /**
+     * Returns whether an event happening {@code rate} times per second on
+     * average happens on this update.
+     */
+    private boolean happens(double rate) {
+        return random.nextDouble() * generator.getConfig().getUpdateRate() < rate;
+    }
+
+    /**
+     * Most of the fields of a shoot are still unknown, it is built from its
+     * wire form with only the shooter and the position filled in.
+     */
+    private Packet09Shoot shoot(LongVector3 position) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        buf.writeLong(id);
+        buf.writeZero(16);
+        GeomCodec.writeLongVector3(buf, position);
+        buf.writeZero(128);
+        return new Packet09Shoot(buf);
+    }
+
+    /**
+     * Records the broadcast latency when the server relays the latest
+     * position of another bot, once per position and observer.
+     */
+    void observe(Packet00EntityUpdate packet) {
+        long entityId = packet.getEntityId();
+        if (entityId == id || !packet.getChanges().get(EntityChange.POSITION)) {
+            return;
+        }
+
+        Bot sender = generator.getJoined(entityId);
+        Sent sent = sender == null ? null : sender.lastSent;
+        long x = packet.getData().getPosition().getX();
+        if (sent == null || sent.x != x) {
+            return;
+        }
+
+        Long seen = lastSeenX.put(entityId, x);
+        if (seen == null || seen != x) {
+            generator.getStats().getBroadcastLatencies().record(
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent.nanos));
+        }
+    }
+
+    void updateFinished() {
+        long now = System.nanoTime();
+        if (lastTickNanos != 0) {
+            generator.getStats().getTickIntervals().record(TimeUnit.NANOSECONDS.toMicros(now - lastTickNanos));
+        }
+        this.lastTickNanos = now;
+    }
+}
@@ -0,0 +1,135 @@
+package org.glydar.loadgen;
+
+import io.netty.channel.Channel;
+
+import org.glydar.api.logging.GlydarLogger;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet02UpdateFinished;
+import org.glydar.core.protocol.packet.Packet04WorldUpdate;
+import org.glydar.core.protocol.packet.Packet05CurrentTime;
+import org.glydar.core.protocol.packet.Packet06Interaction;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet08Stealth;
+import org.glydar.core.protocol.packet.Packet09Shoot;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet11ChunkDiscovery;
+import org.glydar.core.protocol.packet.Packet12SectorDiscovery;
+import org.glydar.core.protocol.packet.Packet13MissionData;
+import org.glydar.core.protocol.packet.Packet15Seed;
+import org.glydar.core.protocol.packet.Packet16Join;
+import org.glydar.core.protocol.packet.Packet17VersionExchange;
+import org.glydar.core.protocol.packet.Packet18ServerFull;
+
+/**
+ * Protocol handler of the bots, which talk to the server as a client would.
+ */
+public class BotProtocolHandler implements ProtocolHandler<Bot> {
+
+    private static final String LOGGER_PREFIX = "Bots";
+
+    private final LoadGenerator generator;
+    private final GlydarLogger logger;
+
+    public BotProtocolHandler(LoadGenerator generator) {
+        this.generator = generator;
+        this.logger = generator.getLogger().getChildLogger(getClass(), LOGGER_PREFIX);
+    }
+
+    @Override
+    public GlydarLogger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public RemoteType getRemoteType() {
+        return RemoteType.SERVER;
+    }
+
+    @Override
+    public Bot createRemote(Channel channel, Object data) {
+        Bot bot = (Bot) data;
+        generator.getStats().getConnected().incrementAndGet();
+        bot.connected(channel);
+        return bot;
+    }
+
+    @Override
+    public void disconnect(Bot bot) {
+        generator.getStats().getConnected().decrementAndGet();
+        bot.disconnected();
+    }
+
+    @Override
+    public void handle(Bot bot, Packet00EntityUpdate packet) {
+        bot.observe(packet);
+        packet.release();
+    }
+
+    @Override
+    public void handle(Bot bot, Packet02UpdateFinished packet) {
+        bot.updateFinished();
+    }
+
+    @Override
+    public void handle(Bot bot, Packet04WorldUpdate packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet05CurrentTime packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet06Interaction packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet07Hit packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet08Stealth packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet09Shoot packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet10Chat packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet11ChunkDiscovery packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet12SectorDiscovery packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet13MissionData packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet15Seed packet) {
+    }
+
+    @Override
+    public void handle(Bot bot, Packet16Join packet) {
+        bot.joined(packet.getId());
+    }
+
+    @Override
+    public void handle(Bot bot, Packet17VersionExchange packet) {
+        logger.warning("Bot {0} rejected, the server expects version {1}", bot.getIndex(), packet.getVersion());
+        bot.close();
+    }
+
+    @Override
+    public void handle(Bot bot, Packet18ServerFull packet) {
+        logger.warning("Bot {0} rejected, the server is full", bot.getIndex());
+        bot.close();
+    }
+}
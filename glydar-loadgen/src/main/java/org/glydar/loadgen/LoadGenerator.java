@@ -0,0 +1,155 @@
+package org.glydar.loadgen;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.core.logging.CoreGlydarLogger;
+import org.glydar.core.protocol.driver.ProtocolInitializer;
+
+/**
+ * Connects the bots to the server and periodically reports what they
+ * measured.
+ */
+public class LoadGenerator {
+
+    private static final String LOGGER_PREFIX = "LoadGen";
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadGeneratorConfig config;
+    private final CoreGlydarLogger logger;
+    private final LoadStats stats;
+    private final BotProtocolHandler handler;
+    private final ConcurrentMap<Long, Bot> joinedById;
+    private final List<Bot> joined;
+    private NioEventLoopGroup group;
+    private long lastReportNanos;
+
+    public LoadGenerator(LoadGeneratorConfig config) {
+        this.config = config;
+        this.logger = CoreGlydarLogger.of(getClass(), LOGGER_PREFIX);
+        this.stats = new LoadStats();
+        this.handler = new BotProtocolHandler(this);
+        this.joinedById = new ConcurrentHashMap<>();
+        this.joined = new CopyOnWriteArrayList<>();
+    }
+
+    public LoadGeneratorConfig getConfig() {
+        return config;
+    }
+
+    public CoreGlydarLogger getLogger() {
+        return logger;
+    }
+
+    public LoadStats getStats() {
+        return stats;
+    }
+
+    void registerJoined(Bot bot) {
+        joinedById.put(bot.getId(), bot);
+        joined.add(bot);
+    }
+
+    void unregisterJoined(Bot bot) {
+        joinedById.remove(bot.getId());
+        joined.remove(bot);
+    }
+
+    Bot getJoined(long id) {
+        return joinedById.get(id);
+    }
+
+    Bot randomJoined(Random random) {
+        Object[] bots = joined.toArray();
+        return bots.length == 0 ? null : (Bot) bots[random.nextInt(bots.length)];
+    }
+
+    public void start() {
+        this.group = config.getThreads() > 0 ? new NioEventLoopGroup(config.getThreads()) : new NioEventLoopGroup();
+        logger.info("Connecting {0} bots to {1}:{2,number,#}", config.getBots(), config.getHost(), config.getPort());
+
+        for (int i = 0; i < config.getBots(); i++) {
+            final Bot bot = new Bot(this, i);
+            group.schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    connect(bot);
+                }
+            }, (long) i * config.getConnectInterval(), TimeUnit.MILLISECONDS);
+        }
+
+        this.lastReportNanos = System.nanoTime();
+        group.scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                report();
+            }
+        }, config.getReportInterval(), config.getReportInterval(), TimeUnit.SECONDS);
+    }
+
+    private void connect(Bot bot) {
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(group);
+        bootstrap.channel(NioSocketChannel.class);
+        bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        bootstrap.handler(new ProtocolInitializer<Bot>(handler, bot) {
+
+            @Override
+            protected void initChannel(SocketChannel socketChannel) throws Exception {
+                super.initChannel(socketChannel);
+                socketChannel.pipeline().addFirst("traffic", stats.getTrafficCounter());
+            }
+        });
+        bootstrap.connect(config.getHost(), config.getPort());
+    }
+
+    /**
+     * Logs the measurements since the previous report.
+     */
+    public synchronized void report() {
+        long now = System.nanoTime();
+        double elapsed = Math.max(1, now - lastReportNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        this.lastReportNanos = now;
+
+        int joinedCount = joined.size();
+        double perBot = elapsed * Math.max(1, joinedCount);
+        long bytesIn = stats.getBytesIn().getAndSet(0);
+        long bytesOut = stats.getBytesOut().getAndSet(0);
+        LatencyHistogram.Snapshot ticks = stats.getTickIntervals().snapshotAndReset();
+        LatencyHistogram.Snapshot latencies = stats.getBroadcastLatencies().snapshotAndReset();
+
+        logger.info("{0}/{1} bots joined ({2} connected)", joinedCount, config.getBots(), stats.getConnected().get());
+        logger.info("  Server tick : {0} ms mean, {1} ms p99", millis(ticks.getMean()),
+                millis(ticks.getPercentile(99)));
+        logger.info("  Broadcast latency : {0} ms p50, {1} ms p95, {2} ms p99, {3} ms max ({4} samples)",
+                millis(latencies.getPercentile(50)), millis(latencies.getPercentile(95)),
+                millis(latencies.getPercentile(99)), millis(latencies.getPercentile(100)), latencies.getCount());
+        logger.info("  Traffic per bot : {0,number,#} B/s in, {1,number,#} B/s out", bytesIn / perBot, bytesOut
+                / perBot);
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    public void stop() {
+        report();
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    public void awaitTermination() {
+        group.terminationFuture().syncUninterruptibly();
+    }
+}
@@ -0,0 +1,153 @@
+package org.glydar.loadgen;
+
+/**
+ * Settings of the load generator, read from the system properties (e.g.
+ * {@code -Dglydar.loadgen.bots=200}).
+ */
+public class LoadGeneratorConfig {
+
+    private static final String HOST_SYSTEM_KEY = "glydar.loadgen.host";
+    private static final String HOST_DEFAULT = "localhost";
+    private static final String PORT_SYSTEM_KEY = "glydar.loadgen.port";
+    private static final int PORT_DEFAULT = 12345;
+    private static final String BOTS_SYSTEM_KEY = "glydar.loadgen.bots";
+    private static final int BOTS_DEFAULT = 100;
+    private static final String THREADS_SYSTEM_KEY = "glydar.loadgen.threads";
+    private static final int THREADS_DEFAULT = 0;
+    private static final String CONNECT_INTERVAL_SYSTEM_KEY = "glydar.loadgen.connect-interval-ms";
+    private static final int CONNECT_INTERVAL_DEFAULT = 20;
+    private static final String UPDATE_RATE_SYSTEM_KEY = "glydar.loadgen.update-rate";
+    private static final int UPDATE_RATE_DEFAULT = 10;
+    private static final String HIT_RATE_SYSTEM_KEY = "glydar.loadgen.hit-rate";
+    private static final double HIT_RATE_DEFAULT = 1;
+    private static final String SHOOT_RATE_SYSTEM_KEY = "glydar.loadgen.shoot-rate";
+    private static final double SHOOT_RATE_DEFAULT = 0.5;
+    private static final String CHAT_RATE_SYSTEM_KEY = "glydar.loadgen.chat-rate";
+    private static final double CHAT_RATE_DEFAULT = 0.05;
+    private static final String REPORT_INTERVAL_SYSTEM_KEY = "glydar.loadgen.report-interval";
+    private static final int REPORT_INTERVAL_DEFAULT = 5;
+    private static final String DURATION_SYSTEM_KEY = "glydar.loadgen.duration";
+    private static final int DURATION_DEFAULT = 0;
+
+    private final String host;
+    private final int port;
+    private final int bots;
+    private final int threads;
+    private final int connectInterval;
+    private final int updateRate;
+    private final double hitRate;
+    private final double shootRate;
+    private final double chatRate;
+    private final int reportInterval;
+    private final int duration;
+
+    public LoadGeneratorConfig() {
+        this.host = System.getProperty(HOST_SYSTEM_KEY, HOST_DEFAULT);
+        this.port = intProperty(PORT_SYSTEM_KEY, PORT_DEFAULT);
+        this.bots = intProperty(BOTS_SYSTEM_KEY, BOTS_DEFAULT);
+        this.threads = intProperty(THREADS_SYSTEM_KEY, THREADS_DEFAULT);
+        this.connectInterval = intProperty(CONNECT_INTERVAL_SYSTEM_KEY, CONNECT_INTERVAL_DEFAULT);
+        this.updateRate = Math.max(1, intProperty(UPDATE_RATE_SYSTEM_KEY, UPDATE_RATE_DEFAULT));
+        this.hitRate = doubleProperty(HIT_RATE_SYSTEM_KEY, HIT_RATE_DEFAULT);
+        this.shootRate = doubleProperty(SHOOT_RATE_SYSTEM_KEY, SHOOT_RATE_DEFAULT);
+        this.chatRate = doubleProperty(CHAT_RATE_SYSTEM_KEY, CHAT_RATE_DEFAULT);
+        this.reportInterval = Math.max(1, intProperty(REPORT_INTERVAL_SYSTEM_KEY, REPORT_INTERVAL_DEFAULT));
+        this.duration = intProperty(DURATION_SYSTEM_KEY, DURATION_DEFAULT);
+    }
+
+    private static int intProperty(String key, int fallback) {
+        String property = System.getProperty(key);
+        if (property == null) {
+            return fallback;
+        }
+
+        try {
+            return Integer.parseInt(property);
+        }
+        catch (NumberFormatException exc) {
+            return fallback;
+        }
+    }
+
+    private static double doubleProperty(String key, double fallback) {
+        String property = System.getProperty(key);
+        if (property == null) {
+            return fallback;
+        }
+
+        try {
+            return Double.parseDouble(property);
+        }
+        catch (NumberFormatException exc) {
+            return fallback;
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBots() {
+        return bots;
+    }
+
+    /**
+     * Returns the number of network threads, 0 for Netty's default.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the delay, in milliseconds, between two bot connections.
+     */
+    public int getConnectInterval() {
+        return connectInterval;
+    }
+
+    /**
+     * Returns the number of movement updates sent by each bot per second.
+     */
+    public int getUpdateRate() {
+        return updateRate;
+    }
+
+    /**
+     * Returns the mean number of hits sent by each bot per second.
+     */
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    /**
+     * Returns the mean number of shoots sent by each bot per second.
+     */
+    public double getShootRate() {
+        return shootRate;
+    }
+
+    /**
+     * Returns the mean number of chat messages sent by each bot per second.
+     */
+    public double getChatRate() {
+        return chatRate;
+    }
+
+    /**
+     * Returns the delay, in seconds, between two reports.
+     */
+    public int getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * Returns the duration of the run in seconds, 0 to run until stopped.
+     */
+    public int getDuration() {
+        return duration;
+    }
+}
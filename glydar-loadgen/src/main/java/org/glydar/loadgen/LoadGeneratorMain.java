@@ -0,0 +1,24 @@
+package org.glydar.loadgen;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates many clients against a server, see {@link LoadGeneratorConfig}
+ * for the settings.
+ */
+public class LoadGeneratorMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        LoadGenerator generator = new LoadGenerator(config);
+        generator.start();
+
+        if (config.getDuration() > 0) {
+            TimeUnit.SECONDS.sleep(config.getDuration());
+            generator.stop();
+        }
+        else {
+            generator.awaitTermination();
+        }
+    }
+}
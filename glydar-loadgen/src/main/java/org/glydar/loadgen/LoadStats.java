@@ -0,0 +1,89 @@
+package org.glydar.loadgen;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements shared by all the bots.
+ */
+public class LoadStats {
+
+    private final AtomicInteger connected;
+    private final AtomicLong bytesIn;
+    private final AtomicLong bytesOut;
+    private final LatencyHistogram tickIntervals;
+    private final LatencyHistogram broadcastLatencies;
+    private final TrafficCounter trafficCounter;
+
+    public LoadStats() {
+        this.connected = new AtomicInteger();
+        this.bytesIn = new AtomicLong();
+        this.bytesOut = new AtomicLong();
+        this.tickIntervals = new LatencyHistogram();
+        this.broadcastLatencies = new LatencyHistogram();
+        this.trafficCounter = new TrafficCounter();
+    }
+
+    public AtomicInteger getConnected() {
+        return connected;
+    }
+
+    public AtomicLong getBytesIn() {
+        return bytesIn;
+    }
+
+    public AtomicLong getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Returns the delays between two {@code UpdateFinished} packets received
+     * by a bot. The server sends one at the end of each tick, so this is the
+     * tick duration as seen by the clients.
+     */
+    public LatencyHistogram getTickIntervals() {
+        return tickIntervals;
+    }
+
+    /**
+     * Returns the delays between a bot sending its position and another bot
+     * receiving it from the server.
+     */
+    public LatencyHistogram getBroadcastLatencies() {
+        return broadcastLatencies;
+    }
+
+    /**
+     * Returns the handler counting the bytes sent and received, to be put
+     * first in the pipeline of every bot.
+     */
+    public TrafficCounter getTrafficCounter() {
+        return trafficCounter;
+    }
+
+    @Sharable
+    public class TrafficCounter extends ChannelDuplexHandler {
+
+        @Override
+        public void channelRead(ChannelHandlerContext context, Object msg) throws Exception {
+            if (msg instanceof ByteBuf) {
+                bytesIn.addAndGet(((ByteBuf) msg).readableBytes());
+            }
+            context.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext context, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof ByteBuf) {
+                bytesOut.addAndGet(((ByteBuf) msg).readableBytes());
+            }
+            context.write(msg, promise);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.glydar.loadgen;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverValues() {
+        for (long value : new long[] { 0, 1, 15, 16, 17, 100, 1000, 123456, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.valueOf(bucket) <= value);
+            assertTrue(value - LatencyHistogram.valueOf(bucket) <= value / 8);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 100);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5000, snapshot.getPercentile(50), 5000 / 8);
+        assertEquals(9900, snapshot.getPercentile(99), 9900 / 8);
+        assertEquals(0, histogram.snapshotAndReset().getCount());
+    }
+}
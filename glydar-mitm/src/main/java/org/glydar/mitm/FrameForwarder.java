@@ -0,0 +1,29 @@
+package org.glydar.mitm;
+
+import io.netty.buffer.ByteBuf;
+
+import org.glydar.core.protocol.PacketType;
+
+/**
+ * One direction of a relay in passthrough mode : the packets nobody needs to
+ * look at are forwarded as raw frames instead of being decoded.
+ */
+public interface FrameForwarder {
+
+    /**
+     * Returns whether the packets of the given type must be decoded, either
+     * for the mitm itself or for the plugins listening to them.
+     */
+    boolean needsDecoding(PacketType type);
+
+    /**
+     * Writes the frame to the other side of the relay, without flushing.
+     * The frame is not released, the write holds its own reference to it.
+     */
+    void forward(Relay relay, ByteBuf frame);
+
+    /**
+     * Flushes the frames forwarded since the last call.
+     */
+    void flush(Relay relay);
+}
@@ -22,6 +22,7 @@ public class GlydarMitm extends CoreBackend {
     public GlydarMitm() {
         super(NAME);
         this.config = new GlydarMitmConfig(this);
+        getEventManager().setAsyncThreads(config.getAsyncEventThreads());
         this.mitmServer = new MitmServer(this);
         this.mitmClient = new MitmClient(this);
 
@@ -47,6 +48,7 @@ public class GlydarMitm extends CoreBackend {
 
     @Override
     public void shutdown() {
+        getEventManager().shutdown();
         GlydarMitmMain.shutdown();
     }
 
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.glydar.api.plugin.configuration.file.YamlConfiguration;
+import org.glydar.core.protocol.driver.TransportSettings;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
@@ -25,6 +26,15 @@ public class GlydarMitmConfig {
     private static final String VANILLA_PORT_KEY = "settings.vanilla-port";
     private static final String VANILLA_PORT_SYSTEM_KEY = "glydar.port.vanilla";
     private static final int VANILLA_PORT_DEFAULT = 12346;
+    private static final String ASYNC_EVENT_THREADS_KEY = "settings.async-event-threads";
+    private static final int ASYNC_EVENT_THREADS_DEFAULT = 2;
+    private static final String NETWORK_KEY = "settings.network";
+    private static final String PASSTHROUGH_KEY = "settings.passthrough";
+    private static final boolean PASSTHROUGH_DEFAULT = true;
+    private static final String MAX_BUFFERED_PACKETS_KEY = "settings.reconnect.max-buffered-packets";
+    private static final int MAX_BUFFERED_PACKETS_DEFAULT = PendingPackets.DEFAULT_MAX_PACKETS;
+    private static final String MAX_BUFFERED_BYTES_KEY = "settings.reconnect.max-buffered-bytes";
+    private static final int MAX_BUFFERED_BYTES_DEFAULT = PendingPackets.DEFAULT_MAX_BYTES;
     private static final String DEBUG_KEY = "settings.debug";
     private static final String DEBUG_SYSTEM_KEY = "glydar.debug";
     private static final boolean DEBUG_DEFAULT = false;
@@ -54,6 +64,11 @@ public class GlydarMitmConfig {
         config.addDefault(VANILLA_HOST_KEY, VANILLA_HOST_DEFAULT);
         config.addDefault(VANILLA_PORT_KEY, VANILLA_PORT_DEFAULT);
         config.addDefault(DEBUG_KEY, DEBUG_DEFAULT);
+        config.addDefault(ASYNC_EVENT_THREADS_KEY, ASYNC_EVENT_THREADS_DEFAULT);
+        TransportSettings.addDefaults(config, NETWORK_KEY);
+        config.addDefault(PASSTHROUGH_KEY, PASSTHROUGH_DEFAULT);
+        config.addDefault(MAX_BUFFERED_PACKETS_KEY, MAX_BUFFERED_PACKETS_DEFAULT);
+        config.addDefault(MAX_BUFFERED_BYTES_KEY, MAX_BUFFERED_BYTES_DEFAULT);
         config.addDefault(MAX_PLAYERS_KEY, MAX_PLAYERS_DEFAULT);
         config.addDefault(ADMINS_KEY, ADMINS_DEFAULT);
 
@@ -148,6 +163,38 @@ public class GlydarMitmConfig {
         return mitmPort;
     }
 
+    /**
+     * Number of threads running the async event handlers, a plugin only uses
+     * one at a time.
+     */
+    public int getAsyncEventThreads() {
+        return Math.max(1, config.getInt(ASYNC_EVENT_THREADS_KEY));
+    }
+
+    public TransportSettings getTransportSettings() {
+        return TransportSettings.fromConfig(config, NETWORK_KEY, server.getLogger());
+    }
+
+    /**
+     * Whether the packets nobody listens to are relayed without being
+     * decoded.
+     */
+    public boolean isPassthrough() {
+        return config.getBoolean(PASSTHROUGH_KEY);
+    }
+
+    /**
+     * Returns how many packets of a client are kept while its relay is not
+     * connected to the vanilla server.
+     */
+    public int getMaxBufferedPackets() {
+        return Math.max(1, config.getInt(MAX_BUFFERED_PACKETS_KEY));
+    }
+
+    public int getMaxBufferedBytes() {
+        return Math.max(1, config.getInt(MAX_BUFFERED_BYTES_KEY));
+    }
+
     public boolean isVanillaAutomatic() {
         return config.getBoolean(VANILLA_AUTOMATIC_KEY);
     }
@@ -1,18 +1,17 @@
 package org.glydar.mitm;
 
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.EventLoopGroup;
 
 import org.glydar.api.Glydar;
 import org.glydar.api.logging.GlydarLogger;
-import org.glydar.core.protocol.driver.ProtocolInitializer;
+import org.glydar.core.protocol.driver.TransportSettings;
 
 public class GlydarMitmMain {
 
-    private static NioEventLoopGroup bossGroup;
-    private static NioEventLoopGroup workerGroup;
+    private static EventLoopGroup bossGroup;
+    private static EventLoopGroup workerGroup;
+    private static TransportSettings transport;
 
     public static void main(String[] args) {
         GlydarMitm mitm = GlydarMitm.getInstance();
@@ -24,14 +23,16 @@ public class GlydarMitmMain {
         }
 
         int mitmPort = mitm.getConfig().getMitmPort();
-        bossGroup = new NioEventLoopGroup();
-        workerGroup = new NioEventLoopGroup();
+        transport = mitm.getConfig().getTransportSettings();
+        logger.info("Network : {0}", transport);
+        bossGroup = transport.newBossGroup();
+        workerGroup = transport.newWorkerGroup();
 
         ServerBootstrap mitmBootstrap = new ServerBootstrap();
         mitmBootstrap.group(bossGroup, workerGroup);
-        mitmBootstrap.channel(NioServerSocketChannel.class);
-        mitmBootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
-        mitmBootstrap.childHandler(new ProtocolInitializer<>(mitm.getMitmServer()));
+        transport.configure(mitmBootstrap);
+        mitmBootstrap.childHandler(new RelayInitializer<>(mitm.getMitmServer(), null, mitm.getConfig()
+                .isPassthrough()));
         mitmBootstrap.bind(mitmPort);
 
         mitm.getPluginManager().load();
@@ -41,6 +42,10 @@ public class GlydarMitmMain {
         logger.info("Relaying to {0} {1}", mitm.getConfig().getVanillaHost(), mitm.getConfig().getVanillaPort());
     }
 
+    public static TransportSettings getTransportSettings() {
+        return transport;
+    }
+
     public static void shutdown() {
         GlydarMitm mitm = GlydarMitm.getInstance();
         mitm.getLogger().info("Shutting down");
@@ -1,5 +1,6 @@
 package org.glydar.mitm;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import java.util.ArrayList;
@@ -8,6 +9,7 @@ import java.util.List;
 import org.glydar.api.Glydar;
 import org.glydar.api.logging.GlydarLogger;
 import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.PacketType;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.RemoteType;
 import org.glydar.core.protocol.packet.Packet00EntityUpdate;
@@ -29,7 +31,7 @@ import org.glydar.core.protocol.packet.Packet18ServerFull;
 import org.glydar.mitm.events.PacketEvent;
 import org.glydar.mitm.events.ServerPacketEvent;
 
-public class MitmClient implements ProtocolHandler<Relay> {
+public class MitmClient implements ProtocolHandler<Relay>, FrameForwarder {
 
     private static final String LOGGER_PREFIX = "MITM Client";
 
@@ -72,6 +74,24 @@ public class MitmClient implements ProtocolHandler<Relay> {
         }
     }
 
+    /**
+     * The join packet tells the entity id of the player.
+     */
+    @Override
+    public boolean needsDecoding(PacketType type) {
+        return type == PacketType.JOIN || Glydar.getEventManager().hasHandlers(ServerPacketEvent.class);
+    }
+
+    @Override
+    public void forward(Relay relay, ByteBuf frame) {
+        relay.writeRawToClient(frame);
+    }
+
+    @Override
+    public void flush(Relay relay) {
+        relay.flushToClient();
+    }
+
     private void forward(Relay relay, Packet... packets) {
         List<Packet> packetsToSend = new ArrayList<>();
         for (Packet packet : packets) {
@@ -90,7 +110,9 @@ public class MitmClient implements ProtocolHandler<Relay> {
 
     @Override
     public void handle(Relay relay, Packet00EntityUpdate packet) {
-        relay.getEntityData().updateFrom(packet.getData());
+        if (relay.hasJoined() && packet.getEntityId() == relay.getEntityId()) {
+            relay.getEntityData().updateFrom(packet.getData());
+        }
 
         forward(relay, packet);
     }
@@ -1,5 +1,6 @@
 package org.glydar.mitm;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import java.util.ArrayList;
@@ -9,6 +10,7 @@ import java.util.Set;
 import org.glydar.api.Glydar;
 import org.glydar.api.logging.GlydarLogger;
 import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.PacketType;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.RemoteType;
 import org.glydar.core.protocol.packet.Packet00EntityUpdate;
@@ -30,7 +32,7 @@ import org.glydar.core.protocol.packet.Packet18ServerFull;
 import org.glydar.mitm.events.ClientPacketEvent;
 import org.glydar.mitm.events.PacketEvent;
 
-public class MitmServer implements ProtocolHandler<Relay> {
+public class MitmServer implements ProtocolHandler<Relay>, FrameForwarder {
 
     private static final String LOGGER_PREFIX = "MITM Server";
 
@@ -67,6 +69,25 @@ public class MitmServer implements ProtocolHandler<Relay> {
         relays.remove(relay);
     }
 
+    /**
+     * Entity updates of the player are kept to rejoin the vanilla server
+     * after a restart.
+     */
+    @Override
+    public boolean needsDecoding(PacketType type) {
+        return type == PacketType.ENTITY_UPDATE || Glydar.getEventManager().hasHandlers(ClientPacketEvent.class);
+    }
+
+    @Override
+    public void forward(Relay relay, ByteBuf frame) {
+        relay.writeRawToServer(frame);
+    }
+
+    @Override
+    public void flush(Relay relay) {
+        relay.flushToServer();
+    }
+
     private void forward(Relay relay, Packet... packets) {
         List<Packet> packetsToSend = new ArrayList<>();
         for (Packet packet : packets) {
@@ -80,11 +101,15 @@ public class MitmServer implements ProtocolHandler<Relay> {
             logger.fine("Relaying packet {0}", packet.getPacketType());
         }
 
-        relay.sendToServer(packets);
+        relay.sendToServer(packetsToSend);
     }
 
     @Override
     public void handle(Relay relay, Packet00EntityUpdate packet) {
+        if (relay.hasJoined() && packet.getEntityId() == relay.getEntityId()) {
+            relay.getEntityData().updateFrom(packet.getData());
+        }
+
         forward(relay, packet);
     }
 
@@ -0,0 +1,210 @@
+package org.glydar.mitm;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glydar.core.protocol.PacketType;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+
+/**
+ * Frames sent by a client while its relay is not connected to the vanilla
+ * server, waiting to be replayed once it is.
+ * <p/>
+ * Only what still makes sense after a while is kept : entity updates are not
+ * buffered (the relay replays the latest state of the player instead),
+ * interactions, hits, stealth and shots are dropped and repeated discoveries
+ * of the same chunk or sector are coalesced. Above the limits, the oldest
+ * frames are dropped.
+ * <p/>
+ * Frames can be offered and drained from any thread.
+ */
+public class PendingPackets {
+
+    public static final int DEFAULT_MAX_PACKETS = 256;
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+
+    private static final int PACKET_ID_LENGTH = 4;
+
+    private static final Set<PacketType> STALE = Collections.unmodifiableSet(EnumSet.of(PacketType.INTERACTION,
+            PacketType.HIT, PacketType.STEALTH, PacketType.SHOOT));
+
+    private static class Pending {
+
+        private final PacketType type;
+        private final Long key;
+        private final ByteBuf frame;
+
+        private Pending(PacketType type, Long key, ByteBuf frame) {
+            this.type = type;
+            this.key = key;
+            this.frame = frame;
+        }
+    }
+
+    private final int maxPackets;
+    private final int maxBytes;
+    private final Queue<Pending> queue;
+    private final Map<PacketType, Set<Long>> discovered;
+    private final AtomicInteger packets;
+    private final AtomicInteger bytes;
+    private final AtomicLong dropped;
+    private final AtomicLong coalesced;
+
+    public PendingPackets() {
+        this(DEFAULT_MAX_PACKETS, DEFAULT_MAX_BYTES);
+    }
+
+    public PendingPackets(int maxPackets, int maxBytes) {
+        if (maxPackets < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Expected positive limits, got " + maxPackets + " packets and "
+                    + maxBytes + " bytes");
+        }
+
+        this.maxPackets = maxPackets;
+        this.maxBytes = maxBytes;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.discovered = new EnumMap<>(PacketType.class);
+        discovered.put(PacketType.CHUNK_DISCOVERY, newConcurrentSet());
+        discovered.put(PacketType.SECTOR_DISCOVERY, newConcurrentSet());
+        this.packets = new AtomicInteger();
+        this.bytes = new AtomicInteger();
+        this.dropped = new AtomicLong();
+        this.coalesced = new AtomicLong();
+    }
+
+    private static Set<Long> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    }
+
+    /**
+     * Buffers a frame (packet id included). The frame is not retained, a
+     * copy is kept if needed.
+     *
+     * @return whether the frame was buffered
+     */
+    public boolean offer(ByteBuf frame) {
+        ByteBuf buf = frame.order(ByteOrder.LITTLE_ENDIAN);
+        PacketType type = PacketType.valueOf(buf.getInt(buf.readerIndex()));
+        if (type == PacketType.ENTITY_UPDATE) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+        if (STALE.contains(type)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        Long key = null;
+        Set<Long> keys = discovered.get(type);
+        if (keys != null) {
+            key = buf.getLong(buf.readerIndex() + PACKET_ID_LENGTH);
+            if (!keys.add(key)) {
+                coalesced.incrementAndGet();
+                return false;
+            }
+        }
+
+        ByteBuf copy = buf.copy();
+        queue.offer(new Pending(type, key, copy));
+        int totalPackets = packets.incrementAndGet();
+        int totalBytes = bytes.addAndGet(copy.readableBytes());
+        while (totalPackets > maxPackets || totalBytes > maxBytes) {
+            Pending oldest = poll();
+            if (oldest == null) {
+                break;
+            }
+
+            oldest.frame.release();
+            dropped.incrementAndGet();
+            totalPackets = packets.get();
+            totalBytes = bytes.get();
+        }
+
+        return true;
+    }
+
+    private Pending poll() {
+        Pending pending = queue.poll();
+        if (pending != null) {
+            packets.decrementAndGet();
+            bytes.addAndGet(-pending.frame.readableBytes());
+            if (pending.key != null) {
+                discovered.get(pending.type).remove(pending.key);
+            }
+        }
+
+        return pending;
+    }
+
+    /**
+     * Writes the buffered frames, oldest first, without flushing.
+     *
+     * @return the number of frames written
+     */
+    public int drainTo(OutboundCoalescer outbound) {
+        int drained = 0;
+        Pending pending;
+        while ((pending = poll()) != null) {
+            try {
+                outbound.write(pending.frame);
+            }
+            finally {
+                pending.frame.release();
+            }
+            drained++;
+        }
+
+        return drained;
+    }
+
+    /**
+     * Releases the buffered frames.
+     */
+    public void clear() {
+        Pending pending;
+        while ((pending = poll()) != null) {
+            pending.frame.release();
+        }
+    }
+
+    public int getPackets() {
+        return packets.get();
+    }
+
+    public int getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Returns the number of frames dropped since the creation, because they
+     * were stale or over the limits.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of frames merged into an already buffered one, or
+     * into the state of the player for entity updates, since the creation.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    @Override
+    public String toString() {
+        return packets.get() + " packets (" + bytes.get() + " bytes), " + dropped.get() + " dropped, "
+                + coalesced.get() + " coalesced";
+    }
+}
@@ -1,40 +1,42 @@
 package org.glydar.mitm;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import org.glydar.core.model.entity.CoreEntityData;
 import org.glydar.core.model.entity.EntityChanges;
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.Remote;
-import org.glydar.core.protocol.driver.ProtocolInitializer;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+import org.glydar.core.protocol.driver.ProtocolEncoder;
 import org.glydar.core.protocol.packet.Packet00EntityUpdate;
 import org.glydar.core.protocol.packet.Packet17VersionExchange;
 
 public class Relay implements Remote {
 
     private final Channel clientChannel;
-    private final EventLoopGroup serverWorkerGroup;
-    private final List<Packet> serverPacketsQueue;
-    private Channel serverChannel;
+    private final OutboundCoalescer clientOutbound;
+    private final PendingPackets serverPending;
+    private volatile Channel serverChannel;
+    private volatile OutboundCoalescer serverOutbound;
+    private volatile boolean reconnecting;
 
     private long entityId;
     private final CoreEntityData entityData;
 
     public Relay(Channel clientChannel) {
         this.clientChannel = clientChannel;
-        this.serverWorkerGroup = new NioEventLoopGroup();
-        this.serverPacketsQueue = new ArrayList<>();
+        this.clientOutbound = new OutboundCoalescer(clientChannel, RemoteType.CLIENT);
+        GlydarMitmConfig config = GlydarMitm.getInstance().getConfig();
+        this.serverPending = new PendingPackets(config.getMaxBufferedPackets(), config.getMaxBufferedBytes());
         this.serverChannel = null;
+        this.serverOutbound = null;
+        this.reconnecting = false;
         this.entityId = -1;
         this.entityData = new CoreEntityData(new EntityChanges());
     }
@@ -44,30 +46,53 @@ public class Relay implements Remote {
     }
 
     public void sendToClient(Iterable<Packet> packets) {
-        for (Packet packet : packets) {
-            clientChannel.write(packet);
-        }
-        clientChannel.flush();
+        clientOutbound.send(packets);
     }
 
-    public void setServerChannel(Channel channel) {
-        this.serverChannel = channel;
+    /**
+     * Writes a frame received from the server as is, until
+     * {@link #flushToClient()} is called.
+     */
+    public void writeRawToClient(ByteBuf frame) {
+        clientOutbound.write(frame);
+    }
+
+    public void flushToClient() {
+        clientOutbound.flush();
+    }
 
-        for (Packet packet : serverPacketsQueue) {
-            serverChannel.write(packet);
+    /**
+     * Sends what the client sent while the server was not connected. After a
+     * reconnection, the version exchange and the latest state of the player
+     * are sent first, as the client will not send them again.
+     */
+    public void setServerChannel(Channel channel) {
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.SERVER);
+        if (reconnecting) {
+            reconnecting = false;
+            outbound.write(new Packet17VersionExchange(ProtocolHandler.VERSION));
+            outbound.write(new Packet00EntityUpdate(entityId, entityData));
+            GlydarMitm.getInstance().getLogger().info("Replaying {0}", serverPending);
         }
-        serverChannel.flush();
-        serverPacketsQueue.clear();
+
+        this.serverChannel = channel;
+        this.serverOutbound = outbound;
+        serverPending.drainTo(outbound);
+        outbound.flush();
     }
 
+    /**
+     * Connects to the vanilla server on the event loop of the client channel,
+     * both sides of the relay are then handled by the same thread.
+     */
     public void connectToServer() {
         GlydarMitm mitm = GlydarMitm.getInstance();
 
         Bootstrap serverRelayBootstrap = new Bootstrap();
-        serverRelayBootstrap.group(serverWorkerGroup);
-        serverRelayBootstrap.channel(NioSocketChannel.class);
-        serverRelayBootstrap.option(ChannelOption.SO_KEEPALIVE, true);
-        serverRelayBootstrap.handler(new ProtocolInitializer<Relay>(GlydarMitm.getInstance().getMitmClient(), this));
+        serverRelayBootstrap.group(clientChannel.eventLoop());
+        GlydarMitmMain.getTransportSettings().configure(serverRelayBootstrap);
+        serverRelayBootstrap.handler(new RelayInitializer<>(mitm.getMitmClient(), this, mitm.getConfig()
+                .isPassthrough()));
         serverRelayBootstrap.connect(mitm.getConfig().getVanillaHost(), mitm.getConfig().getVanillaPort());
     }
 
@@ -76,35 +101,80 @@ public class Relay implements Remote {
     }
 
     public void sendToServer(Iterable<Packet> packets) {
-        if (serverChannel == null) {
-            for (Packet packet : packets) {
-                // Packet 0 will be sent in one row when the server is up
-                if (!(packet instanceof Packet00EntityUpdate)) {
-                    serverPacketsQueue.add(packet);
-                }
+        OutboundCoalescer outbound = serverOutbound;
+        if (outbound != null) {
+            outbound.send(packets);
+            return;
+        }
+
+        for (Packet packet : packets) {
+            ByteBuf frame = ProtocolEncoder.encode(clientChannel.alloc(), RemoteType.SERVER, packet);
+            try {
+                bufferForServer(frame);
             }
+            finally {
+                frame.release();
+            }
+        }
+    }
+
+    /**
+     * Writes a frame received from the client as is, until
+     * {@link #flushToServer()} is called. While the server is not connected,
+     * the frame is buffered like any other packet.
+     */
+    public void writeRawToServer(ByteBuf frame) {
+        OutboundCoalescer outbound = serverOutbound;
+        if (outbound != null) {
+            outbound.write(frame);
         }
         else {
-            for (Packet packet : packets) {
-                serverChannel.write(packet);
-            }
-            serverChannel.flush();
+            bufferForServer(frame);
         }
     }
 
+    public void flushToServer() {
+        OutboundCoalescer outbound = serverOutbound;
+        if (outbound != null) {
+            outbound.flush();
+        }
+    }
+
+    /**
+     * Buffers a frame until the server is connected. If it got connected in
+     * the meantime, the buffer is drained right away.
+     */
+    private void bufferForServer(ByteBuf frame) {
+        serverPending.offer(frame);
+        OutboundCoalescer outbound = serverOutbound;
+        if (outbound != null) {
+            serverPending.drainTo(outbound);
+            outbound.flush();
+        }
+    }
+
+    public PendingPackets getServerPending() {
+        return serverPending;
+    }
+
     public void closeServerConnection() {
-        if (serverChannel == null) {
+        Channel channel = serverChannel;
+        OutboundCoalescer outbound = serverOutbound;
+        if (channel == null) {
             return;
         }
 
-        serverChannel.close();
         serverChannel = null;
+        serverOutbound = null;
+        outbound.flush();
+        channel.close();
     }
 
     public void shutdownGracefully() {
         closeServerConnection();
+        clientOutbound.flush();
         clientChannel.close();
-        serverWorkerGroup.shutdownGracefully();
+        serverPending.clear();
     }
 
     public boolean hasJoined() {
@@ -127,9 +197,13 @@ public class Relay implements Remote {
         return entityData;
     }
 
+    /**
+     * Anything still buffered was meant for the lost connection and is
+     * dropped, the state of the player is replayed on reconnection instead.
+     */
     public void prepareReconnection() {
         closeServerConnection();
-        serverPacketsQueue.add(new Packet17VersionExchange(ProtocolHandler.VERSION));
-        serverPacketsQueue.add(new Packet00EntityUpdate(entityId, entityData));
+        serverPending.clear();
+        reconnecting = true;
     }
 }
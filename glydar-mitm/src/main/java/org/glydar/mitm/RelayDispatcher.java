@@ -0,0 +1,45 @@
+package org.glydar.mitm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.driver.ProtocolDispatcher;
+
+/**
+ * Dispatches the decoded packets to the handler like any other channel and
+ * forwards the raw frames as they are, flushing them once per read.
+ */
+public class RelayDispatcher<H extends ProtocolHandler<Relay> & FrameForwarder> extends ProtocolDispatcher<Relay> {
+
+    private final H forwarder;
+
+    public RelayDispatcher(H forwarder, Object data) {
+        super(forwarder, data);
+        this.forwarder = forwarder;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext context, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            super.channelRead(context, msg);
+            return;
+        }
+
+        ByteBuf frame = (ByteBuf) msg;
+        try {
+            forwarder.forward(getRemote(), frame);
+        }
+        finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext context) throws Exception {
+        if (getRemote() != null) {
+            forwarder.flush(getRemote());
+        }
+        super.channelReadComplete(context);
+    }
+}
@@ -0,0 +1,47 @@
+package org.glydar.mitm;
+
+import io.netty.channel.socket.SocketChannel;
+
+import org.glydar.core.protocol.PacketType;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.driver.PassthroughDecoder;
+import org.glydar.core.protocol.driver.ProtocolDispatcher;
+import org.glydar.core.protocol.driver.ProtocolInitializer;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Sets up one side of a relay. In passthrough mode, only the packets needed
+ * by the mitm or its plugins are decoded, see {@link FrameForwarder}.
+ */
+public class RelayInitializer<H extends ProtocolHandler<Relay> & FrameForwarder> extends ProtocolInitializer<Relay> {
+
+    private final H forwarder;
+    private final boolean passthrough;
+
+    public RelayInitializer(H forwarder, Object data, boolean passthrough) {
+        super(forwarder, data);
+        this.forwarder = forwarder;
+        this.passthrough = passthrough;
+    }
+
+    @Override
+    protected void initChannel(SocketChannel socketChannel) throws Exception {
+        super.initChannel(socketChannel);
+        if (passthrough) {
+            socketChannel.pipeline().replace("decoder", "decoder",
+                    new PassthroughDecoder<Relay>(forwarder, new Predicate<PacketType>() {
+
+                        @Override
+                        public boolean apply(PacketType type) {
+                            return forwarder.needsDecoding(type);
+                        }
+                    }));
+        }
+    }
+
+    @Override
+    protected ProtocolDispatcher<Relay> createDispatcher(ProtocolHandler<Relay> handler, Object data) {
+        return new RelayDispatcher<H>(forwarder, data);
+    }
+}
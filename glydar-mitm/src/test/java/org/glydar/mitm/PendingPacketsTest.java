@@ -0,0 +1,118 @@
+package org.glydar.mitm;
+
+import static org.junit.Assert.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.nio.ByteOrder;
+
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+import org.glydar.core.protocol.driver.ProtocolEncoder;
+import org.glydar.core.protocol.packet.Packet00EntityUpdate;
+import org.glydar.core.protocol.packet.Packet07Hit;
+import org.glydar.core.protocol.packet.Packet10Chat;
+import org.glydar.core.protocol.packet.Packet11ChunkDiscovery;
+import org.junit.Test;
+
+public class PendingPacketsTest {
+
+    private static ByteBuf encode(Packet... packets) {
+        return ProtocolEncoder.encode(UnpooledByteBufAllocator.DEFAULT, RemoteType.SERVER, packets);
+    }
+
+    private static Packet chunk(int x, int y) {
+        ByteBuf buf = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        buf.writeInt(x).writeInt(y);
+        return new Packet11ChunkDiscovery(buf);
+    }
+
+    private static void offer(PendingPackets pending, Packet packet) {
+        ByteBuf frame = encode(packet);
+        pending.offer(frame);
+        frame.release();
+        assertEquals(0, frame.refCnt());
+    }
+
+    private static ByteBuf drain(PendingPackets pending) {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        OutboundCoalescer outbound = new OutboundCoalescer(channel, RemoteType.SERVER);
+        pending.drainTo(outbound);
+        outbound.flush();
+
+        ByteBuf all = Unpooled.buffer();
+        ByteBuf buf;
+        while ((buf = (ByteBuf) channel.readOutbound()) != null) {
+            all.writeBytes(buf);
+            buf.release();
+        }
+
+        return all;
+    }
+
+    @Test
+    public void testStaleAndSupersededPacketsAreNotBuffered() {
+        CoreEntityData data = new CoreEntityData(new EntityChanges());
+        data.setName("Glydar");
+        PendingPackets pending = new PendingPackets();
+        offer(pending, new Packet00EntityUpdate(1L, data));
+        offer(pending, new Packet07Hit(Unpooled.wrappedBuffer(new byte[72]).order(ByteOrder.LITTLE_ENDIAN)));
+        offer(pending, chunk(1, 2));
+        offer(pending, new Packet10Chat("Hello"));
+        offer(pending, chunk(1, 2));
+        offer(pending, chunk(2, 1));
+
+        assertEquals(3, pending.getPackets());
+        assertEquals(1, pending.getDropped());
+        assertEquals(2, pending.getCoalesced());
+        assertEquals(encode(chunk(1, 2), new Packet10Chat("Hello"), chunk(2, 1)), drain(pending));
+        assertEquals(0, pending.getPackets());
+        assertEquals(0, pending.getBytes());
+    }
+
+    @Test
+    public void testOldestPacketsAreDroppedOverTheLimits() {
+        ByteBuf frame = encode(new Packet10Chat("Hello"));
+        int frameLength = frame.readableBytes();
+        frame.release();
+
+        PendingPackets pending = new PendingPackets(3, frameLength * 2);
+        offer(pending, new Packet10Chat("Hello"));
+        offer(pending, chunk(1, 2));
+        offer(pending, chunk(3, 4));
+        offer(pending, chunk(5, 6));
+        assertEquals(3, pending.getPackets());
+        assertEquals(1, pending.getDropped());
+
+        offer(pending, new Packet10Chat("World"));
+        assertEquals(3, pending.getDropped());
+        assertEquals(frameLength + 12, pending.getBytes());
+        assertEquals(encode(chunk(5, 6), new Packet10Chat("World")), drain(pending));
+    }
+
+    @Test
+    public void testDroppedDiscoveriesCanBeBufferedAgain() {
+        PendingPackets pending = new PendingPackets(1, 1024);
+        offer(pending, chunk(1, 2));
+        offer(pending, chunk(3, 4));
+        offer(pending, chunk(1, 2));
+        assertEquals(0, pending.getCoalesced());
+        assertEquals(encode(chunk(1, 2)), drain(pending));
+    }
+
+    @Test
+    public void testClearReleasesTheFrames() {
+        PendingPackets pending = new PendingPackets();
+        offer(pending, new Packet10Chat("Hello"));
+        pending.clear();
+        assertEquals(0, pending.getPackets());
+        assertEquals(0, pending.getBytes());
+        assertEquals(0, drain(pending).readableBytes());
+    }
+}
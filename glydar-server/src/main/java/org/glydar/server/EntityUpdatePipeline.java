@@ -0,0 +1,157 @@
+package org.glydar.server;
+
+import org.glydar.api.model.entity.Entity;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventManager;
+import org.glydar.api.plugin.event.events.EntityAccelerationUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityDataUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityExtraVelocityUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityFlagsUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityOrientationUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityPositionUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityVelocityUpdateEvent;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.model.entity.EntityChanges;
+
+/**
+ * Calls the update events of the fields changed by an entity update, using a
+ * table of field handlers indexed by {@link EntityChange}. Events are only
+ * built for fields which have a handler and when a plugin listens to them.
+ */
+public class EntityUpdatePipeline {
+
+    private final EventManager eventManager;
+    private final FieldHandler<?>[] handlers;
+    private long handledMask;
+
+    public EntityUpdatePipeline(EventManager eventManager) {
+        this.eventManager = eventManager;
+        this.handlers = new FieldHandler<?>[EntityChange.values().length];
+        this.handledMask = 0;
+        registerDefaultHandlers();
+    }
+
+    /**
+     * Handles the update of a single field, the event is only created when
+     * someone listens to it.
+     */
+    private abstract static class FieldHandler<E extends Event> {
+
+        private final Class<E> eventClass;
+
+        private FieldHandler(Class<E> eventClass) {
+            this.eventClass = eventClass;
+        }
+
+        protected abstract E createEvent(Entity entity, CoreEntityData data);
+
+        protected abstract void apply(E event, CoreEntityData data);
+    }
+
+    private void register(EntityChange change, FieldHandler<?> handler) {
+        handlers[change.ordinal()] = handler;
+        handledMask |= EntityChanges.bit(change);
+    }
+
+    private void registerDefaultHandlers() {
+        register(EntityChange.POSITION, new FieldHandler<EntityPositionUpdateEvent>(EntityPositionUpdateEvent.class) {
+
+            @Override
+            protected EntityPositionUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityPositionUpdateEvent(entity, data.getPosition());
+            }
+
+            @Override
+            protected void apply(EntityPositionUpdateEvent event, CoreEntityData data) {
+                data.setPosition(event.getPosition());
+            }
+        });
+        register(EntityChange.ORIENTATION, new FieldHandler<EntityOrientationUpdateEvent>(
+                EntityOrientationUpdateEvent.class) {
+
+            @Override
+            protected EntityOrientationUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityOrientationUpdateEvent(entity, data.getOrientation());
+            }
+
+            @Override
+            protected void apply(EntityOrientationUpdateEvent event, CoreEntityData data) {
+                data.setOrientation(event.getOrientation());
+            }
+        });
+        register(EntityChange.VELOCITY, new FieldHandler<EntityVelocityUpdateEvent>(EntityVelocityUpdateEvent.class) {
+
+            @Override
+            protected EntityVelocityUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityVelocityUpdateEvent(entity, data.getVelocity());
+            }
+
+            @Override
+            protected void apply(EntityVelocityUpdateEvent event, CoreEntityData data) {
+                data.setVelocity(event.getVelocity());
+            }
+        });
+        register(EntityChange.ACCELERATION, new FieldHandler<EntityAccelerationUpdateEvent>(
+                EntityAccelerationUpdateEvent.class) {
+
+            @Override
+            protected EntityAccelerationUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityAccelerationUpdateEvent(entity, data.getAcceleration());
+            }
+
+            @Override
+            protected void apply(EntityAccelerationUpdateEvent event, CoreEntityData data) {
+                data.setAcceleration(event.getAcceleration());
+            }
+        });
+        register(EntityChange.EXTRA_VELOCITY, new FieldHandler<EntityExtraVelocityUpdateEvent>(
+                EntityExtraVelocityUpdateEvent.class) {
+
+            @Override
+            protected EntityExtraVelocityUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityExtraVelocityUpdateEvent(entity, data.getExtraVelocity());
+            }
+
+            @Override
+            protected void apply(EntityExtraVelocityUpdateEvent event, CoreEntityData data) {
+                data.setExtraVelocity(event.getExtraVelocity());
+            }
+        });
+        register(EntityChange.FLAGS, new FieldHandler<EntityFlagsUpdateEvent>(EntityFlagsUpdateEvent.class) {
+
+            @Override
+            protected EntityFlagsUpdateEvent createEvent(Entity entity, CoreEntityData data) {
+                return new EntityFlagsUpdateEvent(entity, data.getFlags1(), data.getFlags2());
+            }
+
+            @Override
+            protected void apply(EntityFlagsUpdateEvent event, CoreEntityData data) {
+                data.setFlags1(event.getFlags1());
+                data.setFlags2(event.getFlags2());
+            }
+        });
+    }
+
+    /**
+     * Calls the events of every changed field of {@code data} which has a
+     * handler, then the batched {@link EntityDataUpdateEvent}. The handlers
+     * may modify {@code data} before it is merged into the entity.
+     */
+    public void process(Entity entity, CoreEntityData data) {
+        for (long mask = data.getChanges().getMask() & handledMask; mask != 0; mask &= mask - 1) {
+            process(handlers[Long.numberOfTrailingZeros(mask)], entity, data);
+        }
+
+        if (eventManager.hasHandlers(EntityDataUpdateEvent.class)) {
+            eventManager.callEvent(new EntityDataUpdateEvent(entity, data, data.getChanges().getMask()));
+        }
+    }
+
+    private <E extends Event> void process(FieldHandler<E> handler, Entity entity, CoreEntityData data) {
+        if (eventManager.hasHandlers(handler.eventClass)) {
+            E event = eventManager.callEvent(handler.createEvent(entity, data));
+            handler.apply(event, data);
+        }
+    }
+}
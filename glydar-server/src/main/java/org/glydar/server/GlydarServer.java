@@ -3,33 +3,33 @@ package org.glydar.server;
 import io.netty.channel.Channel;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.glydar.api.BackendType;
 import org.glydar.api.Server;
 import org.glydar.api.model.entity.Entity;
-import org.glydar.api.model.entity.EntityData;
 import org.glydar.api.model.entity.Player;
 import org.glydar.api.model.world.World;
 import org.glydar.api.plugin.event.EventPriority;
-import org.glydar.api.plugin.event.events.EntityAccelerationUpdateEvent;
-import org.glydar.api.plugin.event.events.EntityExtraVelocityUpdateEvent;
 import org.glydar.api.plugin.event.events.EntityFlagsUpdateEvent;
-import org.glydar.api.plugin.event.events.EntityOrientationUpdateEvent;
-import org.glydar.api.plugin.event.events.EntityPositionUpdateEvent;
-import org.glydar.api.plugin.event.events.EntityVelocityUpdateEvent;
+import org.glydar.api.plugin.scheduler.GlydarScheduler;
 import org.glydar.core.BackendPlugin;
 import org.glydar.core.CoreBackend;
 import org.glydar.core.model.actions.KillAction;
 import org.glydar.core.model.entity.CoreEntity;
 import org.glydar.core.model.entity.CorePlayer;
 import org.glydar.core.model.entity.EntityChange;
-import org.glydar.core.model.entity.EntityChanges;
+import org.glydar.core.model.entity.EntityRegistry;
 import org.glydar.core.model.world.CoreWorld;
+import org.glydar.core.plugin.event.EventTimings;
 import org.glydar.core.protocol.Packet;
 import org.glydar.core.protocol.ProtocolHandler;
 import org.glydar.core.protocol.RemoteType;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+import org.glydar.core.protocol.driver.OutboundPolicy;
 import org.glydar.core.protocol.exceptions.ServerOnlyPacketException;
 import org.glydar.core.protocol.packet.Packet00EntityUpdate;
 import org.glydar.core.protocol.packet.Packet02UpdateFinished;
@@ -47,6 +47,7 @@ import org.glydar.core.protocol.packet.Packet15Seed;
 import org.glydar.core.protocol.packet.Packet16Join;
 import org.glydar.core.protocol.packet.Packet17VersionExchange;
 import org.glydar.core.protocol.packet.Packet18ServerFull;
+import org.glydar.core.util.TickLoop;
 
 import com.google.common.collect.ImmutableList;
 
@@ -57,32 +58,64 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
 
     private final GlydarServerConfig config;
     private final List<CoreWorld> worlds;
-    private final HashMap<Long, CoreEntity> entities;
+    private final EntityRegistry entities;
+    private final TickLoop tickLoop;
+    private final EntityUpdatePipeline entityUpdates;
+    private final Queue<OutboundCoalescer> pendingFlushes;
+    private final OutboundPolicy outboundPolicy;
 
     public GlydarServer() {
         super(NAME);
 
         this.config = new GlydarServerConfig(this);
         this.worlds = new ArrayList<>();
-        this.entities = new HashMap<>();
+        this.entities = new EntityRegistry();
+        this.entityUpdates = new EntityUpdatePipeline(getEventManager());
+        this.pendingFlushes = new ConcurrentLinkedQueue<>();
+        this.outboundPolicy = config.getOutboundPolicy();
+        this.tickLoop = new TickLoop(getLogger(TickLoop.class), config.getTPS(), new TickLoop.Tickable() {
+
+            @Override
+            public void tick(int currentTick) {
+                // A failing world must not hold back the plugin tasks, the
+                // tick loop logs the exception
+                try {
+                    GlydarServer.this.tick();
+                }
+                finally {
+                    GlydarScheduler.getInstance().mainThreadHeartbeat(currentTick);
+                }
+            }
+        });
 
         setUpWorlds();
         registerListeners();
+        registerCommands();
     }
 
     void setUpWorlds() {
         for (GlydarServerConfig.WorldConfig worldConfig : config.getAllWorldsConfigs()) {
             CoreWorld world = new CoreWorld(worldConfig.getName(), worldConfig.getSeed());
             world.setPvpAllowed(worldConfig.isPvpAllowed());
+            world.setInterestRadius(config.getInterestRadius());
             worlds.add(world);
         }
     }
 
     private void registerListeners() {
+        EventTimings timings = getEventManager().getTimings();
+        timings.setMode(config.getEventTimingsMode());
+        timings.setBudget(config.getEventBudget(), TimeUnit.MILLISECONDS);
+        getEventManager().setAsyncThreads(config.getAsyncEventThreads());
+
         getEventManager().register(new BackendPlugin(this), EntityFlagsUpdateEvent.class, new DefaultPVPListener(),
                 EventPriority.LOWEST);
     }
 
+    private void registerCommands() {
+        getCommandManager().register(new BackendPlugin(this), new ServerCommands(this));
+    }
+
     @Override
     public BackendType getType() {
         return BackendType.SERVER;
@@ -97,6 +130,8 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
         }
 
         getConsoleReader().interrupt();
+        tickLoop.stop();
+        getEventManager().shutdown();
         GlydarServerMain.shutdown();
     }
 
@@ -104,6 +139,10 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
         return config;
     }
 
+    public TickLoop getTickLoop() {
+        return tickLoop;
+    }
+
     public CoreWorld getDefaultWorld() {
         return worlds.get(0);
     }
@@ -120,17 +159,16 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
 
     @Override
     public void unregisterEntity(long id) {
-        entities.remove(id);
+        entities.unregister(id);
     }
 
     @Override
     public void registerEntity(Entity entity) {
-        CoreEntity coreEntity = (CoreEntity) entity;
-        entities.put(coreEntity.getId(), coreEntity);
+        entities.register((CoreEntity) entity);
     }
 
     public ImmutableList<Entity> getEntities() {
-        return ImmutableList.<Entity> copyOf(entities.values());
+        return ImmutableList.<Entity> copyOf(entities.entities());
     }
 
     public ImmutableList<Player> getPlayers() {
@@ -138,13 +176,11 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
     }
 
     public ImmutableList<CorePlayer> getCorePlayers() {
-        ImmutableList.Builder<CorePlayer> builder = ImmutableList.builder();
-        for (Entity entity : entities.values()) {
-            if (entity instanceof CorePlayer) {
-                builder.add((CorePlayer) entity);
-            }
-        }
-        return builder.build();
+        return ImmutableList.copyOf(entities.players());
+    }
+
+    public int getPlayerCount() {
+        return entities.getPlayerCount();
     }
 
     @Override
@@ -159,17 +195,28 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
 
     @Override
     public CorePlayer createRemote(Channel channel, Object data) {
-        return new CorePlayer(channel);
+        CorePlayer player = new CorePlayer(channel, pendingFlushes);
+        player.setOutboundPolicy(outboundPolicy);
+        return player;
     }
 
     @Override
     public void disconnect(CorePlayer player) {
+        if (!player.isConnected()) {
+            // Never joined a world, e.g. rejected because the server is full
+            return;
+        }
+
+        if (player.getOutboundLevel() == OutboundPolicy.Level.OVERFLOWED) {
+            getLogger().warning("Player {0} could not keep up, {1} bytes were waiting to be sent", player.getName(),
+                    player.getOutbound().getPendingBytes());
+        }
         getLogger().info("Player {0} left the server", player.getName());
         player.remove();
     }
 
     private void sendPacketsToAll(Packet... packets) {
-        for (CorePlayer player : getCorePlayers()) {
+        for (CorePlayer player : entities.players()) {
             player.sendPackets(packets);
         }
     }
@@ -186,170 +233,14 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
             // TODO: INSERT JOIN EVENT!
         }
 
-        // TODO: FINISH EVENTS
-        EntityData data = packet.getData();
-        EntityChanges otherChanges = packet.getData().getChanges();
-        if (otherChanges.get(EntityChange.POSITION)) {
-            EntityPositionUpdateEvent event = getEventManager().callEvent(
-                    new EntityPositionUpdateEvent(player, data.getPosition()));
-            data.setPosition(event.getPosition());
-        }
-        if (otherChanges.get(EntityChange.ORIENTATION)) {
-            EntityOrientationUpdateEvent event = getEventManager().callEvent(
-                    new EntityOrientationUpdateEvent(player, data.getOrientation()));
-            data.setOrientation(event.getOrientation());
-        }
-        if (otherChanges.get(EntityChange.VELOCITY)) {
-            EntityVelocityUpdateEvent event = getEventManager().callEvent(
-                    new EntityVelocityUpdateEvent(player, data.getVelocity()));
-            data.setVelocity(event.getVelocity());
-        }
-        if (otherChanges.get(EntityChange.ACCELERATION)) {
-            EntityAccelerationUpdateEvent event = getEventManager().callEvent(
-                    new EntityAccelerationUpdateEvent(player, data.getAcceleration()));
-            data.setAcceleration(event.getAcceleration());
-        }
-        if (otherChanges.get(EntityChange.EXTRA_VELOCITY)) {
-            EntityExtraVelocityUpdateEvent event = getEventManager().callEvent(
-                    new EntityExtraVelocityUpdateEvent(player, data.getExtraVelocity()));
-            data.setExtraVelocity(event.getExtraVelocity());
-        }
-        if (otherChanges.get(EntityChange.LOOK_PITCH)) {
-
-        }
-        if (otherChanges.get(EntityChange.PHYSICS_FLAGS)) {
-
-        }
-        if (otherChanges.get(EntityChange.HOSTILE_TYPE)) {
-
-        }
-        if (otherChanges.get(EntityChange.ENTITY_TYPE)) {
-
-        }
-        if (otherChanges.get(EntityChange.CURRENT_MODE)) {
-
-        }
-        if (otherChanges.get(EntityChange.LAST_SHOOT_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.HIT_COUNTER)) {
-
-        }
-        if (otherChanges.get(EntityChange.LAST_HIT_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.APPEARANCE)) {
-
-        }
-        if (otherChanges.get(EntityChange.FLAGS)) {
-            EntityFlagsUpdateEvent event = getEventManager().callEvent(
-                    new EntityFlagsUpdateEvent(player, data.getFlags1(), data.getFlags2()));
-            data.setFlags1(event.getFlags1());
-            data.setFlags2(event.getFlags2());
-        }
-        if (otherChanges.get(EntityChange.ROLL_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.STUN_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.SLOWED_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.MAKE_BLUE_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.SPEED_UP_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.SLOW_PATCH_TIME)) {
-
-        }
-        if (otherChanges.get(EntityChange.ENTITY_CLASS)) {
-
-        }
-        if (otherChanges.get(EntityChange.SPECIALIZATION)) {
-
-        }
-        if (otherChanges.get(EntityChange.CHARGED_MP)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_1_2_3)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_4_5_6)) {
-
-        }
-        if (otherChanges.get(EntityChange.RAY_HIT)) {
-
-        }
-        if (otherChanges.get(EntityChange.HP)) {
-
-        }
-        if (otherChanges.get(EntityChange.MP)) {
-
-        }
-        if (otherChanges.get(EntityChange.BLOCK_POWER)) {
-
-        }
-        if (otherChanges.get(EntityChange.MULTIPLIERS)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_7)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_8)) {
-
-        }
-        if (otherChanges.get(EntityChange.LEVEL)) {
-
-        }
-        if (otherChanges.get(EntityChange.CURRENT_XP)) {
-
-        }
-        if (otherChanges.get(EntityChange.PARENT_OWNER)) {
-
-        }
-        if (otherChanges.get(EntityChange.NA_1_2)) {
-
-        }
-        if (otherChanges.get(EntityChange.NA_3)) {
-
-        }
-        if (otherChanges.get(EntityChange.NA_4)) {
-
-        }
-        if (otherChanges.get(EntityChange.NA_5_NU_11_12)) {
-
-        }
-        if (otherChanges.get(EntityChange.SPAWN_POSITION)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_20_21_22)) {
-
-        }
-        if (otherChanges.get(EntityChange.NU_19)) {
-
-        }
-        if (otherChanges.get(EntityChange.QUICK_ITEM)) {
-
-        }
-        if (otherChanges.get(EntityChange.EQUIPMENT)) {
-
-        }
-        if (otherChanges.get(EntityChange.NAME)) {
-
-        }
-        if (otherChanges.get(EntityChange.SKILLS)) {
-
-        }
-        if (otherChanges.get(EntityChange.ICE_BLOCK_FOUR)) {
-
-        }
-
+        entityUpdates.process(player, packet.getData());
         if (player.getId() == packet.getEntityId()) {
             player.getData().updateFrom(packet.getData());
+            if (packet.getData().getChanges().get(EntityChange.POSITION)) {
+                player.getWorld().positionChanged(player);
+            }
         }
+        packet.release();
     }
 
     @Override
@@ -373,9 +264,13 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
 
     @Override
     public void handle(CorePlayer player, Packet07Hit packet) {
-        player.getWorld().getUpdateData().pushHit(packet);
-
         Entity target = getEntityById(packet.getTargetId());
+        if (target == null) {
+            // The target left since the client saw it
+            return;
+        }
+
+        player.getWorld().getUpdateData().pushHit(packet);
         if (target.getData().getHp() - packet.getDamage() <= 0) {
             player.getWorld().getUpdateData().pushKill(new KillAction(packet.getDamagerId(), packet.getTargetId()));
         }
@@ -429,7 +324,7 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
             return;
         }
 
-        if (getCorePlayers().size() >= config.getMaxPlayers()) {
+        if (getPlayerCount() >= config.getMaxPlayers()) {
             player.sendPackets(new Packet18ServerFull());
             return;
         }
@@ -443,9 +338,22 @@ public class GlydarServer extends CoreBackend implements Server, ProtocolHandler
         throw new ServerOnlyPacketException(packet.getPacketType());
     }
 
+    /**
+     * Runs the packets received since the previous tick, then sends the
+     * updates of every world. Everything else sent to the players during the
+     * tick is flushed at the end.
+     */
     public void tick() {
-        for (CoreWorld world : worlds) {
-            world.tick();
+        for (int i = 0; i < worlds.size(); i++) {
+            worlds.get(i).runSubmittedTasks();
+        }
+        for (int i = 0; i < worlds.size(); i++) {
+            worlds.get(i).tick();
+        }
+
+        OutboundCoalescer outbound;
+        while ((outbound = pendingFlushes.poll()) != null) {
+            outbound.flush();
         }
     }
 }
@@ -3,11 +3,16 @@ package org.glydar.server;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import org.glydar.api.model.world.World;
 import org.glydar.api.plugin.configuration.ConfigurationSection;
 import org.glydar.api.plugin.configuration.file.YamlConfiguration;
+import org.glydar.core.model.world.CoreWorld;
+import org.glydar.core.plugin.event.EventTimings;
+import org.glydar.core.protocol.driver.OutboundPolicy;
+import org.glydar.core.protocol.driver.TransportSettings;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -24,6 +29,19 @@ public class GlydarServerConfig {
     private static final String TPS_KEY = "settings.tps";
     private static final int TPS_DEFAULT = 50;
     private static final String TPS_SYSTEM_KEY = "glydar.tps";
+    private static final String INTEREST_RADIUS_KEY = "settings.interest-radius";
+    private static final int INTEREST_RADIUS_DEFAULT = CoreWorld.DEFAULT_INTEREST_RADIUS;
+    private static final String EVENT_TIMINGS_KEY = "settings.event-timings";
+    private static final String EVENT_TIMINGS_DEFAULT = "off";
+    private static final String EVENT_BUDGET_KEY = "settings.event-budget-ms";
+    private static final long EVENT_BUDGET_DEFAULT = EventTimings.DEFAULT_BUDGET_MILLIS;
+    private static final String ASYNC_EVENT_THREADS_KEY = "settings.async-event-threads";
+    private static final int ASYNC_EVENT_THREADS_DEFAULT = 2;
+    private static final String NETWORK_KEY = "settings.network";
+    private static final String OUTBOUND_LOW_WATER_MARK_KEY = "settings.outbound.low-water-mark";
+    private static final String OUTBOUND_HIGH_WATER_MARK_KEY = "settings.outbound.high-water-mark";
+    private static final String OUTBOUND_LIMIT_KEY = "settings.outbound.limit";
+    private static final String OUTBOUND_CONGESTED_INTERVAL_KEY = "settings.outbound.congested-update-interval";
 
     private static final String MAX_PLAYERS_KEY = "server.max-players";
     private static final int MAX_PLAYERS_DEFAULT = 4;
@@ -55,6 +73,15 @@ public class GlydarServerConfig {
         config.addDefault(DEBUG_KEY, DEBUG_DEFAULT);
         config.addDefault(PORT_KEY, PORT_DEFAULT);
         config.addDefault(TPS_KEY, TPS_DEFAULT);
+        config.addDefault(INTEREST_RADIUS_KEY, INTEREST_RADIUS_DEFAULT);
+        config.addDefault(EVENT_TIMINGS_KEY, EVENT_TIMINGS_DEFAULT);
+        config.addDefault(EVENT_BUDGET_KEY, EVENT_BUDGET_DEFAULT);
+        config.addDefault(ASYNC_EVENT_THREADS_KEY, ASYNC_EVENT_THREADS_DEFAULT);
+        TransportSettings.addDefaults(config, NETWORK_KEY);
+        config.addDefault(OUTBOUND_LOW_WATER_MARK_KEY, OutboundPolicy.DEFAULT_LOW_WATER_MARK);
+        config.addDefault(OUTBOUND_HIGH_WATER_MARK_KEY, OutboundPolicy.DEFAULT_HIGH_WATER_MARK);
+        config.addDefault(OUTBOUND_LIMIT_KEY, OutboundPolicy.DEFAULT_LIMIT);
+        config.addDefault(OUTBOUND_CONGESTED_INTERVAL_KEY, OutboundPolicy.DEFAULT_CONGESTED_UPDATE_INTERVAL);
         config.addDefault(MAX_PLAYERS_KEY, MAX_PLAYERS_DEFAULT);
         config.addDefault(ADMINS_KEY, ADMINS_DEFAULT);
         config.addDefault(WORLD_NAME_KEY, WORLD_NAME_DEFAULT);
@@ -118,6 +145,64 @@ public class GlydarServerConfig {
         return tps;
     }
 
+    /**
+     * Radius, in blocks, around a player in which entities are sent to this
+     * player.
+     */
+    public int getInterestRadius() {
+        return config.getInt(INTEREST_RADIUS_KEY);
+    }
+
+    /**
+     * Instrumentation of the event handlers : off, sampled or full.
+     */
+    public EventTimings.Mode getEventTimingsMode() {
+        String mode = config.getString(EVENT_TIMINGS_KEY);
+        try {
+            return EventTimings.Mode.valueOf(mode.toUpperCase(Locale.ENGLISH));
+        }
+        catch (IllegalArgumentException exc) {
+            server.getLogger().warning("Unknown event timings mode {0}, disabling timings", mode);
+            return EventTimings.Mode.OFF;
+        }
+    }
+
+    /**
+     * Time, in milliseconds, above which an event handler is reported as
+     * slow.
+     */
+    public long getEventBudget() {
+        return config.getLong(EVENT_BUDGET_KEY);
+    }
+
+    /**
+     * Number of threads running the async event handlers, a plugin only uses
+     * one at a time.
+     */
+    public int getAsyncEventThreads() {
+        return Math.max(1, config.getInt(ASYNC_EVENT_THREADS_KEY));
+    }
+
+    public TransportSettings getTransportSettings() {
+        return TransportSettings.fromConfig(config, NETWORK_KEY, server.getLogger());
+    }
+
+    /**
+     * Backlog, in bytes, above which players are considered too slow, see
+     * {@link OutboundPolicy}.
+     */
+    public OutboundPolicy getOutboundPolicy() {
+        try {
+            return new OutboundPolicy(config.getInt(OUTBOUND_LOW_WATER_MARK_KEY),
+                    config.getInt(OUTBOUND_HIGH_WATER_MARK_KEY), config.getInt(OUTBOUND_LIMIT_KEY),
+                    config.getInt(OUTBOUND_CONGESTED_INTERVAL_KEY));
+        }
+        catch (IllegalArgumentException exc) {
+            server.getLogger().warning("Invalid outbound settings ({0}), using the defaults", exc.getMessage());
+            return OutboundPolicy.DEFAULT;
+        }
+    }
+
     public int getMaxPlayers() {
         return config.getInt(MAX_PLAYERS_KEY);
     }
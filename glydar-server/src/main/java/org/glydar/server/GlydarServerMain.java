@@ -1,38 +1,47 @@
 package org.glydar.server;
 
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.EventLoopGroup;
 
 import java.util.concurrent.TimeUnit;
 
 import org.glydar.api.Glydar;
+import org.glydar.core.model.entity.CorePlayer;
+import org.glydar.core.protocol.ProtocolHandler;
+import org.glydar.core.protocol.driver.ProtocolDispatcher;
 import org.glydar.core.protocol.driver.ProtocolInitializer;
+import org.glydar.core.protocol.driver.TransportSettings;
 
 import com.google.common.base.Stopwatch;
 
 public class GlydarServerMain {
 
-    private static NioEventLoopGroup bossGroup;
-    private static NioEventLoopGroup workerGroup;
-    private static boolean running;
+    private static EventLoopGroup bossGroup;
+    private static EventLoopGroup workerGroup;
 
     public static void main(String[] args) {
         Stopwatch watch = Stopwatch.createStarted();
 
-        GlydarServer server = (GlydarServer) Glydar.getBackend();
+        final GlydarServer server = (GlydarServer) Glydar.getBackend();
 
         server.getLogger().info("Starting server {0} version {1}", Glydar.getName(), Glydar.getVersion());
 
-        bossGroup = new NioEventLoopGroup();
-        workerGroup = new NioEventLoopGroup();
+        TransportSettings transport = server.getConfig().getTransportSettings();
+        server.getLogger().info("Network : {0}", transport);
+        bossGroup = transport.newBossGroup();
+        workerGroup = transport.newWorkerGroup();
 
         ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap.group(bossGroup, workerGroup);
-        bootstrap.channel(NioServerSocketChannel.class);
-        bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
-        bootstrap.childHandler(new ProtocolInitializer<>(server));
+        transport.configure(bootstrap);
+        bootstrap.childHandler(new ProtocolInitializer<CorePlayer>(server) {
+
+            @Override
+            protected ProtocolDispatcher<CorePlayer> createDispatcher(ProtocolHandler<CorePlayer> handler,
+                    Object data) {
+                return new ServerProtocolDispatcher(server);
+            }
+        });
         bootstrap.bind(server.getConfig().getPort());
 
         watch.stop();
@@ -42,24 +51,11 @@ public class GlydarServerMain {
         server.getPluginManager().load();
         server.getConsoleReader().start();
 
-        int millisBetweenTicks = 1000 / server.getConfig().getTPS();
-        running = true;
-        while (running) {
-            if (System.currentTimeMillis() % millisBetweenTicks == 0) {
-                server.tick();
-            }
-            try {
-                Thread.sleep(1);
-            }
-            catch (InterruptedException e) {
-                server.shutdown();
-            }
-        }
+        server.getTickLoop().run();
     }
 
     static void shutdown() {
         bossGroup.shutdownGracefully();
         workerGroup.shutdownGracefully();
-        running = false;
     }
 }
@@ -0,0 +1,125 @@
+package org.glydar.server;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.glydar.api.plugin.command.Command;
+import org.glydar.api.plugin.command.CommandOutcome;
+import org.glydar.api.plugin.command.CommandSender;
+import org.glydar.api.plugin.command.CommandSet;
+import org.glydar.core.model.entity.CorePlayer;
+import org.glydar.core.plugin.event.EventTimings;
+import org.glydar.core.protocol.driver.OutboundCoalescer;
+import org.glydar.core.util.TickLoop;
+
+/**
+ * Commands provided by the server itself.
+ */
+public class ServerCommands implements CommandSet {
+
+    private final GlydarServer server;
+
+    public ServerCommands(GlydarServer server) {
+        this.server = server;
+    }
+
+    @Command(name = "tps")
+    public CommandOutcome tps(CommandSender sender) {
+        TickLoop loop = server.getTickLoop();
+        double[] history = loop.getTpsHistory();
+
+        StringBuilder recent = new StringBuilder();
+        for (int i = Math.max(0, history.length - 10); i < history.length; i++) {
+            if (recent.length() > 0) {
+                recent.append(", ");
+            }
+            recent.append(String.format("%.1f", history[i]));
+        }
+
+        sender.sendMessage("TPS (target " + loop.getTargetTps() + ") : " + recent);
+        sender.sendMessage("Tick " + loop.getCurrentTick() + ", last took "
+                + loop.getLastTickDuration(TimeUnit.MICROSECONDS) + "us, " + loop.getOverrunCount() + " overruns, "
+                + loop.getSkippedCount() + " skipped");
+        return CommandOutcome.SUCCESS;
+    }
+
+    @Command(name = "timings", usage = "[off|sampled|full|reset]", maxArgs = 1)
+    public CommandOutcome timings(CommandSender sender, String... args) {
+        EventTimings timings = server.getEventManager().getTimings();
+        if (args.length == 1) {
+            if (args[0].equalsIgnoreCase("reset")) {
+                timings.reset();
+                sender.sendMessage("Event timings reset");
+                return CommandOutcome.SUCCESS;
+            }
+
+            try {
+                timings.setMode(EventTimings.Mode.valueOf(args[0].toUpperCase(Locale.ENGLISH)));
+            }
+            catch (IllegalArgumentException exc) {
+                return CommandOutcome.WRONG_USAGE;
+            }
+            sender.sendMessage("Event timings " + timings.getMode().name().toLowerCase(Locale.ENGLISH));
+            return CommandOutcome.SUCCESS;
+        }
+
+        List<EventTimings.Snapshot> snapshots = timings.snapshot();
+        sender.sendMessage("Event timings (" + timings.getMode().name().toLowerCase(Locale.ENGLISH) + ", budget "
+                + timings.getBudget(TimeUnit.MILLISECONDS) + "ms) : " + snapshots.size() + " handlers");
+        for (int i = 0; i < Math.min(10, snapshots.size()); i++) {
+            EventTimings.Snapshot snapshot = snapshots.get(i);
+            String allocated = timings.isAllocationTracked() ? snapshot.getMeanAllocatedBytes() + "B" : "n/a";
+            sender.sendMessage(String.format("%s %s : %d calls, ~%dus total, %dns mean, %dns max, %s/call",
+                    snapshot.getPluginName(), snapshot.getEventClass().getSimpleName(), snapshot.getInvocations(),
+                    TimeUnit.NANOSECONDS.toMicros(snapshot.getEstimatedTotalNanos()), snapshot.getMeanNanos(),
+                    snapshot.getMaxNanos(), allocated));
+        }
+        return CommandOutcome.SUCCESS;
+    }
+
+    /**
+     * The players and their outbound state belong to the tick thread, the
+     * command runs there at the start of the next tick.
+     */
+    @Command(name = "outbound", usage = "[reset]", maxArgs = 1)
+    public CommandOutcome outbound(final CommandSender sender, String... args) {
+        final boolean reset = args.length == 1;
+        if (reset && !args[0].equalsIgnoreCase("reset")) {
+            return CommandOutcome.WRONG_USAGE;
+        }
+
+        server.getDefaultWorld().submit(new Runnable() {
+
+            @Override
+            public void run() {
+                if (reset) {
+                    resetOutboundPeaks(sender);
+                }
+                else {
+                    reportOutbound(sender);
+                }
+            }
+        });
+        return CommandOutcome.SUCCESS;
+    }
+
+    private void resetOutboundPeaks(CommandSender sender) {
+        for (CorePlayer player : server.getCorePlayers()) {
+            player.getOutbound().resetPeakPendingBytes();
+        }
+        sender.sendMessage("Outbound peaks reset");
+    }
+
+    private void reportOutbound(CommandSender sender) {
+        List<CorePlayer> players = server.getCorePlayers();
+        sender.sendMessage("Outbound backlog of " + players.size() + " players :");
+        for (CorePlayer player : players) {
+            OutboundCoalescer outbound = player.getOutbound();
+            sender.sendMessage(String.format("%s : %s, %dB pending, %dB peak, %dB superseded, %d congested ticks",
+                    player.getName(), player.getOutboundLevel().name().toLowerCase(Locale.ENGLISH),
+                    outbound.getPendingBytes(), outbound.getPeakPendingBytes(), outbound.getSupersededBytes(),
+                    player.getCongestedTicks()));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.glydar.server;
+
+import org.glydar.core.model.entity.CorePlayer;
+import org.glydar.core.model.world.CoreWorld;
+import org.glydar.core.protocol.Packet;
+import org.glydar.core.protocol.driver.ProtocolDispatcher;
+
+/**
+ * Hands the packets received from a player over to the tick thread, through
+ * the inbound queue of the player's world (or of the default world for
+ * players who did not join one yet).
+ */
+public class ServerProtocolDispatcher extends ProtocolDispatcher<CorePlayer> {
+
+    private final GlydarServer server;
+
+    public ServerProtocolDispatcher(GlydarServer server) {
+        super(server, null);
+        this.server = server;
+    }
+
+    private CoreWorld worldOf(CorePlayer player) {
+        CoreWorld world = player.getWorld();
+        return world == null ? server.getDefaultWorld() : world;
+    }
+
+    @Override
+    protected void dispatch(final CorePlayer player, final Packet packet) {
+        worldOf(player).submit(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    packet.dispatchTo(server, player);
+                }
+                catch (RuntimeException exc) {
+                    server.getLogger().warning(exc, "Error while handling packet {0} for {1}",
+                            packet.getPacketType(), player.getChannel().remoteAddress());
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void disconnect(final CorePlayer player) {
+        worldOf(player).submit(new Runnable() {
+
+            @Override
+            public void run() {
+                server.disconnect(player);
+            }
+        });
+    }
+}
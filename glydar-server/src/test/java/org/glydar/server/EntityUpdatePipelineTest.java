@@ -0,0 +1,139 @@
+package org.glydar.server;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.glydar.api.model.geom.LongVector3;
+import org.glydar.api.model.geom.Orientation;
+import org.glydar.api.plugin.Plugin;
+import org.glydar.api.plugin.event.Event;
+import org.glydar.api.plugin.event.EventExecutor;
+import org.glydar.api.plugin.event.EventManager;
+import org.glydar.api.plugin.event.EventPriority;
+import org.glydar.api.plugin.event.Listener;
+import org.glydar.api.plugin.event.events.EntityDataUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityOrientationUpdateEvent;
+import org.glydar.api.plugin.event.events.EntityPositionUpdateEvent;
+import org.glydar.core.model.entity.CoreEntityData;
+import org.glydar.core.model.entity.EntityChange;
+import org.glydar.core.model.entity.EntityChanges;
+import org.junit.Test;
+
+public class EntityUpdatePipelineTest {
+
+    private static final LongVector3 RECEIVED = new LongVector3(1, 2, 3);
+    private static final LongVector3 MOVED = new LongVector3(4, 5, 6);
+
+    /**
+     * Records the called events. Position updates are moved to
+     * {@link #MOVED}.
+     */
+    private static class RecordingEventManager implements EventManager {
+
+        private final Set<Class<? extends Event>> listened = new HashSet<>();
+        private final List<Event> called = new ArrayList<>();
+
+        @Override
+        public boolean register(Plugin plugin, Listener listener) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <E extends Event> void register(Plugin plugin, Class<E> eventClass, EventExecutor<E> executor,
+                EventPriority priority) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void unregister(EventExecutor<?> executor) {
+        }
+
+        @Override
+        public void unregister(Listener listener) {
+        }
+
+        @Override
+        public void unregisterAll(Plugin plugin) {
+        }
+
+        @Override
+        public boolean hasHandlers(Class<? extends Event> eventClass) {
+            return listened.contains(eventClass);
+        }
+
+        @Override
+        public <E extends Event> E callEvent(E event) {
+            called.add(event);
+            if (event instanceof EntityPositionUpdateEvent) {
+                ((EntityPositionUpdateEvent) event).setPosition(MOVED);
+            }
+            return event;
+        }
+    }
+
+    private static CoreEntityData update() {
+        CoreEntityData data = new CoreEntityData(new EntityChanges());
+        data.getChanges().reset();
+        data.setPosition(RECEIVED);
+        data.setName("Glydar");
+        return data;
+    }
+
+    @Test
+    public void testNoEventWithoutListeners() {
+        RecordingEventManager eventManager = new RecordingEventManager();
+        CoreEntityData data = update();
+        new EntityUpdatePipeline(eventManager).process(null, data);
+
+        assertTrue(eventManager.called.isEmpty());
+        assertEquals(RECEIVED, data.getPosition());
+    }
+
+    @Test
+    public void testHandlerModificationsAreApplied() {
+        RecordingEventManager eventManager = new RecordingEventManager();
+        eventManager.listened.add(EntityPositionUpdateEvent.class);
+        CoreEntityData data = update();
+        new EntityUpdatePipeline(eventManager).process(null, data);
+
+        assertEquals(1, eventManager.called.size());
+        assertTrue(eventManager.called.get(0) instanceof EntityPositionUpdateEvent);
+        assertEquals(MOVED, data.getPosition());
+    }
+
+    @Test
+    public void testBatchedEventIsCalledOnceWithTheReceivedMask() {
+        RecordingEventManager eventManager = new RecordingEventManager();
+        eventManager.listened.add(EntityDataUpdateEvent.class);
+        CoreEntityData data = update();
+        long mask = data.getChanges().getMask();
+        new EntityUpdatePipeline(eventManager).process(null, data);
+
+        assertEquals(1, eventManager.called.size());
+        EntityDataUpdateEvent event = (EntityDataUpdateEvent) eventManager.called.get(0);
+        assertSame(data, event.getData());
+        assertEquals(mask, event.getChangeMask());
+        assertEquals(EntityChanges.bit(EntityChange.POSITION) | EntityChanges.bit(EntityChange.NAME), mask);
+    }
+
+    @Test
+    public void testFieldsWithoutHandlersAreUntouched() {
+        RecordingEventManager eventManager = new RecordingEventManager();
+        eventManager.listened.add(EntityPositionUpdateEvent.class);
+        eventManager.listened.add(EntityOrientationUpdateEvent.class);
+        CoreEntityData data = update();
+        Orientation orientation = data.getOrientation();
+        new EntityUpdatePipeline(eventManager).process(null, data);
+
+        // Orientation did not change, name has no field handler
+        assertEquals(1, eventManager.called.size());
+        assertSame(orientation, data.getOrientation());
+        assertEquals("Glydar", data.getName());
+        assertEquals(EntityChanges.bit(EntityChange.POSITION) | EntityChanges.bit(EntityChange.NAME), data
+                .getChanges().getMask());
+    }
+}